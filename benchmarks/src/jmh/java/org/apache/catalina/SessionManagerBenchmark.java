@@ -0,0 +1,82 @@
+package org.apache.catalina;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Session lookups from many request threads at once, on their own and while other threads log in and out. Every
+ * lookup also records the access time, so readers write to the sessions they find.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionManagerBenchmark {
+
+    @Param({"10000"})
+    private int sessions;
+
+    private SessionManager sessionManager;
+    private String[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionManager = new SessionManager();
+        ids = new String[sessions];
+        for (int i = 0; i < sessions; i++) {
+            ids[i] = sessionManager.createSession().getId();
+        }
+    }
+
+    private String randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Session findSession() {
+        return sessionManager.findSession(randomId());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Session findMissingSession() {
+        return sessionManager.findSession("656cef62-e3c4-40bc-a8df-94732920ed46");
+    }
+
+    @Benchmark
+    @Group("loginChurn")
+    @GroupThreads(6)
+    public Session lookup() {
+        return sessionManager.findSession(randomId());
+    }
+
+    /**
+     * A login followed by a logout, so the number of sessions stays where it started.
+     */
+    @Benchmark
+    @Group("loginChurn")
+    @GroupThreads(2)
+    public Session loginAndLogout() {
+        final var session = sessionManager.createSession();
+        sessionManager.remove(session);
+        return session;
+    }
+}
@@ -0,0 +1,90 @@
+package org.apache.catalina;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import nextstep.jwp.db.InMemoryUserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to restore logged-in sessions at startup, either from a compacted snapshot (after a clean stop) or by
+ * replaying the append-only log (after a crash).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SessionRestoreBenchmark {
+
+    private static final String SNAPSHOT = "SNAPSHOT";
+
+    @Param({"1000000"})
+    private int sessions;
+
+    @Param({"SNAPSHOT", "LOG"})
+    private String source;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("sessions");
+        final var sessionManager = new PersistentSessionManager(directory, InMemoryUserRepository::findByAccount,
+                SessionManager.DEFAULT_MAX_INACTIVE_INTERVAL, 0, Long.MAX_VALUE, Clock.systemUTC());
+        sessionManager.start();
+        final var user = InMemoryUserRepository.findByAccount("gugu").orElseThrow();
+        for (int i = 0; i < sessions; i++) {
+            sessionManager.createSession().addUser(user);
+        }
+        if (SNAPSHOT.equals(source)) {
+            sessionManager.stop();
+            return;
+        }
+        sessionManager.flush();
+        final var crashed = Files.createTempDirectory("sessions");
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.copy(file, crashed.resolve(file.getFileName()));
+            }
+        }
+        sessionManager.stop();
+        delete(directory);
+        directory = crashed;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        delete(directory);
+    }
+
+    private static void delete(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public SessionManager restore() throws IOException {
+        final var sessionManager = new PersistentSessionManager(directory, InMemoryUserRepository::findByAccount);
+        sessionManager.load();
+        return sessionManager;
+    }
+}
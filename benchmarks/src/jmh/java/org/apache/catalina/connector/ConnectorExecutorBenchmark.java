@@ -0,0 +1,111 @@
+package org.apache.catalina.connector;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A burst of slow clients against the blocking connector. Every client sends its request headers in two parts with a
+ * pause in between, so a worker is held for the whole pause. With a platform pool the burst is served
+ * {@code maxThreads} clients at a time; with virtual threads every client gets its own thread.
+ *
+ * <p>{@code VIRTUAL} needs a Java 21 benchmark JVM: {@code ./gradlew :benchmarks:jmh -PvirtualThreads}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ConnectorExecutorBenchmark {
+
+    private static final int PORT = 18080;
+    private static final int MAX_THREADS = 50;
+    private static final String REQUEST_START = "GET / HTTP/1.1\r\n";
+    private static final String REQUEST_REST = "Host: localhost\r\nConnection: close\r\n\r\n";
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    private ExecutorType executorType;
+
+    @Param({"500"})
+    private int clients;
+
+    @Param({"20"})
+    private long clientPauseMillis;
+
+    private Connector connector;
+    private ExecutorService clientPool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        connector = new Connector(PORT, clients, MAX_THREADS, clients * 2, 5_000, 1, executorType);
+        connector.start();
+        clientPool = Executors.newFixedThreadPool(clients);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        clientPool.shutdownNow();
+        connector.stop();
+    }
+
+    @Benchmark
+    public long slowClientBurst() throws InterruptedException, ExecutionException {
+        final List<Future<Integer>> responses = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            responses.add(clientPool.submit(this::slowRequest));
+        }
+        long bytes = 0;
+        for (Future<Integer> response : responses) {
+            bytes += response.get();
+        }
+        return bytes;
+    }
+
+    private int slowRequest() throws InterruptedException {
+        try (final var socket = new Socket("localhost", PORT)) {
+            final OutputStream outputStream = socket.getOutputStream();
+            outputStream.write(REQUEST_START.getBytes(StandardCharsets.US_ASCII));
+            outputStream.flush();
+            Thread.sleep(clientPauseMillis);
+            outputStream.write(REQUEST_REST.getBytes(StandardCharsets.US_ASCII));
+            outputStream.flush();
+            return readAll(socket.getInputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int readAll(final InputStream inputStream) throws IOException {
+        final var buffer = new byte[8192];
+        int total = 0;
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            total += read;
+        }
+        return total;
+    }
+}
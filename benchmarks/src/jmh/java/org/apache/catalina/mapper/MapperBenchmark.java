@@ -0,0 +1,70 @@
+package org.apache.catalina.mapper;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.coyote.http11.HttpResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Route lookups against tables of growing size. A literal hit, a hit with a path variable and a miss should each
+ * cost about the same whatever the number of routes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    private static final Controller OK = request -> new HttpResponse("200 OK", "", "");
+
+    @Param({"10", "1000"})
+    private int routes;
+
+    private Mapper mapper;
+    private String literal;
+    private String variable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final var mapping = new RequestMapping();
+        for (int i = 0; i < routes; i++) {
+            mapping.get("/static/section" + i + "/page.html", OK);
+            mapping.get("/api/items" + i + "/{id}", OK);
+        }
+        mapper = mapping.compile();
+        literal = "/static/section" + (routes - 1) + "/page.html";
+        variable = "/api/items" + (routes - 1) + "/42";
+    }
+
+    @Benchmark
+    public Route literal() {
+        return mapper.map("GET", literal);
+    }
+
+    @Benchmark
+    public Route pathVariable() {
+        return mapper.map("GET", variable);
+    }
+
+    @Benchmark
+    public Route miss() {
+        return mapper.map("GET", "/static/nothing/page.html");
+    }
+
+    @Benchmark
+    public Route methodNotAllowed() {
+        return mapper.map("POST", literal);
+    }
+}
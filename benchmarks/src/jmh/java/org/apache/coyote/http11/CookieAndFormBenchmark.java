@@ -0,0 +1,57 @@
+package org.apache.coyote.http11;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parses the {@code Cookie} header a browser sends with every request and the form bodies of login and
+ * registration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CookieAndFormBenchmark {
+
+    private static final String SESSION_ONLY = "JSESSIONID=656cef62-e3c4-40bc-a8df-94732920ed46";
+    private static final String BROWSER_COOKIES = "yummy_cookie=choco; tasty_cookie=strawberry; "
+            + "_ga=GA1.1.1234567890.1690000000; theme=dark; " + SESSION_ONLY;
+    private static final String LOGIN_FORM = "account=gugu&password=password";
+    private static final String REGISTER_FORM = "account=gugu&password=password&email=hkkang%40woowahan.com";
+
+    @Benchmark
+    public String sessionCookie() {
+        return Cookie.parse(SESSION_ONLY).getCookie("JSESSIONID");
+    }
+
+    @Benchmark
+    public String browserCookies() {
+        return Cookie.parse(BROWSER_COOKIES).getCookie("JSESSIONID");
+    }
+
+    @Benchmark
+    public Map<String, String> loginForm() throws IOException {
+        return newRequest(LOGIN_FORM).getForm();
+    }
+
+    @Benchmark
+    public Map<String, String> registerForm() throws IOException {
+        return newRequest(REGISTER_FORM).getForm();
+    }
+
+    private static HttpRequest newRequest(final String body) {
+        return new HttpRequest("POST", "/login", Map.of(), body, Map.of());
+    }
+}
@@ -0,0 +1,166 @@
+package org.apache.coyote.http11;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.apache.catalina.SessionManager;
+import org.apache.catalina.mapper.Mapper;
+import org.apache.catalina.metrics.MetricRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * One connection from parsing to the last byte of the response, over a socket that reads from and writes to memory,
+ * so the score is the processor's own cost without the network. A new processor is made per invocation, as the
+ * connector does per connection; the routes, the static resource cache and the session manager are shared like on
+ * the server.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Http11ProcessorBenchmark {
+
+    private static final String GET_INDEX = String.join("\r\n",
+            "GET /index.html HTTP/1.1 ",
+            "Host: localhost:8080 ",
+            "Connection: close ",
+            "Accept: text/html ",
+            "",
+            "");
+    private static final String GET_INDEX_GZIP = String.join("\r\n",
+            "GET /index.html HTTP/1.1 ",
+            "Host: localhost:8080 ",
+            "Connection: close ",
+            "Accept: text/html ",
+            "Accept-Encoding: gzip, deflate, br ",
+            "",
+            "");
+    private static final String POST_LOGIN = String.join("\r\n",
+            "POST /login HTTP/1.1 ",
+            "Host: localhost:8080 ",
+            "Connection: close ",
+            "Content-Type: application/x-www-form-urlencoded ",
+            "Content-Length: 30 ",
+            "",
+            "account=gugu&password=password");
+    private static final String NOT_FOUND = String.join("\r\n",
+            "GET /nothing.html HTTP/1.1 ",
+            "Host: localhost:8080 ",
+            "Connection: close ",
+            "",
+            "");
+    private static final String KEEP_ALIVE = String.join("\r\n",
+            "GET /index.html HTTP/1.1 ",
+            "Host: localhost:8080 ",
+            "",
+            "GET /css/styles.css HTTP/1.1 ",
+            "Host: localhost:8080 ",
+            "",
+            "GET /js/scripts.js HTTP/1.1 ",
+            "Host: localhost:8080 ",
+            "Connection: close ",
+            "",
+            "");
+
+    @Param({"GET_INDEX", "GET_INDEX_GZIP", "POST_LOGIN", "NOT_FOUND", "KEEP_ALIVE"})
+    private String request;
+
+    private byte[] requestBytes;
+    private Mapper mapper;
+    private HttpMetrics metrics;
+    private InMemorySocket socket;
+
+    @Setup(Level.Trial)
+    public void setUp(final Blackhole blackhole) {
+        requestBytes = toRequest(request).getBytes(StandardCharsets.UTF_8);
+        metrics = new HttpMetrics(new MetricRegistry());
+        mapper = Http11Processor.createMapper(new SessionManager(), new StaticResourceCache(),
+                CachePolicy.defaultPolicy(), metrics);
+        socket = new InMemorySocket(blackhole);
+    }
+
+    private static String toRequest(final String request) {
+        switch (request) {
+            case "GET_INDEX":
+                return GET_INDEX;
+            case "GET_INDEX_GZIP":
+                return GET_INDEX_GZIP;
+            case "POST_LOGIN":
+                return POST_LOGIN;
+            case "NOT_FOUND":
+                return NOT_FOUND;
+            case "KEEP_ALIVE":
+                return KEEP_ALIVE;
+            default:
+                throw new IllegalArgumentException(request);
+        }
+    }
+
+    @Benchmark
+    public long process() {
+        socket.reset(requestBytes);
+        final var processor = new Http11Processor(socket, mapper, CachePolicy.defaultPolicy(), metrics, null,
+                Http11Processor.DEFAULT_KEEP_ALIVE_TIMEOUT, Http11Processor.DEFAULT_MAX_KEEP_ALIVE_REQUESTS,
+                HttpRequestParser.DEFAULT_MAX_BODY_SIZE);
+        processor.process(socket);
+        return socket.written;
+    }
+
+    /**
+     * Reads the request from an array and hands what is written to the blackhole, counting the bytes.
+     */
+    private static class InMemorySocket extends Socket {
+
+        private final OutputStream outputStream;
+        private InputStream inputStream;
+        private long written;
+
+        private InMemorySocket(final Blackhole blackhole) {
+            this.outputStream = new OutputStream() {
+                @Override
+                public void write(final int b) {
+                    written++;
+                    blackhole.consume(b);
+                }
+
+                @Override
+                public void write(final byte[] b, final int off, final int len) {
+                    written += len;
+                    blackhole.consume(b);
+                }
+            };
+        }
+
+        private void reset(final byte[] request) {
+            inputStream = new ByteArrayInputStream(request);
+            written = 0;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return inputStream;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return outputStream;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.apache.coyote.http11;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parses the requests the application actually receives with the byte parser and with the old line based parser.
+ * The byte parser is reused across invocations like it is reused across the requests of one connection, and so is
+ * the request it recycles; run with {@code -prof gc} to compare what each parser allocates per request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpRequestParserBenchmark {
+
+    private static final String GET_INDEX = String.join("\r\n",
+            "GET /index.html HTTP/1.1 ",
+            "Host: localhost:8080 ",
+            "Connection: keep-alive ",
+            "User-Agent: Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 ",
+            "Accept: text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8 ",
+            "Accept-Encoding: gzip, deflate, br ",
+            "Accept-Language: ko-KR,ko;q=0.9,en-US;q=0.8 ",
+            "",
+            "");
+    private static final String POST_LOGIN = String.join("\r\n",
+            "POST /login HTTP/1.1 ",
+            "Host: localhost:8080 ",
+            "Connection: keep-alive ",
+            "Content-Type: application/x-www-form-urlencoded ",
+            "Content-Length: 30 ",
+            "",
+            "account=gugu&password=password");
+    private static final String GET_LOGIN_WITH_COOKIE = String.join("\r\n",
+            "GET /login HTTP/1.1 ",
+            "Host: localhost:8080 ",
+            "Connection: keep-alive ",
+            "Accept: text/html ",
+            "Cookie: yummy_cookie=choco; tasty_cookie=strawberry; JSESSIONID=656cef62-e3c4-40bc-a8df-94732920ed46",
+            "",
+            "");
+
+    @Param({"GET_INDEX", "POST_LOGIN", "GET_LOGIN_WITH_COOKIE"})
+    private String request;
+
+    private ByteArrayInputStream inputStream;
+    private HttpRequestParser parser;
+    private LegacyHttpRequestParser legacyParser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        inputStream = new ByteArrayInputStream(toBytes(request));
+        parser = new HttpRequestParser();
+        legacyParser = new LegacyHttpRequestParser();
+    }
+
+    private static byte[] toBytes(final String request) {
+        switch (request) {
+            case "GET_INDEX":
+                return GET_INDEX.getBytes(StandardCharsets.UTF_8);
+            case "POST_LOGIN":
+                return POST_LOGIN.getBytes(StandardCharsets.UTF_8);
+            case "GET_LOGIN_WITH_COOKIE":
+                return GET_LOGIN_WITH_COOKIE.getBytes(StandardCharsets.UTF_8);
+            default:
+                throw new IllegalArgumentException(request);
+        }
+    }
+
+    @Benchmark
+    public void byteParser(final Blackhole blackhole) throws IOException {
+        inputStream.reset();
+        consume(parser.accept(inputStream), blackhole);
+    }
+
+    @Benchmark
+    public void legacyParser(final Blackhole blackhole) throws IOException {
+        inputStream.reset();
+        consume(legacyParser.accept(inputStream), blackhole);
+    }
+
+    private void consume(final HttpRequest httpRequest, final Blackhole blackhole) {
+        blackhole.consume(httpRequest.getUri());
+        blackhole.consume(httpRequest.isKeepAlive());
+        blackhole.consume(httpRequest.getCookie("JSESSIONID"));
+    }
+}
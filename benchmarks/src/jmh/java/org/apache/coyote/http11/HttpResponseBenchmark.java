@@ -0,0 +1,91 @@
+package org.apache.coyote.http11;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Serializes the responses the processor produces: a login redirect without a body and pages of growing size.
+ * {@code buildResponse} is the old String based path, {@code writeTo} the one the connectors use.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpResponseBenchmark {
+
+    private static final String CONTENT_TYPE = "Content-Type: text/html;charset=utf-8 ";
+    private static final Map<String, String> REDIRECT_HEADERS = Map.of(
+            "Location", "/index.html", "Set-Cookie", "JSESSIONID=656cef62-e3c4-40bc-a8df-94732920ed46");
+
+    /**
+     * Body size in bytes, 0 for the redirect.
+     */
+    @Param({"0", "1024", "65536"})
+    private int size;
+
+    private byte[] body;
+    private OutputStream outputStream;
+
+    @Setup(Level.Trial)
+    public void setUp(final Blackhole blackhole) {
+        body = new byte[size];
+        Arrays.fill(body, (byte) 'a');
+        outputStream = new OutputStream() {
+            @Override
+            public void write(final int b) {
+                blackhole.consume(b);
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) {
+                blackhole.consume(b);
+            }
+        };
+    }
+
+    private HttpResponse newResponse() {
+        if (size == 0) {
+            return new HttpResponse("302 Found", REDIRECT_HEADERS);
+        }
+        final var response = new HttpResponse("200 OK", CONTENT_TYPE, body);
+        response.addHeader("Cache-Control", CachePolicy.NO_CACHE);
+        return response;
+    }
+
+    @Benchmark
+    public String buildResponse() throws IOException {
+        return newResponse().buildResponse();
+    }
+
+    @Benchmark
+    public void writeTo() throws IOException {
+        newResponse().writeTo(outputStream);
+    }
+
+    /**
+     * What {@code buildResponse} costs a caller that still has to send the result.
+     */
+    @Benchmark
+    public byte[] buildResponseBytes() throws IOException {
+        return newResponse().buildResponse().getBytes(StandardCharsets.UTF_8);
+    }
+}
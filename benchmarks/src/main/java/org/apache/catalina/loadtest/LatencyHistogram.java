@@ -0,0 +1,88 @@
+package org.apache.catalina.loadtest;
+
+/**
+ * Counts latencies in buckets whose width grows with the value, like HdrHistogram: values below 128 ns are exact and
+ * every larger value is kept with its 7 most significant bits, so any percentile is off by less than 1% whatever the
+ * range. Not thread safe; every load thread records into its own and they are added up at the end.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = Long.SIZE - SUB_BUCKET_BITS + 1;
+
+    private final long[] counts = new long[BUCKET_COUNT * SUB_BUCKET_COUNT];
+    private long totalCount;
+    private long max;
+    private double sum;
+
+    public void record(final long nanos) {
+        final var value = Math.max(nanos, 0);
+        counts[indexOf(value)]++;
+        totalCount++;
+        max = Math.max(max, value);
+        sum += value;
+    }
+
+    static int indexOf(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        final var highestBit = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final var shift = highestBit - SUB_BUCKET_BITS;
+        final var mantissa = (int) (value >>> shift);
+        return (shift + 1) * SUB_BUCKET_COUNT + mantissa - SUB_BUCKET_COUNT;
+    }
+
+    /**
+     * @return the largest value counted at {@code index}
+     */
+    static long highestValueAt(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final var shift = index / SUB_BUCKET_COUNT - 1;
+        final long mantissa = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    public void add(final LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        max = Math.max(max, other.max);
+        sum += other.sum;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the latency in nanoseconds that {@code percentile} percent of the recorded latencies do not exceed
+     */
+    public long getValueAtPercentile(final double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        final var rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueAt(i), max);
+            }
+        }
+        return max;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0 : sum / totalCount;
+    }
+}
@@ -0,0 +1,158 @@
+package org.apache.catalina.loadtest;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * A minimal HTTP/1.1 client over one socket at a time: it sends a request, reads the whole response and throws the
+ * body away. The connection is reused until either side asks to close it.
+ */
+public class LoadClient implements AutoCloseable {
+
+    private static final int CONNECT_TIMEOUT = 5_000;
+    private static final int READ_TIMEOUT = 30_000;
+
+    private final InetSocketAddress address;
+    private final byte[] skipBuffer = new byte[8192];
+    private final StringBuilder line = new StringBuilder();
+    private Socket socket;
+    private InputStream inputStream;
+    private OutputStream outputStream;
+    private long bytesRead;
+
+    public LoadClient(final InetSocketAddress address) {
+        this.address = address;
+    }
+
+    /**
+     * @return the status code of the response
+     */
+    public int send(final byte[] request) throws IOException {
+        if (socket == null) {
+            connect();
+        }
+        try {
+            outputStream.write(request);
+            outputStream.flush();
+            return readResponse();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void connect() throws IOException {
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(READ_TIMEOUT);
+        socket.connect(address, CONNECT_TIMEOUT);
+        inputStream = new BufferedInputStream(socket.getInputStream());
+        outputStream = socket.getOutputStream();
+    }
+
+    private int readResponse() throws IOException {
+        final var statusLine = readLine();
+        final var status = Integer.parseInt(statusLine.split(" ")[1]);
+        long contentLength = -1;
+        var chunked = false;
+        var close = false;
+        for (var header = readLine(); !header.isEmpty(); header = readLine()) {
+            final var colon = header.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            final var name = header.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            final var value = header.substring(colon + 1).trim();
+            if (name.equals("content-length")) {
+                contentLength = Long.parseLong(value);
+            } else if (name.equals("transfer-encoding")) {
+                chunked = value.equalsIgnoreCase("chunked");
+            } else if (name.equals("connection")) {
+                close = value.equalsIgnoreCase("close");
+            }
+        }
+        if (chunked) {
+            skipChunks();
+        } else if (contentLength >= 0) {
+            skip(contentLength);
+        } else {
+            // no length: the body ends with the connection
+            for (int read = inputStream.read(skipBuffer); read != -1; read = inputStream.read(skipBuffer)) {
+                bytesRead += read;
+            }
+            close = true;
+        }
+        if (close) {
+            close();
+        }
+        return status;
+    }
+
+    private void skipChunks() throws IOException {
+        while (true) {
+            final var size = Long.parseLong(readLine().split(";")[0].trim(), 16);
+            if (size == 0) {
+                while (!readLine().isEmpty()) {
+                    // trailers
+                }
+                return;
+            }
+            skip(size);
+            readLine();
+        }
+    }
+
+    private void skip(final long length) throws IOException {
+        var remaining = length;
+        while (remaining > 0) {
+            final var read = inputStream.read(skipBuffer, 0, (int) Math.min(skipBuffer.length, remaining));
+            if (read == -1) {
+                throw new EOFException("connection closed with " + remaining + " bytes of the body unread");
+            }
+            remaining -= read;
+            bytesRead += read;
+        }
+    }
+
+    private String readLine() throws IOException {
+        line.setLength(0);
+        int b;
+        while ((b = inputStream.read()) != '\n') {
+            if (b == -1) {
+                throw new EOFException("connection closed before the end of the response head");
+            }
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        bytesRead += line.length() + 2;
+        return line.toString();
+    }
+
+    /**
+     * @return bytes of responses read so far
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public void close() {
+        if (socket == null) {
+            return;
+        }
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // nothing left to read from it
+        }
+        socket = null;
+    }
+}
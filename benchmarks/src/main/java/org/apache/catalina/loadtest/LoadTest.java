@@ -0,0 +1,303 @@
+package org.apache.catalina.loadtest;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.Nullable;
+import org.apache.catalina.Lifecycle;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.connector.NioConnector;
+import org.apache.catalina.startup.ConnectorType;
+import org.apache.coyote.http11.Http11Processor;
+
+/**
+ * Boots a connector on loopback, or targets a running server, and sends it a workload from many client threads.
+ *
+ * <p>In a closed loop every client sends its next request as soon as it has the previous response, so the server
+ * sets the pace. In an open loop requests are due at a fixed total rate whatever the server does, and latency counts
+ * from when a request was due rather than when it was sent: a stalled server shows up as the queue it builds instead
+ * of as fewer, faster samples.
+ *
+ * <pre>
+ * $ ./gradlew :benchmarks:loadTest -Poptions="--connector=nio --mode=open --rate=20000 --concurrency=128"
+ * </pre>
+ *
+ * <p>Options, all {@code --name=value}: {@code connector} (bio, nio, or none to test {@code host} and {@code port}),
+ * {@code host}, {@code port}, {@code mode} (closed, open), {@code concurrency}, {@code rate} (requests per second of
+ * the open loop), {@code duration} and {@code warmup} (seconds), {@code keep-alive} (true, false), {@code workload}
+ * (e.g. {@code static:70,login:20,register:10}) and {@code max-threads} of the booted connector.
+ */
+public class LoadTest {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Options options;
+
+    public LoadTest(final Options options) {
+        this.options = options;
+    }
+
+    public static void main(final String[] args) throws InterruptedException, ExecutionException {
+        final var options = Options.parse(args);
+        final var server = options.startServer();
+        try {
+            System.out.println(options);
+            System.out.println(new LoadTest(options).run());
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    public Result run() throws InterruptedException, ExecutionException {
+        final var address = new InetSocketAddress(options.host, options.port);
+        final ExecutorService clients = Executors.newFixedThreadPool(options.concurrency);
+        try {
+            final var start = System.nanoTime();
+            final var measureStart = start + TimeUnit.SECONDS.toNanos(options.warmup);
+            final var end = measureStart + TimeUnit.SECONDS.toNanos(options.duration);
+            final List<Future<Result>> futures = new ArrayList<>(options.concurrency);
+            for (int i = 0; i < options.concurrency; i++) {
+                final var client = i;
+                futures.add(clients.submit(() -> runClient(address, client, start, measureStart, end)));
+            }
+            final var result = new Result(end - measureStart);
+            for (Future<Result> future : futures) {
+                result.add(future.get());
+            }
+            return result;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private Result runClient(final InetSocketAddress address, final int client, final long start,
+                             final long measureStart, final long end) {
+        final var result = new Result(end - measureStart);
+        final var interval = options.isOpenLoop() ? NANOS_PER_SECOND * options.concurrency / options.rate : 0;
+        // clients of an open loop are spread over one interval instead of all firing at once
+        var due = start + interval * client / options.concurrency;
+        try (final var loadClient = new LoadClient(address)) {
+            while (due < end) {
+                if (options.isOpenLoop()) {
+                    waitUntil(due);
+                } else {
+                    due = System.nanoTime();
+                }
+                final var request = options.workload.toRequest(options.workload.next(), options.host,
+                        options.keepAlive);
+                final var bytesBefore = loadClient.getBytesRead();
+                try {
+                    final var status = loadClient.send(request);
+                    if (due >= measureStart) {
+                        result.record(System.nanoTime() - due, status, loadClient.getBytesRead() - bytesBefore);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    if (due >= measureStart) {
+                        result.errors++;
+                    }
+                }
+                due += interval;
+            }
+        }
+        return result;
+    }
+
+    private static void waitUntil(final long due) {
+        for (var now = System.nanoTime(); now < due; now = System.nanoTime()) {
+            LockSupport.parkNanos(due - now);
+        }
+    }
+
+    public static class Options {
+
+        private ConnectorType connector = ConnectorType.BIO;
+        private boolean external;
+        private String host = InetAddress.getLoopbackAddress().getHostAddress();
+        private int port = 18080;
+        private boolean openLoop;
+        private int concurrency = 64;
+        private long rate = 10_000;
+        private long duration = 30;
+        private long warmup = 5;
+        private boolean keepAlive = true;
+        private Workload workload = Workload.parse("static:70,login:20,register:10");
+        private int maxThreads = 200;
+
+        public static Options parse(final String[] args) {
+            final var options = new Options();
+            for (String arg : args) {
+                if (arg.isBlank()) {
+                    continue;
+                }
+                final var equals = arg.indexOf('=');
+                if (!arg.startsWith("--") || equals < 0) {
+                    throw new IllegalArgumentException("expected --name=value: " + arg);
+                }
+                options.set(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+            if (options.concurrency < 1 || options.rate < 1 || options.duration < 1 || options.warmup < 0) {
+                throw new IllegalArgumentException("concurrency, rate and duration must be positive");
+            }
+            return options;
+        }
+
+        private void set(final String name, final String value) {
+            switch (name) {
+                case "connector":
+                    external = value.equalsIgnoreCase("none");
+                    connector = external ? null : ConnectorType.valueOf(value.toUpperCase(Locale.ROOT));
+                    break;
+                case "host":
+                    host = value;
+                    break;
+                case "port":
+                    port = Integer.parseInt(value);
+                    break;
+                case "mode":
+                    openLoop = toMode(value);
+                    break;
+                case "concurrency":
+                    concurrency = Integer.parseInt(value);
+                    break;
+                case "rate":
+                    rate = Long.parseLong(value);
+                    break;
+                case "duration":
+                    duration = Long.parseLong(value);
+                    break;
+                case "warmup":
+                    warmup = Long.parseLong(value);
+                    break;
+                case "keep-alive":
+                    keepAlive = Boolean.parseBoolean(value);
+                    break;
+                case "workload":
+                    workload = Workload.parse(value);
+                    break;
+                case "max-threads":
+                    maxThreads = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option: " + name);
+            }
+        }
+
+        private static boolean toMode(final String mode) {
+            switch (mode.toLowerCase(Locale.ROOT)) {
+                case "open":
+                    return true;
+                case "closed":
+                    return false;
+                default:
+                    throw new IllegalArgumentException("mode is open or closed: " + mode);
+            }
+        }
+
+        /**
+         * @return the connector booted for the test, {@code null} when testing a running server
+         */
+        @Nullable
+        public Lifecycle startServer() {
+            if (external) {
+                return null;
+            }
+            final Lifecycle server;
+            if (connector == ConnectorType.NIO) {
+                server = new NioConnector(port, concurrency, maxThreads, Math.max(concurrency * 2, 8192),
+                        Http11Processor.DEFAULT_KEEP_ALIVE_TIMEOUT, Http11Processor.DEFAULT_MAX_KEEP_ALIVE_REQUESTS);
+            } else {
+                server = new Connector(port, concurrency, maxThreads, Math.max(concurrency * 2, 8192));
+            }
+            server.start();
+            return server;
+        }
+
+        public boolean isOpenLoop() {
+            return openLoop;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s:%d, %s loop%s, %d clients, keep-alive %s, workload %s, %ds after %ds warmup",
+                    external ? "server" : connector, host, port, openLoop ? "open" : "closed",
+                    openLoop ? " at " + rate + " req/s" : "", concurrency, keepAlive ? "on" : "off", workload,
+                    duration, warmup);
+        }
+    }
+
+    public static class Result {
+
+        private final long measuredNanos;
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final Map<Integer, Long> statusClasses = new HashMap<>();
+        private long errors;
+        private long bytes;
+
+        private Result(final long measuredNanos) {
+            this.measuredNanos = measuredNanos;
+        }
+
+        private void record(final long latency, final int status, final long responseBytes) {
+            latencies.record(latency);
+            statusClasses.merge(status / 100, 1L, Long::sum);
+            bytes += responseBytes;
+        }
+
+        private void add(final Result other) {
+            latencies.add(other.latencies);
+            other.statusClasses.forEach((status, count) -> statusClasses.merge(status, count, Long::sum));
+            errors += other.errors;
+            bytes += other.bytes;
+        }
+
+        public double getThroughput() {
+            return latencies.getTotalCount() * (double) NANOS_PER_SECOND / measuredNanos;
+        }
+
+        public LatencyHistogram getLatencies() {
+            return latencies;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        @Override
+        public String toString() {
+            final var seconds = (double) measuredNanos / NANOS_PER_SECOND;
+            final var report = new StringBuilder();
+            report.append(String.format("requests %d, errors %d, %.1f req/s, %.2f MB/s%n",
+                    latencies.getTotalCount(), errors, getThroughput(), bytes / seconds / (1024 * 1024)));
+            report.append("status");
+            statusClasses.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(entry -> report.append(String.format(" %dxx %d", entry.getKey(), entry.getValue())));
+            report.append(String.format("%nlatency ms  mean %.3f", latencies.getMean() / 1_000_000));
+            for (double percentile : PERCENTILES) {
+                report.append(String.format("  p%s %.3f", toLabel(percentile),
+                        latencies.getValueAtPercentile(percentile) / 1_000_000.0));
+            }
+            report.append(String.format("  max %.3f", latencies.getMax() / 1_000_000.0));
+            return report.toString();
+        }
+
+        private static String toLabel(final double percentile) {
+            return percentile == Math.rint(percentile) ? String.valueOf((long) percentile)
+                    : String.valueOf(percentile);
+        }
+    }
+}
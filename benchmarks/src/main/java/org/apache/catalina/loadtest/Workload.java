@@ -0,0 +1,113 @@
+package org.apache.catalina.loadtest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The mix of requests a load test sends, written like {@code static:70,login:20,register:10}: each kind of request
+ * is picked with the weight given to it.
+ */
+public class Workload {
+
+    public enum RequestType {
+        /**
+         * One of the pages, styles and scripts a browser loads for the index page.
+         */
+        STATIC,
+        /**
+         * A successful login with the form the login page posts.
+         */
+        LOGIN,
+        /**
+         * A registration of a new account every time.
+         */
+        REGISTER
+    }
+
+    private static final String[] STATIC_PATHS = {
+            "/index.html", "/css/styles.css", "/js/scripts.js", "/assets/chart-area.js", "/assets/chart-bar.js",
+            "/login.html", "/404.html"
+    };
+    private static final String LOGIN_FORM = "account=gugu&password=password";
+    private static final AtomicLong ACCOUNTS = new AtomicLong();
+
+    private final String spec;
+    private final List<RequestType> types = new ArrayList<>();
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    private Workload(final String spec, final List<RequestType> types, final int[] cumulativeWeights) {
+        this.spec = spec;
+        this.types.addAll(types);
+        this.cumulativeWeights = cumulativeWeights;
+        this.totalWeight = cumulativeWeights[cumulativeWeights.length - 1];
+    }
+
+    public static Workload parse(final String spec) {
+        final List<RequestType> types = new ArrayList<>();
+        final var parts = spec.split(",");
+        final var cumulativeWeights = new int[parts.length];
+        var totalWeight = 0;
+        for (int i = 0; i < parts.length; i++) {
+            final var part = parts[i].trim().split(":");
+            final var weight = part.length > 1 ? Integer.parseInt(part[1].trim()) : 1;
+            if (weight <= 0) {
+                throw new IllegalArgumentException("weight must be positive: " + parts[i]);
+            }
+            types.add(RequestType.valueOf(part[0].trim().toUpperCase(Locale.ROOT)));
+            totalWeight += weight;
+            cumulativeWeights[i] = totalWeight;
+        }
+        return new Workload(spec, types, cumulativeWeights);
+    }
+
+    public RequestType next() {
+        final var random = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (random < cumulativeWeights[i]) {
+                return types.get(i);
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    /**
+     * @param keepAlive {@code false} asks the server to close the connection after the response
+     */
+    public byte[] toRequest(final RequestType type, final String host, final boolean keepAlive) {
+        final var connection = keepAlive ? "" : "Connection: close\r\n";
+        switch (type) {
+            case STATIC:
+                final var path = STATIC_PATHS[ThreadLocalRandom.current().nextInt(STATIC_PATHS.length)];
+                return toBytes("GET " + path + " HTTP/1.1\r\nHost: " + host + "\r\nAccept-Encoding: gzip\r\n"
+                        + connection + "\r\n");
+            case LOGIN:
+                return post("/login", LOGIN_FORM, host, connection);
+            case REGISTER:
+                final var account = "load" + ACCOUNTS.incrementAndGet();
+                return post("/register", "account=" + account + "&password=password&email=" + account
+                        + "%40example.com", host, connection);
+            default:
+                throw new IllegalArgumentException(type.name());
+        }
+    }
+
+    private static byte[] post(final String path, final String form, final String host, final String connection) {
+        return toBytes("POST " + path + " HTTP/1.1\r\nHost: " + host + "\r\n" + connection
+                + "Content-Type: application/x-www-form-urlencoded\r\nContent-Length: " + form.length() + "\r\n\r\n"
+                + form);
+    }
+
+    private static byte[] toBytes(final String request) {
+        return request.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
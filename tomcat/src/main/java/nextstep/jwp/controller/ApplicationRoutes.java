@@ -0,0 +1,28 @@
+package nextstep.jwp.controller;
+
+import org.apache.catalina.SessionManager;
+import org.apache.catalina.mapper.RequestMapping;
+import org.apache.coyote.http11.HttpResponse;
+import org.apache.coyote.http11.HttpStatus;
+import org.apache.coyote.http11.StaticResourceHandler;
+
+/**
+ * The endpoints of the application.
+ */
+public class ApplicationRoutes {
+
+    private ApplicationRoutes() {
+    }
+
+    public static void register(final RequestMapping mapping, final SessionManager sessionManager,
+                                final StaticResourceHandler resourceHandler) {
+        final var loginController = new LoginController(sessionManager, resourceHandler);
+        final var registerController = new RegisterController(resourceHandler);
+        mapping.get("/", request ->
+                        new HttpResponse(HttpStatus.OK, "Content-Type: text/plain;charset=utf-8 ", "Hello world!"))
+                .get("/login", loginController::getLogin)
+                .post("/login", loginController::postLogin)
+                .get("/register", registerController::getRegister)
+                .post("/register", registerController::postRegister);
+    }
+}
@@ -0,0 +1,59 @@
+package nextstep.jwp.controller;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import nextstep.jwp.db.InMemoryUserRepository;
+import nextstep.jwp.model.User;
+import org.apache.catalina.Session;
+import org.apache.catalina.SessionManager;
+import org.apache.coyote.http11.HttpRequest;
+import org.apache.coyote.http11.HttpResponse;
+import org.apache.coyote.http11.HttpStatus;
+import org.apache.coyote.http11.StaticResourceHandler;
+
+public class LoginController {
+
+    private final SessionManager sessionManager;
+    private final StaticResourceHandler resourceHandler;
+
+    public LoginController(final SessionManager sessionManager, final StaticResourceHandler resourceHandler) {
+        this.sessionManager = sessionManager;
+        this.resourceHandler = resourceHandler;
+    }
+
+    public HttpResponse getLogin(final HttpRequest request) throws IOException {
+        if (isAlreadyLoggedIn(request)) {
+            return new HttpResponse(HttpStatus.FOUND, Map.of("Location", "/index.html"));
+        }
+        return resourceHandler.serve(request, "/login.html");
+    }
+
+    public HttpResponse postLogin(final HttpRequest request) throws IOException {
+        final var form = request.getForm();
+        final var account = form.get("account");
+        final var password = form.get("password");
+        final var optionalUser = findUser(account, password);
+
+        if (optionalUser.isEmpty()) {
+            return resourceHandler.getErrorPage(request, HttpStatus.UNAUTHORIZED, "/401.html");
+        }
+
+        User user = optionalUser.get();
+        Session session = sessionManager.createSession();
+        session.addUser(user);
+        return new HttpResponse(HttpStatus.FOUND,
+                Map.of("Location", "/index.html", "Set-Cookie", "JSESSIONID=" + session.getId()));
+    }
+
+    private boolean isAlreadyLoggedIn(final HttpRequest request) {
+        String sessionId = request.getCookie("JSESSIONID");
+        return sessionManager.findSession(sessionId) != null;
+    }
+
+    private Optional<User> findUser(String account, String password) {
+        return InMemoryUserRepository.findByAccount(account)
+                .filter(user -> user.checkPassword(password))
+                .stream().findFirst();
+    }
+}
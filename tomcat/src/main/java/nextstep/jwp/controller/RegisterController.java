@@ -0,0 +1,33 @@
+package nextstep.jwp.controller;
+
+import java.io.IOException;
+import java.util.Map;
+import nextstep.jwp.db.InMemoryUserRepository;
+import nextstep.jwp.model.User;
+import org.apache.coyote.http11.HttpRequest;
+import org.apache.coyote.http11.HttpResponse;
+import org.apache.coyote.http11.HttpStatus;
+import org.apache.coyote.http11.StaticResourceHandler;
+
+public class RegisterController {
+
+    private final StaticResourceHandler resourceHandler;
+
+    public RegisterController(final StaticResourceHandler resourceHandler) {
+        this.resourceHandler = resourceHandler;
+    }
+
+    public HttpResponse getRegister(final HttpRequest request) throws IOException {
+        return resourceHandler.serve(request, "/register.html");
+    }
+
+    public HttpResponse postRegister(final HttpRequest request) throws IOException {
+        final var form = request.getForm();
+        final var account = form.get("account");
+        final var password = form.get("password");
+        final var email = form.get("email");
+        final var user = new User(account, password, email);
+        InMemoryUserRepository.save(user);
+        return new HttpResponse(HttpStatus.FOUND, Map.of("Location", "/index.html"));
+    }
+}
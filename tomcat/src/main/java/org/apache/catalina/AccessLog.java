@@ -0,0 +1,303 @@
+package org.apache.catalina;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.Nullable;
+import org.apache.catalina.metrics.MetricRegistry;
+import org.apache.coyote.http11.HttpHeaders;
+import org.apache.coyote.http11.HttpRequest;
+import org.apache.coyote.http11.HttpResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One line per request in the common or combined log format, followed by the time taken in microseconds like
+ * Apache's {@code %D}. Request threads only put an entry into a ring buffer; a background thread formats the
+ * entries and writes them to the file in batches, so logging never waits for the disk. When the buffer is full an
+ * entry is dropped and counted, or with {@link OverflowPolicy#BLOCK} the request thread waits for room as long as
+ * the writer runs.
+ *
+ * <pre>
+ * 127.0.0.1 - - [18/Oct/2026:10:00:00 +0900] "GET /index.html HTTP/1.1" 200 5467 "-" "curl/8.0" 412
+ * </pre>
+ */
+public class AccessLog implements Lifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessLog.class);
+
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter
+            .ofPattern("dd/MMM/yyyy:HH:mm:ss Z", Locale.ENGLISH)
+            .withZone(ZoneId.systemDefault());
+    private static final String NONE = "-";
+
+    public enum Format {
+        /**
+         * {@code %h %l %u %t "%r" %s %b}
+         */
+        COMMON,
+        /**
+         * The common format with the {@code Referer} and {@code User-Agent} of the request.
+         */
+        COMBINED
+    }
+
+    public enum OverflowPolicy {
+        /**
+         * Drop the entry and count it; requests never wait for the log.
+         */
+        DROP,
+        /**
+         * Wait until the writer made room; no entry is lost but a slow disk slows requests down. Entries are still
+         * dropped once the log is stopped or its writer failed.
+         */
+        BLOCK
+    }
+
+    private final Path file;
+    private final Format format;
+    private final OverflowPolicy overflowPolicy;
+    private final RingBuffer<Entry> entries;
+    private final LongAdder droppedEntries = new LongAdder();
+    private volatile boolean stopped;
+    private volatile Thread writer;
+
+    public AccessLog(final Path file) {
+        this(file, Format.COMBINED, OverflowPolicy.DROP, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity entries waiting to be written at most, rounded up to a power of two
+     */
+    public AccessLog(final Path file, final Format format, final OverflowPolicy overflowPolicy, final int capacity) {
+        this.file = file;
+        this.format = format;
+        this.overflowPolicy = overflowPolicy;
+        this.entries = new RingBuffer<>(capacity);
+    }
+
+    /**
+     * Record a served request. Everything the line needs is taken from the request and response now; formatting is
+     * left to the writer.
+     */
+    public void log(@Nullable final InetAddress remoteAddress, final HttpRequest request,
+                    final HttpResponse response, final long nanos) {
+        final var body = response.getBody();
+        final var entry = new Entry(System.currentTimeMillis(), remoteAddress, request.getMethod(), request.getUri(),
+                request.getQueryString(), request.getProtocol(), response.getStatusCode(),
+                body != null && response.hasContentLength() ? body.getContentLength() : -1,
+                request.getHeader(HttpHeaders.REFERER), request.getHeader(HttpHeaders.USER_AGENT), nanos);
+        if (entries.offer(entry)) {
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            droppedEntries.increment();
+            return;
+        }
+        while (!entries.offer(entry)) {
+            // nothing makes room once the writer is stopped or failed, so waiting would hang the request
+            final var writerThread = writer;
+            if (stopped || writerThread == null || !writerThread.isAlive()) {
+                droppedEntries.increment();
+                return;
+            }
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+    }
+
+    public long getDroppedEntries() {
+        return droppedEntries.sum();
+    }
+
+    public void registerMetrics(final MetricRegistry registry) {
+        registry.counter("access_log_dropped_total", "Access log entries dropped because the buffer was full.",
+                this::getDroppedEntries);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (writer != null) {
+            return;
+        }
+        final OutputStream output;
+        try {
+            final var directory = file.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            output = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND, StandardOpenOption.WRITE), BUFFER_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        stopped = false;
+        writer = new Thread(() -> write(output), "access-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Write what is still buffered and close the file.
+     */
+    @Override
+    public synchronized void stop() {
+        final var writerThread = writer;
+        if (writerThread == null) {
+            return;
+        }
+        stopped = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    private void write(final OutputStream output) {
+        final var formatter = new LineFormatter(format);
+        try (output) {
+            while (true) {
+                // read the flag first so entries offered before stop() are still written
+                final var last = stopped;
+                var written = false;
+                for (var entry = entries.poll(); entry != null; entry = entries.poll()) {
+                    output.write(formatter.format(entry));
+                    written = true;
+                }
+                if (written) {
+                    output.flush();
+                }
+                if (last) {
+                    return;
+                }
+                if (!written) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        } catch (IOException e) {
+            log.error("access log stopped: {}", e.getMessage(), e);
+        }
+    }
+
+    private static class Entry {
+
+        private final long time;
+        private final InetAddress remoteAddress;
+        private final String method;
+        private final String uri;
+        private final String queryString;
+        private final String protocol;
+        private final int status;
+        private final long bytes;
+        private final String referer;
+        private final String userAgent;
+        private final long nanos;
+
+        private Entry(final long time, final InetAddress remoteAddress, final String method, final String uri,
+                      final String queryString, final String protocol, final int status, final long bytes,
+                      final String referer, final String userAgent, final long nanos) {
+            this.time = time;
+            this.remoteAddress = remoteAddress;
+            this.method = method;
+            this.uri = uri;
+            this.queryString = queryString;
+            this.protocol = protocol;
+            this.status = status;
+            this.bytes = bytes;
+            this.referer = referer;
+            this.userAgent = userAgent;
+            this.nanos = nanos;
+        }
+    }
+
+    /**
+     * Formats lines on the writer thread, reusing one builder and the timestamp of the current second.
+     */
+    private static class LineFormatter {
+
+        private final Format format;
+        private final StringBuilder line = new StringBuilder(256);
+        private long timestampSecond = Long.MIN_VALUE;
+        private String timestamp;
+
+        private LineFormatter(final Format format) {
+            this.format = format;
+        }
+
+        private byte[] format(final Entry entry) {
+            line.setLength(0);
+            line.append(entry.remoteAddress == null ? NONE : entry.remoteAddress.getHostAddress())
+                    .append(" - - [").append(getTimestamp(entry.time)).append("] \"");
+            appendEscaped(entry.method).append(' ');
+            appendEscaped(entry.uri);
+            if (entry.queryString != null) {
+                line.append('?');
+                appendEscaped(entry.queryString);
+            }
+            line.append(' ');
+            appendEscaped(entry.protocol).append("\" ").append(entry.status).append(' ');
+            if (entry.bytes < 0) {
+                line.append(NONE);
+            } else {
+                line.append(entry.bytes);
+            }
+            if (format == Format.COMBINED) {
+                line.append(" \"");
+                appendEscaped(entry.referer == null ? NONE : entry.referer).append("\" \"");
+                appendEscaped(entry.userAgent == null ? NONE : entry.userAgent).append('"');
+            }
+            line.append(' ').append(TimeUnit.NANOSECONDS.toMicros(entry.nanos)).append('\n');
+            return line.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        private String getTimestamp(final long time) {
+            final var second = Math.floorDiv(time, 1000);
+            if (second != timestampSecond) {
+                timestampSecond = second;
+                timestamp = TIMESTAMP_FORMAT.format(Instant.ofEpochSecond(second));
+            }
+            return timestamp;
+        }
+
+        /**
+         * Quotes and control characters would let a client forge log lines.
+         */
+        private StringBuilder appendEscaped(@Nullable final String value) {
+            if (value == null) {
+                return line.append(NONE);
+            }
+            for (int i = 0; i < value.length(); i++) {
+                final var c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    line.append('\\').append(c);
+                } else if (c < 0x20 || c == 0x7f) {
+                    line.append(String.format("\\x%02x", (int) c));
+                } else {
+                    line.append(c);
+                }
+            }
+            return line;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.apache.catalina;
+
+public interface Lifecycle {
+
+    /**
+     * Start accepting and processing requests. Returns once the component is ready.
+     */
+    void start();
+
+    /**
+     * Stop accepting new requests and release the resources held by this component.
+     */
+    void stop();
+
+}
@@ -0,0 +1,452 @@
+package org.apache.catalina;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import nextstep.jwp.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link SessionManager} whose sessions survive a restart. Every change is appended to {@code SESSIONS.log};
+ * once the log grows past {@code maxLogSize} the live sessions are written to {@code SESSIONS.snapshot} and the log
+ * starts over. {@link #start()} reads the snapshot and replays the log before the connector accepts requests.
+ *
+ * <p>Records are buffered and written to disk every second, so a crash loses at most the last second of logins.
+ * Last access times are only saved with a snapshot. Users are saved by account and looked up again on restore.
+ * Attributes are saved with Java serialization; an attribute whose value is not {@link Serializable} lives in memory
+ * only and is gone after a restart.
+ */
+public class PersistentSessionManager extends SessionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(PersistentSessionManager.class);
+
+    public static final long DEFAULT_MAX_LOG_SIZE = 16 * 1024 * 1024;
+
+    private static final String SNAPSHOT = "SESSIONS.snapshot";
+    private static final String LOG = "SESSIONS.log";
+    private static final String ROTATED_LOG = "SESSIONS.log.old";
+    private static final String TEMPORARY_SNAPSHOT = "SESSIONS.snapshot.tmp";
+    private static final byte ADD = 'A';
+    private static final byte USER = 'U';
+    private static final byte REMOVE = 'R';
+    private static final byte ATTRIBUTE = 'S';
+    private static final byte REMOVE_ATTRIBUTE = 'D';
+    private static final byte END = 'E';
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long FLUSH_PERIOD_MILLIS = 1000;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final Path directory;
+    private final Function<String, Optional<User>> userFinder;
+    private final long maxLogSize;
+    private final Object logLock = new Object();
+    private final Object snapshotLock = new Object();
+    private DataOutputStream logOutput;
+    private long logSize;
+    private ScheduledExecutorService persister;
+
+    /**
+     * @param userFinder finds the user of an account when sessions are restored
+     */
+    public PersistentSessionManager(final Path directory, final Function<String, Optional<User>> userFinder) {
+        this(directory, userFinder, DEFAULT_MAX_INACTIVE_INTERVAL, DEFAULT_MAX_ACTIVE_SESSIONS, DEFAULT_MAX_LOG_SIZE,
+                Clock.systemUTC());
+    }
+
+    public PersistentSessionManager(final Path directory, final Function<String, Optional<User>> userFinder,
+                                    final int maxInactiveInterval, final int maxActiveSessions,
+                                    final long maxLogSize, final Clock clock) {
+        super(maxInactiveInterval, maxActiveSessions, clock);
+        this.directory = directory;
+        this.userFinder = userFinder;
+        this.maxLogSize = maxLogSize;
+    }
+
+    /**
+     * Restore the saved sessions, compact them into a fresh snapshot and start writing the log.
+     */
+    @Override
+    public synchronized void start() {
+        if (persister != null) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            final var startTime = System.nanoTime();
+            load();
+            log.info("restored {} sessions in {}ms", getActiveSessions(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            openLog();
+            backgroundProcess();
+            snapshot();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        persister = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "session-persister");
+            thread.setDaemon(true);
+            return thread;
+        });
+        persister.scheduleWithFixedDelay(this::persist, FLUSH_PERIOD_MILLIS, FLUSH_PERIOD_MILLIS,
+                TimeUnit.MILLISECONDS);
+        super.start();
+    }
+
+    /**
+     * Write a final snapshot so the next start only has to read it.
+     */
+    @Override
+    public synchronized void stop() {
+        super.stop();
+        if (persister == null) {
+            return;
+        }
+        persister.shutdown();
+        try {
+            // a snapshot the persister is writing must end before the final one rotates the same files
+            if (!persister.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("session persister did not stop within {}s", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        persister = null;
+        try {
+            snapshot();
+            synchronized (logLock) {
+                logOutput.close();
+                logOutput = null;
+            }
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    private void persist() {
+        try {
+            flush();
+            if (getLogSize() > maxLogSize) {
+                snapshot();
+            }
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read the snapshot, then the log a snapshot was interrupted with, then the current log.
+     */
+    public void load() throws IOException {
+        final Map<String, Optional<User>> users = new HashMap<>();
+        final Set<String> withoutUser = new HashSet<>();
+        read(directory.resolve(SNAPSHOT), users, withoutUser);
+        read(directory.resolve(ROTATED_LOG), users, withoutUser);
+        read(directory.resolve(LOG), users, withoutUser);
+        // a session whose user is gone (e.g. registered in memory before the restart) is not logged in anymore
+        for (String id : withoutUser) {
+            final var session = getSession(id);
+            if (session != null && session.getUsers().isEmpty()) {
+                remove(session);
+            }
+        }
+    }
+
+    private void read(final Path file, final Map<String, Optional<User>> users, final Set<String> withoutUser)
+            throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (final var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            while (true) {
+                final var type = input.read();
+                if (type < 0 || type == END) {
+                    return;
+                }
+                readRecord((byte) type, input, users, withoutUser);
+            }
+        } catch (EOFException e) {
+            // the last record was cut short by a crash, everything before it is intact
+            log.warn("{} ends with an incomplete record", file);
+        }
+    }
+
+    private void readRecord(final byte type, final DataInputStream input, final Map<String, Optional<User>> users,
+                            final Set<String> withoutUser) throws IOException {
+        final var id = input.readUTF();
+        if (type == ADD) {
+            final var creationTime = input.readLong();
+            final var lastAccessedTime = input.readLong();
+            if (getSession(id) == null) {
+                final var session = new Session(id, creationTime);
+                session.access(lastAccessedTime);
+                restore(session);
+            }
+            return;
+        }
+        if (type == USER) {
+            final var key = input.readUTF();
+            final var account = input.readUTF();
+            final var session = getSession(id);
+            final var user = users.computeIfAbsent(account, userFinder);
+            if (session == null) {
+                return;
+            }
+            if (user.isPresent()) {
+                session.putUser(key, user.get());
+            } else {
+                withoutUser.add(id);
+            }
+            return;
+        }
+        if (type == ATTRIBUTE) {
+            final var name = input.readUTF();
+            final var value = new byte[input.readInt()];
+            input.readFully(value);
+            final var session = getSession(id);
+            if (session != null) {
+                restoreAttribute(session, name, value);
+            }
+            return;
+        }
+        if (type == REMOVE_ATTRIBUTE) {
+            final var name = input.readUTF();
+            final var session = getSession(id);
+            if (session != null) {
+                session.putAttribute(name, null);
+            }
+            return;
+        }
+        if (type == REMOVE) {
+            final var session = getSession(id);
+            if (session != null) {
+                remove(session);
+            }
+            return;
+        }
+        throw new IOException("unknown session record: " + type);
+    }
+
+    private static void restoreAttribute(final Session session, final String name, final byte[] value) {
+        try (final var input = new ObjectInputStream(new ByteArrayInputStream(value))) {
+            session.putAttribute(name, input.readObject());
+        } catch (IOException | ClassNotFoundException e) {
+            // a class changed or removed since the attribute was saved, the rest of the session is still good
+            log.warn("could not restore session attribute {}: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Write the live sessions to a new snapshot. The log is rotated first, so changes made while the snapshot is
+     * written go to the new log; replaying them over the snapshot is harmless. One snapshot is written at a time.
+     */
+    public void snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            writeSnapshot();
+        }
+    }
+
+    private void writeSnapshot() throws IOException {
+        synchronized (logLock) {
+            if (logOutput == null) {
+                throw new IOException("session log is closed");
+            }
+            logOutput.close();
+            rotateLog();
+            openLog();
+        }
+        final var temporary = directory.resolve(TEMPORARY_SNAPSHOT);
+        try (final var channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final var output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel),
+                    BUFFER_SIZE));
+            for (Session session : getSessions()) {
+                writeSession(output, session);
+            }
+            output.writeByte(END);
+            output.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(SNAPSHOT), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(directory.resolve(ROTATED_LOG));
+    }
+
+    /**
+     * Move the log aside for a snapshot. A rotated log left by a snapshot that failed holds records no snapshot has,
+     * so the log is appended to it instead of replacing it.
+     */
+    private void rotateLog() throws IOException {
+        final var current = directory.resolve(LOG);
+        final var rotated = directory.resolve(ROTATED_LOG);
+        if (!Files.exists(rotated)) {
+            Files.move(current, rotated);
+            return;
+        }
+        try (final var output = Files.newOutputStream(rotated, StandardOpenOption.APPEND)) {
+            Files.copy(current, output);
+        }
+        Files.delete(current);
+    }
+
+    private void writeSession(final DataOutputStream output, final Session session) throws IOException {
+        writeAdd(output, session);
+        for (Map.Entry<String, User> user : session.getUsers().entrySet()) {
+            writeUser(output, session, user.getKey(), user.getValue());
+        }
+        for (String name : session.getAttributeNames()) {
+            final var value = serialize(name, session.getAttribute(name));
+            if (value != null) {
+                writeAttribute(output, session, name, value);
+            }
+        }
+    }
+
+    /**
+     * Write buffered log records to disk.
+     */
+    public void flush() throws IOException {
+        synchronized (logLock) {
+            if (logOutput != null) {
+                logOutput.flush();
+            }
+        }
+    }
+
+    private long getLogSize() {
+        synchronized (logLock) {
+            return logSize;
+        }
+    }
+
+    private void openLog() throws IOException {
+        final var file = directory.resolve(LOG);
+        logOutput = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), BUFFER_SIZE));
+        logSize = Files.size(file);
+    }
+
+    @Override
+    protected void sessionAdded(final Session session) {
+        append(output -> writeAdd(output, session));
+    }
+
+    @Override
+    protected void sessionRemoved(final Session session) {
+        append(output -> {
+            output.writeByte(REMOVE);
+            output.writeUTF(session.getId());
+        });
+    }
+
+    @Override
+    protected void userAdded(final Session session, final String key, final User user) {
+        append(output -> writeUser(output, session, key, user));
+    }
+
+    @Override
+    protected void attributeChanged(final Session session, final String name, final Object value) {
+        final var serialized = value == null ? null : serialize(name, value);
+        if (serialized == null) {
+            // also drops a saved value the attribute had before it was given one that cannot be saved
+            append(output -> {
+                output.writeByte(REMOVE_ATTRIBUTE);
+                output.writeUTF(session.getId());
+                output.writeUTF(name);
+            });
+            return;
+        }
+        append(output -> writeAttribute(output, session, name, serialized));
+    }
+
+    private void append(final Record record) {
+        synchronized (logLock) {
+            if (logOutput == null) {
+                // not started, or restoring: nothing to log to
+                return;
+            }
+            try {
+                final var before = logOutput.size();
+                record.writeTo(logOutput);
+                logSize += logOutput.size() - before;
+            } catch (IOException e) {
+                log.error("could not log a session change: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static void writeAdd(final DataOutputStream output, final Session session) throws IOException {
+        output.writeByte(ADD);
+        output.writeUTF(session.getId());
+        output.writeLong(session.getCreationTime());
+        output.writeLong(session.getLastAccessedTime());
+    }
+
+    private static void writeUser(final DataOutputStream output, final Session session, final String key,
+                                  final User user) throws IOException {
+        output.writeByte(USER);
+        output.writeUTF(session.getId());
+        output.writeUTF(key);
+        output.writeUTF(user.getAccount());
+    }
+
+    private static void writeAttribute(final DataOutputStream output, final Session session, final String name,
+                                       final byte[] value) throws IOException {
+        output.writeByte(ATTRIBUTE);
+        output.writeUTF(session.getId());
+        output.writeUTF(name);
+        output.writeInt(value.length);
+        output.write(value);
+    }
+
+    /**
+     * @return the serialized value, {@code null} if it cannot be saved
+     */
+    @Nullable
+    private static byte[] serialize(final String name, final Object value) {
+        if (!(value instanceof Serializable)) {
+            log.warn("session attribute {} is not serializable and will not survive a restart", name);
+            return null;
+        }
+        final var bytes = new ByteArrayOutputStream();
+        try (final var output = new ObjectOutputStream(bytes)) {
+            output.writeObject(value);
+        } catch (IOException e) {
+            log.warn("could not save session attribute {}: {}", name, e.getMessage());
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface Record {
+
+        void writeTo(DataOutputStream output) throws IOException;
+    }
+}
@@ -0,0 +1,81 @@
+package org.apache.catalina;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded queue for many producers and one consumer that takes no lock. Every slot carries a sequence number
+ * telling whose turn it is: a producer claims the next position with a compare-and-set and publishes its element by
+ * advancing the slot's sequence, and the consumer frees the slot by advancing it once more.
+ */
+class RingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    RingBuffer(final int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+        }
+        this.capacity = Integer.highestOneBit(((capacity - 1) << 1) | 1);
+        this.mask = this.capacity - 1;
+        this.elements = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return {@code false} if the buffer is full
+     */
+    boolean offer(final E element) {
+        var position = tail.get();
+        while (true) {
+            final var index = (int) position & mask;
+            final var turn = sequences.get(index) - position;
+            if (turn == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (turn < 0) {
+                // the consumer has not freed this slot since the last lap
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Only ever called from the consumer thread.
+     *
+     * @return the oldest element or {@code null} if there is none
+     */
+    E poll() {
+        final var index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        final var element = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.set(index, head + capacity);
+        head++;
+        return element;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -1,19 +1,30 @@
 package org.apache.catalina;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import nextstep.jwp.model.User;
 
 public class Session {
 
     private final String id;
-    private final Map<String, Object> values = new HashMap<>();
+    private final Map<String, Object> values = new ConcurrentHashMap<>();
     private final Map<String, User> sessions;
+    private final long creationTime;
+    private volatile long lastAccessedTime;
+    private volatile SessionManager manager;
 
     public Session(String id) {
+        this(id, System.currentTimeMillis());
+    }
+
+    public Session(String id, long creationTime) {
         this.id = id;
-        this.sessions = new HashMap<>();
+        this.sessions = new ConcurrentHashMap<>();
+        this.creationTime = creationTime;
+        this.lastAccessedTime = creationTime;
     }
 
     public String getId() {
@@ -27,11 +38,83 @@ public class Session {
     public String addUser(User user) {
         final var key = UUID.randomUUID().toString();
         sessions.put(key, user);
+        final var manager = this.manager;
+        if (manager != null) {
+            manager.userAdded(this, key, user);
+        }
         return key;
     }
 
+    void putUser(String key, User user) {
+        sessions.put(key, user);
+    }
+
+    Map<String, User> getUsers() {
+        return sessions;
+    }
+
+    void setManager(SessionManager manager) {
+        this.manager = manager;
+    }
+
+    public Object getAttribute(String name) {
+        return values.get(name);
+    }
+
+    /**
+     * Bind a value to the session, {@code null} unbinds it.
+     */
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            removeAttribute(name);
+            return;
+        }
+        values.put(name, value);
+        attributeChanged(name, value);
+    }
+
+    public void removeAttribute(String name) {
+        if (values.remove(name) != null) {
+            attributeChanged(name, null);
+        }
+    }
+
+    void putAttribute(String name, Object value) {
+        if (value == null) {
+            values.remove(name);
+            return;
+        }
+        values.put(name, value);
+    }
+
+    private void attributeChanged(String name, Object value) {
+        final var manager = this.manager;
+        if (manager != null) {
+            manager.attributeChanged(this, name, value);
+        }
+    }
+
+    public Set<String> getAttributeNames() {
+        return Collections.unmodifiableSet(values.keySet());
+    }
+
     public boolean exists(String key) {
         return sessions.containsKey(key);
     }
 
+    public long getCreationTime() {
+        return creationTime;
+    }
+
+    public long getLastAccessedTime() {
+        return lastAccessedTime;
+    }
+
+    /**
+     * Record a request that used this session, postponing its expiry.
+     */
+    public void access(long now) {
+        lastAccessedTime = now;
+    }
+
 }
@@ -1,25 +1,275 @@
 package org.apache.catalina;
 
-import java.util.HashMap;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nullable;
+import nextstep.jwp.model.User;
+import org.apache.catalina.metrics.MetricRegistry;
 
-public class SessionManager implements Manager {
+/**
+ * Sessions shared by every request thread of a connector. A session expires {@code maxInactiveInterval} seconds
+ * after the last request that found it: {@link #findSession(String)} never returns an expired session, and a
+ * background task started with {@link #start()} removes the ones nobody asks for anymore. Once
+ * {@code maxActiveSessions} sessions are active, adding one evicts the least recently used.
+ */
+public class SessionManager implements Manager, Lifecycle {
 
-    private static final Map<String, Session> SESSIONS = new HashMap<>();
+    public static final int DEFAULT_MAX_INACTIVE_INTERVAL = 30 * 60;
+    public static final int DEFAULT_MAX_ACTIVE_SESSIONS = 100_000;
+
+    private static final long EXPIRE_PERIOD_SECONDS = 60;
+    private static final int EVICTION_RATIO = 20;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final long maxInactiveMillis;
+    private final int maxActiveSessions;
+    private final Clock clock;
+    private final LongAdder createdSessions = new LongAdder();
+    private final LongAdder expiredSessions = new LongAdder();
+    private final LongAdder evictedSessions = new LongAdder();
+    private ScheduledExecutorService expirer;
+
+    public SessionManager() {
+        this(DEFAULT_MAX_INACTIVE_INTERVAL, DEFAULT_MAX_ACTIVE_SESSIONS);
+    }
+
+    /**
+     * @param maxInactiveInterval seconds a session lives without being used, 0 or less never expires
+     * @param maxActiveSessions   sessions kept at most, 0 or less is unlimited
+     */
+    public SessionManager(final int maxInactiveInterval, final int maxActiveSessions) {
+        this(maxInactiveInterval, maxActiveSessions, Clock.systemUTC());
+    }
+
+    public SessionManager(final int maxInactiveInterval, final int maxActiveSessions, final Clock clock) {
+        this.maxInactiveMillis = TimeUnit.SECONDS.toMillis(maxInactiveInterval);
+        this.maxActiveSessions = maxActiveSessions;
+        this.clock = clock;
+    }
+
+    /**
+     * Create a session with a random id and add it.
+     */
+    public Session createSession() {
+        final var session = new Session(UUID.randomUUID().toString(), clock.millis());
+        add(session);
+        createdSessions.increment();
+        return session;
+    }
 
     @Override
     public void add(final Session session) {
-        SESSIONS.put(session.getId(), session);
+        if (maxActiveSessions > 0 && sessions.size() >= maxActiveSessions) {
+            makeRoom();
+        }
+        session.setManager(this);
+        sessions.put(session.getId(), session);
+        sessionAdded(session);
+    }
+
+    /**
+     * Move the attributes and users of a session to a new one with another id and remove the old one, so an id seen
+     * before a login cannot be used after it.
+     *
+     * @return the session that replaces {@code session}
+     */
+    public Session changeSessionId(final Session session) {
+        final var changed = new Session(UUID.randomUUID().toString(), session.getCreationTime());
+        changed.access(session.getLastAccessedTime());
+        add(changed);
+        for (String name : session.getAttributeNames()) {
+            changed.setAttribute(name, session.getAttribute(name));
+        }
+        for (Map.Entry<String, User> user : session.getUsers().entrySet()) {
+            changed.putUser(user.getKey(), user.getValue());
+            userAdded(changed, user.getKey(), user.getValue());
+        }
+        remove(session);
+        return changed;
+    }
+
+    /**
+     * Drop expired sessions and, if that is not enough, the least recently used twentieth of the limit, so a full
+     * manager does not scan all sessions on every add.
+     */
+    private synchronized void makeRoom() {
+        if (sessions.size() < maxActiveSessions) {
+            return;
+        }
+        backgroundProcess();
+        final var count = sessions.size() - maxActiveSessions + Math.max(1, maxActiveSessions / EVICTION_RATIO);
+        if (count <= 0) {
+            return;
+        }
+        final var oldest = new PriorityQueue<Session>(count,
+                Comparator.comparingLong(Session::getLastAccessedTime).reversed());
+        for (Session session : sessions.values()) {
+            oldest.offer(session);
+            if (oldest.size() > count) {
+                oldest.poll();
+            }
+        }
+        for (Session session : oldest) {
+            if (sessions.remove(session.getId(), session)) {
+                evictedSessions.increment();
+                sessionRemoved(session);
+            }
+        }
     }
 
     @Override
     public Session findSession(final String id) {
-        return SESSIONS.get(id);
+        if (id == null) {
+            return null;
+        }
+        final var session = sessions.get(id);
+        if (session == null) {
+            return null;
+        }
+        final var now = clock.millis();
+        if (isExpired(session, now)) {
+            expire(session);
+            return null;
+        }
+        session.access(now);
+        return session;
     }
 
     @Override
     public void remove(final Session session) {
-        SESSIONS.remove(session.getId());
+        if (sessions.remove(session.getId(), session)) {
+            sessionRemoved(session);
+        }
+    }
+
+    /**
+     * Remove every expired session.
+     */
+    public void backgroundProcess() {
+        final var now = clock.millis();
+        for (Session session : sessions.values()) {
+            if (isExpired(session, now)) {
+                expire(session);
+            }
+        }
+    }
+
+    private boolean isExpired(final Session session, final long now) {
+        return maxInactiveMillis > 0 && now - session.getLastAccessedTime() >= maxInactiveMillis;
+    }
+
+    private void expire(final Session session) {
+        if (sessions.remove(session.getId(), session)) {
+            expiredSessions.increment();
+            sessionRemoved(session);
+        }
+    }
+
+    /**
+     * Put back a session saved before a restart, without calling {@link #sessionAdded(Session)}.
+     */
+    protected void restore(final Session session) {
+        session.setManager(this);
+        sessions.put(session.getId(), session);
+    }
+
+    @Nullable
+    protected Session getSession(final String id) {
+        return sessions.get(id);
+    }
+
+    protected Collection<Session> getSessions() {
+        return sessions.values();
+    }
+
+    /**
+     * Called after a session was added.
+     */
+    protected void sessionAdded(final Session session) {
+    }
+
+    /**
+     * Called after a session was removed, expired or evicted.
+     */
+    protected void sessionRemoved(final Session session) {
+    }
+
+    /**
+     * Called after a user was added to an active session.
+     */
+    protected void userAdded(final Session session, final String key, final User user) {
+    }
+
+    /**
+     * Called after an attribute of an active session was set, or removed when {@code value} is {@code null}.
+     */
+    protected void attributeChanged(final Session session, final String name, @Nullable final Object value) {
+    }
+
+    /**
+     * @return seconds a session lives without being used, 0 or less if sessions never expire
+     */
+    public int getMaxInactiveInterval() {
+        return (int) TimeUnit.MILLISECONDS.toSeconds(maxInactiveMillis);
+    }
+
+    public int getActiveSessions() {
+        return sessions.size();
+    }
+
+    public long getCreatedSessions() {
+        return createdSessions.sum();
+    }
+
+    public long getExpiredSessions() {
+        return expiredSessions.sum();
+    }
+
+    public long getEvictedSessions() {
+        return evictedSessions.sum();
+    }
+
+    /**
+     * Export the number of active sessions and how many were created, expired and evicted.
+     */
+    public void registerMetrics(final MetricRegistry registry) {
+        registry.gauge("sessions_active", "Sessions currently active.", this::getActiveSessions);
+        registry.counter("sessions_created_total", "Sessions created for a login.", this::getCreatedSessions);
+        registry.counter("sessions_expired_total", "Sessions removed after being inactive too long.",
+                this::getExpiredSessions);
+        registry.counter("sessions_evicted_total", "Sessions removed to stay within the active session limit.",
+                this::getEvictedSessions);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (expirer != null) {
+            return;
+        }
+        expirer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "session-expirer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expirer.scheduleWithFixedDelay(this::backgroundProcess, EXPIRE_PERIOD_SECONDS, EXPIRE_PERIOD_SECONDS,
+                TimeUnit.SECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (expirer != null) {
+            expirer.shutdownNow();
+            expirer = null;
+        }
     }
 
 }
@@ -0,0 +1,155 @@
+package org.apache.catalina.connector;
+
+import org.apache.catalina.AccessLog;
+import org.apache.catalina.Lifecycle;
+import org.apache.catalina.SessionManager;
+import org.apache.catalina.core.ServletContainer;
+import org.apache.catalina.mapper.Mapper;
+import org.apache.catalina.metrics.Counter;
+import org.apache.catalina.metrics.MetricRegistry;
+import org.apache.coyote.http11.CachePolicy;
+import org.apache.coyote.http11.Http11Processor;
+import org.apache.coyote.http11.HttpMetrics;
+import org.apache.coyote.http11.HttpRequestParser;
+import org.apache.coyote.http11.StaticResourceCache;
+
+import java.net.Socket;
+
+/**
+ * What the blocking and the non-blocking connector share: the components requests are served with, their settings
+ * and how they are started and stopped. A connector only has to accept connections and hand them to processors.
+ */
+public abstract class AbstractConnector implements Runnable, Lifecycle {
+
+    private final int keepAliveTimeout;
+    private final int maxKeepAliveRequests;
+    private long maxBodySize = HttpRequestParser.DEFAULT_MAX_BODY_SIZE;
+    private SessionManager sessionManager = new SessionManager();
+    private CachePolicy cachePolicy = CachePolicy.defaultPolicy();
+    private final StaticResourceCache resourceCache = new StaticResourceCache();
+    private Mapper mapper;
+    private HttpMetrics metrics;
+    private AccessLog accessLog;
+    private ServletContainer servletContainer;
+    private Counter acceptedConnections;
+
+    /**
+     * @param keepAliveTimeout     milliseconds an idle persistent connection is kept open
+     * @param maxKeepAliveRequests requests served on one connection before it is closed, 0 or less means unlimited
+     */
+    protected AbstractConnector(final int keepAliveTimeout, final int maxKeepAliveRequests) {
+        this.keepAliveTimeout = Math.max(keepAliveTimeout, 0);
+        this.maxKeepAliveRequests = maxKeepAliveRequests;
+    }
+
+    /**
+     * Largest request body accepted; larger ones are answered with 413. Set before {@link #start()}.
+     */
+    public void setMaxBodySize(final long maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+
+    /**
+     * Replace the in-memory session manager, e.g. with a {@link org.apache.catalina.PersistentSessionManager}.
+     * Set before {@link #start()}; the connector starts and stops it.
+     */
+    public void setSessionManager(final SessionManager sessionManager) {
+        this.sessionManager = sessionManager;
+    }
+
+    /**
+     * {@code Cache-Control} rules for responses, {@link CachePolicy#defaultPolicy()} unless set. Set before
+     * {@link #start()}.
+     */
+    public void setCachePolicy(final CachePolicy cachePolicy) {
+        this.cachePolicy = cachePolicy;
+    }
+
+    /**
+     * Where the connector, its processors, sessions and static resources record their metrics, a registry of its
+     * own unless set. Set before {@link #start()}.
+     */
+    public void setMetricRegistry(final MetricRegistry registry) {
+        this.metrics = new HttpMetrics(registry);
+        this.acceptedConnections = registry.counter("connections_accepted_total", "Connections accepted.");
+        registerMetrics(registry);
+    }
+
+    /**
+     * Register the metrics only this kind of connector has. Called from {@link #setMetricRegistry(MetricRegistry)},
+     * which the constructor of a connector calls once its own fields are set.
+     */
+    protected abstract void registerMetrics(MetricRegistry registry);
+
+    public MetricRegistry getMetricRegistry() {
+        return metrics.getRegistry();
+    }
+
+    /**
+     * Write a line for every request to this log; none is written unless set. Set before {@link #start()}; the
+     * connector starts and stops it.
+     */
+    public void setAccessLog(final AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    /**
+     * Serve these servlets besides the application routes. Set before {@link #start()}; the connector starts and
+     * stops it.
+     */
+    public void setServletContainer(final ServletContainer servletContainer) {
+        this.servletContainer = servletContainer;
+    }
+
+    /**
+     * Start the components requests are served with; a connector calls this before it accepts connections.
+     */
+    protected void startComponents() {
+        if (servletContainer != null) {
+            servletContainer.registerMetrics(metrics.getRegistry());
+            servletContainer.start();
+        }
+        mapper = Http11Processor.createMapper(sessionManager, resourceCache, cachePolicy, metrics, servletContainer);
+        sessionManager.registerMetrics(metrics.getRegistry());
+        resourceCache.registerMetrics(metrics.getRegistry());
+        if (accessLog != null) {
+            accessLog.registerMetrics(metrics.getRegistry());
+            accessLog.start();
+        }
+        sessionManager.start();
+    }
+
+    /**
+     * Stop the components requests are served with; a connector calls this once its workers are done.
+     */
+    protected void stopComponents() {
+        if (servletContainer != null) {
+            servletContainer.stop();
+        }
+        sessionManager.stop();
+        if (accessLog != null) {
+            accessLog.stop();
+        }
+    }
+
+    protected void connectionAccepted() {
+        acceptedConnections.increment();
+    }
+
+    protected Http11Processor createProcessor(final Socket connection) {
+        return new Http11Processor(connection, mapper, cachePolicy, metrics, accessLog, keepAliveTimeout,
+                maxKeepAliveRequests, maxBodySize);
+    }
+
+    protected HttpMetrics getMetrics() {
+        return metrics;
+    }
+
+    protected int getKeepAliveTimeout() {
+        return keepAliveTimeout;
+    }
+
+    protected long getMaxBodySize() {
+        return maxBodySize;
+    }
+}
@@ -0,0 +1,69 @@
+package org.apache.catalina.connector;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Collects the responses of one batch in a buffer of the pool, which is handed to the socket as it is instead of
+ * being copied into a new array. Outgrowing the buffer moves the bytes to a larger heap buffer and gives the pooled
+ * one back right away.
+ */
+class ByteBufferOutputStream extends OutputStream {
+
+    private final ByteBufferPool pool;
+    /**
+     * Taken from the pool on the first write, {@code null} again once handed over.
+     */
+    private ByteBuffer buffer;
+
+    ByteBufferOutputStream(final ByteBufferPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void write(final int b) {
+        ensureRemaining(1);
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) {
+        ensureRemaining(len);
+        buffer.put(b, off, len);
+    }
+
+    private void ensureRemaining(final int length) {
+        if (buffer == null) {
+            buffer = pool.acquire(length);
+            return;
+        }
+        if (buffer.remaining() >= length) {
+            return;
+        }
+        final var larger = pool.acquire(Math.max(buffer.capacity() * 2, buffer.position() + length));
+        buffer.flip();
+        larger.put(buffer);
+        pool.release(buffer);
+        buffer = larger;
+    }
+
+    /**
+     * Hand over what was written, ready to be read; whoever sends the bytes gives the buffer back to the pool. A
+     * later write starts a new buffer.
+     */
+    ByteBuffer toByteBuffer() {
+        final var written = buffer == null ? pool.acquire() : buffer;
+        buffer = null;
+        return written.flip();
+    }
+
+    /**
+     * Give the buffer back without sending it, when the connection is closed instead.
+     */
+    void release() {
+        if (buffer != null) {
+            pool.release(buffer);
+            buffer = null;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.apache.catalina.connector;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.catalina.metrics.MetricRegistry;
+
+/**
+ * Fixed-size buffers shared by all connections. A connection borrows a buffer only while it has unread request
+ * bytes or unsent response bytes, so idle keep-alive connections do not pin memory.
+ *
+ * <p>Direct buffers suit bytes that are only written to a socket: the channel sends them without first copying
+ * them to a temporary direct buffer. Buffers that are scanned as arrays, like those of requests, stay on the heap.
+ */
+class ByteBufferPool {
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final boolean direct;
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final LongAdder allocated = new LongAdder();
+
+    ByteBufferPool(final int bufferSize, final int maxPooled) {
+        this(bufferSize, maxPooled, false);
+    }
+
+    ByteBufferPool(final int bufferSize, final int maxPooled, final boolean direct) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+        this.direct = direct;
+    }
+
+    ByteBuffer acquire() {
+        final var buffer = buffers.poll();
+        if (buffer == null) {
+            allocated.increment();
+            return direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+        }
+        pooled.decrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * @return a pooled buffer, or a heap buffer of its own when {@code capacity} is more than the pool's size.
+     * Direct memory is freed only when the collector gets to it, so large one-off buffers never use it.
+     */
+    ByteBuffer acquire(final int capacity) {
+        if (capacity <= bufferSize) {
+            return acquire();
+        }
+        return ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * Buffers that grew beyond the pool size for a large request or response are dropped instead of pooled.
+     */
+    void release(final ByteBuffer buffer) {
+        if (buffer.capacity() != bufferSize || buffer.isDirect() != direct || pooled.get() >= maxPooled) {
+            return;
+        }
+        buffer.clear();
+        pooled.incrementAndGet();
+        buffers.offer(buffer);
+    }
+
+    int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Export how many buffers were allocated: it levels off once the pool covers the connections served at once.
+     */
+    void registerMetrics(final MetricRegistry registry, final String name) {
+        registry.counter("nio_buffers_allocated_total", "Pooled buffers allocated because the pool had none free.",
+                allocated::sum, "pool", name);
+        registry.gauge("nio_buffers_pooled", "Free buffers waiting in the pool.", pooled::get, "pool", name);
+    }
+}
@@ -1,50 +1,151 @@
 package org.apache.catalina.connector;
 
-import org.apache.catalina.SessionManager;
+import org.apache.catalina.metrics.Counter;
+import org.apache.catalina.metrics.MetricRegistry;
 import org.apache.coyote.http11.Http11Processor;
-import org.apache.catalina.Session;
+import org.apache.coyote.http11.HttpResponse;
+import org.apache.coyote.http11.HttpStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
-public class Connector implements Runnable {
+public class Connector extends AbstractConnector {
 
     private static final Logger log = LoggerFactory.getLogger(Connector.class);
 
     private static final int DEFAULT_PORT = 8080;
     private static final int DEFAULT_ACCEPT_COUNT = 100;
+    private static final int DEFAULT_MAX_THREADS = 200;
+    private static final int DEFAULT_MAX_CONNECTIONS = 8192;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
 
     private final ServerSocket serverSocket;
+    private ExecutorService executor;
+    private final Semaphore connectionLimit;
+    private final int maxConnections;
 
     private boolean stopped;
 
-    private final SessionManager sessionManager;
+    private Counter rejectedConnections;
 
     public Connector() {
         this(DEFAULT_PORT, DEFAULT_ACCEPT_COUNT);
     }
 
     public Connector(final int port, final int acceptCount) {
+        this(port, acceptCount, DEFAULT_MAX_THREADS, DEFAULT_MAX_CONNECTIONS);
+    }
+
+    /**
+     * @param port           listening port
+     * @param acceptCount    OS backlog for connections that have not been accepted yet
+     * @param maxThreads     number of worker threads processing connections
+     * @param maxConnections accepted connections that may be open at once (processing + waiting for a worker).
+     *                       Connections beyond this limit are answered with {@code 503 Service Unavailable}.
+     */
+    public Connector(final int port, final int acceptCount, final int maxThreads, final int maxConnections) {
+        this(port, acceptCount, maxThreads, maxConnections,
+                Http11Processor.DEFAULT_KEEP_ALIVE_TIMEOUT, Http11Processor.DEFAULT_MAX_KEEP_ALIVE_REQUESTS);
+    }
+
+    /**
+     * @param keepAliveTimeout     milliseconds an idle persistent connection is kept open
+     * @param maxKeepAliveRequests requests served on one connection before it is closed, 0 or less means unlimited
+     */
+    public Connector(final int port, final int acceptCount, final int maxThreads, final int maxConnections,
+                     final int keepAliveTimeout, final int maxKeepAliveRequests) {
+        this(port, acceptCount, maxThreads, maxConnections, keepAliveTimeout, maxKeepAliveRequests,
+                ExecutorType.PLATFORM);
+    }
+
+    /**
+     * @param executorType {@link ExecutorType#VIRTUAL} runs every connection on its own virtual thread and ignores
+     *                     {@code maxThreads}; it needs a Java 21 runtime.
+     */
+    public Connector(final int port, final int acceptCount, final int maxThreads, final int maxConnections,
+                     final int keepAliveTimeout, final int maxKeepAliveRequests, final ExecutorType executorType) {
+        super(keepAliveTimeout, maxKeepAliveRequests);
         this.serverSocket = createServerSocket(port, acceptCount);
+        try {
+            this.executor = createExecutor(executorType, checkMaxThreads(maxThreads));
+        } catch (IllegalStateException e) {
+            // the port must not stay bound by a connector that was never made
+            closeServerSocket();
+            throw e;
+        }
+        this.maxConnections = Math.max(maxConnections, 1);
+        this.connectionLimit = new Semaphore(this.maxConnections);
         this.stopped = false;
-        this.sessionManager = new SessionManager();
+        setMetricRegistry(new MetricRegistry());
     }
 
     private ServerSocket createServerSocket(final int port, final int acceptCount) {
         try {
             final int checkedPort = checkPort(port);
             final int checkedAcceptCount = checkAcceptCount(acceptCount);
-            return new ServerSocket(checkedPort, checkedAcceptCount);
+            // a socket accepted from a channel has one itself, which lets file bodies go out with sendfile
+            final var serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(checkedPort), checkedAcceptCount);
+            return serverChannel.socket();
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
+    private ExecutorService createExecutor(final ExecutorType executorType, final int maxThreads) {
+        if (executorType == ExecutorType.VIRTUAL) {
+            return VirtualThreads.newThreadPerTaskExecutor();
+        }
+        // connectionLimit keeps the queue at most maxConnections - maxThreads long
+        return new ThreadPoolExecutor(maxThreads, maxThreads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                new WorkerThreadFactory("http-" + serverSocket.getLocalPort() + "-exec-"));
+    }
+
+    @Override
+    protected void registerMetrics(final MetricRegistry registry) {
+        this.rejectedConnections = registry.counter("connections_rejected_total",
+                "Connections answered with 503 because maxConnections were open.");
+        registry.gauge("connections_active", "Connections open, served or waiting for a worker.",
+                () -> maxConnections - connectionLimit.availablePermits());
+    }
+
+    private void registerExecutorMetrics(final MetricRegistry registry) {
+        if (!(executor instanceof ThreadPoolExecutor)) {
+            return;
+        }
+        final var pool = (ThreadPoolExecutor) executor;
+        registry.gauge("worker_threads_busy", "Worker threads serving a connection.", pool::getActiveCount);
+        registry.gauge("worker_threads", "Worker threads started.", pool::getPoolSize);
+        registry.gauge("worker_queue_size", "Accepted connections waiting for a worker.",
+                () -> pool.getQueue().size());
+    }
+
+    /**
+     * Serve connections on this executor instead of the pool made from {@code maxThreads}, e.g. one with a bounded
+     * queue. A connection the executor rejects is answered with 503. Set before {@link #start()}; the connector
+     * shuts it down on {@link #stop()}.
+     */
+    public void setExecutor(final ExecutorService executor) {
+        this.executor.shutdown();
+        this.executor = executor;
+    }
+
+    @Override
     public void start() {
+        startComponents();
+        registerExecutorMetrics(getMetricRegistry());
         var thread = new Thread(this);
         thread.setDaemon(true);
         thread.start();
@@ -72,12 +173,49 @@ public class Connector implements Runnable {
         if (connection == null) {
             return;
         }
-        var processor = new Http11Processor(connection, sessionManager);
-        new Thread(processor).start();
+        connectionAccepted();
+        if (!connectionLimit.tryAcquire()) {
+            reject(connection);
+            return;
+        }
+        var processor = createProcessor(connection);
+        try {
+            executor.execute(() -> {
+                try {
+                    processor.run();
+                } finally {
+                    connectionLimit.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            connectionLimit.release();
+            reject(connection);
+        }
+    }
+
+    private void reject(final Socket connection) {
+        log.warn("connection rejected, maxConnections reached");
+        rejectedConnections.increment();
+        final var response = new HttpResponse(HttpStatus.SERVICE_UNAVAILABLE, "Content-Type: text/plain;charset=utf-8 ",
+                "Service Unavailable");
+        getMetrics().count(response);
+        try (connection; final var outputStream = connection.getOutputStream()) {
+            response.writeTo(outputStream);
+            outputStream.flush();
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+        }
     }
 
+    @Override
     public void stop() {
         stopped = true;
+        closeServerSocket();
+        shutdownExecutor();
+        stopComponents();
+    }
+
+    private void closeServerSocket() {
         try {
             serverSocket.close();
         } catch (IOException e) {
@@ -85,6 +223,18 @@ public class Connector implements Runnable {
         }
     }
 
+    private void shutdownExecutor() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private int checkPort(final int port) {
         final var MIN_PORT = 1;
         final var MAX_PORT = 65535;
@@ -98,4 +248,11 @@ public class Connector implements Runnable {
     private int checkAcceptCount(final int acceptCount) {
         return Math.max(acceptCount, DEFAULT_ACCEPT_COUNT);
     }
+
+    private int checkMaxThreads(final int maxThreads) {
+        if (maxThreads < 1) {
+            return DEFAULT_MAX_THREADS;
+        }
+        return maxThreads;
+    }
 }
@@ -0,0 +1,15 @@
+package org.apache.catalina.connector;
+
+public enum ExecutorType {
+
+    /**
+     * A fixed pool of {@code maxThreads} platform threads.
+     */
+    PLATFORM,
+
+    /**
+     * A new virtual thread per connection. Blocking socket and file reads unmount the virtual thread instead of
+     * holding a platform thread, so the pool does not need sizing. Requires a Java 21 runtime.
+     */
+    VIRTUAL
+}
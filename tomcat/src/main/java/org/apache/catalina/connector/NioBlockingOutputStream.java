@@ -0,0 +1,64 @@
+package org.apache.catalina.connector;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Lets a worker stream a response to a non-blocking channel. While the worker owns the connection the poller does
+ * not watch it, so when the socket buffer is full the worker waits for it on a selector of its own. The selector is
+ * opened the first time the worker has to wait and kept until the stream is closed, which leaves the channel open.
+ */
+class NioBlockingOutputStream extends OutputStream {
+
+    private final SocketChannel socketChannel;
+    private final long writeTimeout;
+    private Selector selector;
+
+    NioBlockingOutputStream(final SocketChannel socketChannel, final long writeTimeout) {
+        this.socketChannel = socketChannel;
+        this.writeTimeout = writeTimeout;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        write(ByteBuffer.wrap(b, off, len));
+    }
+
+    void write(final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (socketChannel.write(buffer) == 0) {
+                awaitWritable();
+            }
+        }
+    }
+
+    private void awaitWritable() throws IOException {
+        if (selector == null) {
+            selector = Selector.open();
+            socketChannel.register(selector, SelectionKey.OP_WRITE);
+        }
+        if (selector.select(writeTimeout) == 0) {
+            throw new SocketTimeoutException("client did not read the response for " + writeTimeout + "ms");
+        }
+        // a key left in the selected set would not be counted by the next select
+        selector.selectedKeys().clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (selector != null) {
+            selector.close();
+            selector = null;
+        }
+    }
+}
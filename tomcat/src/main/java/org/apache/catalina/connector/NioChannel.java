@@ -0,0 +1,407 @@
+package org.apache.catalina.connector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.coyote.http11.FileRegion;
+import org.apache.coyote.http11.Http11Processor;
+import org.apache.coyote.http11.HttpRequestParser;
+import org.apache.coyote.http11.PayloadTooLargeException;
+
+/**
+ * State of one connection registered with the {@link NioConnector} poller. Only the poller thread touches the
+ * buffers; a worker only sees the bytes of a complete request handed to it.
+ */
+class NioChannel {
+
+    private static final String CONTENT_LENGTH = "content-length:";
+    private static final String TRANSFER_ENCODING = "transfer-encoding:";
+    private static final String CHUNKED = "chunked";
+    private static final String HEADER_DELIMITER = "\n";
+    private static final int MAX_HEADER_SIZE = HttpRequestParser.DEFAULT_MAX_HEADER_SIZE;
+
+    private final SocketChannel socketChannel;
+    private final Http11Processor processor;
+    private final HttpRequestParser parser;
+    private final long maxBodySize;
+    private final int maxRequestSize;
+
+    private final Deque<byte[]> pipelined = new ArrayDeque<>();
+    private ByteBuffer readBuffer;
+    private ByteBuffer writeBuffer;
+    private FileRegion fileRegion;
+    private FileChannel fileChannel;
+    private long fileTransferred;
+    private boolean closeAfterWrite;
+    private boolean processing;
+    /**
+     * Bytes of the read buffer already searched for the end of the header block, so a slowly sent header is not
+     * searched again from its start on every read.
+     */
+    private int scanned;
+    /**
+     * Index just after the header block of the first buffered request, -1 until it has arrived.
+     */
+    private int headerEnd = -1;
+    private int requestCount;
+    private long lastActive;
+
+    NioChannel(final SocketChannel socketChannel, final Http11Processor processor, final long maxBodySize) {
+        this.socketChannel = socketChannel;
+        this.processor = processor;
+        this.parser = new HttpRequestParser(HttpRequestParser.DEFAULT_MAX_HEADER_SIZE, maxBodySize);
+        this.maxBodySize = maxBodySize;
+        this.maxRequestSize = (int) Math.min(Integer.MAX_VALUE - 8,
+                HttpRequestParser.DEFAULT_MAX_HEADER_SIZE + maxBodySize);
+        this.lastActive = System.currentTimeMillis();
+    }
+
+    int read(final ByteBufferPool pool) throws IOException {
+        if (readBuffer == null) {
+            readBuffer = pool.acquire();
+        }
+        if (!readBuffer.hasRemaining()) {
+            grow(pool);
+        }
+        final var read = socketChannel.read(readBuffer);
+        lastActive = System.currentTimeMillis();
+        return read;
+    }
+
+    private void grow(final ByteBufferPool pool) throws IOException {
+        if (readBuffer.capacity() >= maxRequestSize) {
+            throw new IOException("request exceeds " + maxRequestSize + " bytes");
+        }
+        final var larger = pool.acquire(Math.min(readBuffer.capacity() * 2, maxRequestSize));
+        readBuffer.flip();
+        larger.put(readBuffer);
+        pool.release(readBuffer);
+        readBuffer = larger;
+    }
+
+    /**
+     * Take the bytes of the first complete request (header block and Content-Length or chunked body) out of the
+     * read buffer, keeping whatever follows it for the next call. A request declaring a body larger than
+     * {@code maxBodySize} is handed over without its body so the parser can reject it, and so is a header block that
+     * grew past {@link HttpRequestParser#DEFAULT_MAX_HEADER_SIZE} without ending, which would otherwise be buffered
+     * up to the size of a whole request.
+     *
+     * @return the request bytes or {@code null} if the request has not fully arrived yet
+     * @throws PayloadTooLargeException as soon as the chunks of a chunked body add up to more than
+     *                                  {@code maxBodySize}; the request stays in the buffer
+     */
+    byte[] nextRequest() {
+        if (readBuffer == null) {
+            return null;
+        }
+        final var bytes = readBuffer.array();
+        final var buffered = readBuffer.position();
+        if (headerEnd < 0) {
+            headerEnd = indexOfHeaderEnd(bytes, scanned, buffered);
+            if (headerEnd < 0) {
+                if (buffered > MAX_HEADER_SIZE) {
+                    return take(buffered);
+                }
+                // the end of the header may start in the last bytes and be completed by the next read
+                scanned = Math.max(0, buffered - 2);
+                return null;
+            }
+        }
+        final var header = new String(bytes, 0, headerEnd, StandardCharsets.ISO_8859_1);
+        final var requestLength = headerEnd + bodyLength(header, bytes, headerEnd, buffered);
+        if (requestLength < headerEnd || buffered < requestLength) {
+            return null;
+        }
+        return take(requestLength);
+    }
+
+    private byte[] take(final int length) {
+        final var request = Arrays.copyOf(readBuffer.array(), length);
+        readBuffer.flip();
+        readBuffer.position(length);
+        readBuffer.compact();
+        scanned = 0;
+        headerEnd = -1;
+        return request;
+    }
+
+    /**
+     * Take up to {@code max} complete requests: those handed back by {@link #requeue(List)} first, then what the
+     * read buffer holds. More than one means the client pipelines.
+     *
+     * @throws PayloadTooLargeException if the first request to take has too large a chunked body; one behind
+     *                                  others ends the batch and fails the next call, once they are answered
+     */
+    List<byte[]> nextRequests(final int max) {
+        final List<byte[]> requests = new ArrayList<>();
+        while (requests.size() < max && !pipelined.isEmpty()) {
+            requests.add(pipelined.poll());
+        }
+        while (requests.size() < max) {
+            final byte[] request;
+            try {
+                request = nextRequest();
+            } catch (PayloadTooLargeException e) {
+                if (requests.isEmpty()) {
+                    throw e;
+                }
+                break;
+            }
+            if (request == null) {
+                break;
+            }
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    /**
+     * Keep requests taken with {@link #nextRequests(int)} that were not served yet, to be taken again first.
+     */
+    void requeue(final List<byte[]> requests) {
+        for (int i = requests.size() - 1; i >= 0; i--) {
+            pipelined.addFirst(requests.get(i));
+        }
+    }
+
+    /**
+     * Find the empty line ending the header block the way the parser does, with or without CR.
+     *
+     * @return index just after the empty line or -1 if it has not arrived
+     */
+    private int indexOfHeaderEnd(final byte[] bytes, final int from, final int length) {
+        for (int i = from; i < length; i++) {
+            if (bytes[i] != '\n') {
+                continue;
+            }
+            if (i + 1 < length && bytes[i + 1] == '\n') {
+                return i + 2;
+            }
+            if (i + 2 < length && bytes[i + 1] == '\r' && bytes[i + 2] == '\n') {
+                return i + 3;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return length of the body, -1 while a chunked body is incomplete
+     */
+    private int bodyLength(final String header, final byte[] bytes, final int bodyStart, final int buffered) {
+        final var transferEncoding = headerValue(header, TRANSFER_ENCODING);
+        if (transferEncoding != null && transferEncoding.toLowerCase().contains(CHUNKED)) {
+            return chunkedLength(bytes, bodyStart, buffered);
+        }
+        final var contentLength = headerValue(header, CONTENT_LENGTH);
+        if (contentLength == null) {
+            return 0;
+        }
+        try {
+            final var length = Long.parseLong(contentLength);
+            // the parser rejects what is left: a negative or too large length
+            return length < 0 || length > maxBodySize ? 0 : (int) length;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private String headerValue(final String header, final String name) {
+        for (String line : header.split(HEADER_DELIMITER)) {
+            if (line.regionMatches(true, 0, name, 0, name.length())) {
+                return line.substring(name.length()).trim();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Walk the chunk size lines without decoding the body; the parser does that.
+     */
+    private int chunkedLength(final byte[] bytes, final int bodyStart, final int buffered) {
+        var position = bodyStart;
+        var total = 0L;
+        while (true) {
+            final var lineEnd = indexOfLineEnd(bytes, position, buffered);
+            if (lineEnd < 0) {
+                return -1;
+            }
+            final long chunkSize;
+            try {
+                final var line = new String(bytes, position, lineEnd - position, StandardCharsets.ISO_8859_1);
+                chunkSize = Long.parseLong(line.split(";")[0].trim(), 16);
+            } catch (NumberFormatException e) {
+                // hand the request over as it is and let the parser answer 400
+                return buffered - bodyStart;
+            }
+            if (chunkSize < 0) {
+                return buffered - bodyStart;
+            }
+            position = lineEnd + 2;
+            if (chunkSize == 0) {
+                final var end = trailersEnd(bytes, position, buffered);
+                return end < 0 ? -1 : end - bodyStart;
+            }
+            total += chunkSize;
+            if (total > maxBodySize) {
+                throw new PayloadTooLargeException(maxBodySize);
+            }
+            // a chunk of maxBodySize may not fit in an int position, so it is checked against the buffer first
+            final var next = position + chunkSize + 2;
+            if (next > buffered) {
+                return -1;
+            }
+            position = (int) next;
+        }
+    }
+
+    private int trailersEnd(final byte[] bytes, final int start, final int buffered) {
+        var position = start;
+        while (true) {
+            final var lineEnd = indexOfLineEnd(bytes, position, buffered);
+            if (lineEnd < 0) {
+                return -1;
+            }
+            if (lineEnd == position) {
+                return lineEnd + 2;
+            }
+            position = lineEnd + 2;
+        }
+    }
+
+    private int indexOfLineEnd(final byte[] bytes, final int start, final int length) {
+        for (int i = start; i + 1 < length; i++) {
+            if (bytes[i] == '\r' && bytes[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Give the read buffer back once every buffered byte has been consumed, so a parked connection holds none.
+     */
+    void releaseIfEmpty(final ByteBufferPool pool) {
+        if (readBuffer != null && readBuffer.position() == 0) {
+            pool.release(readBuffer);
+            readBuffer = null;
+        }
+    }
+
+    void release(final ByteBufferPool readPool, final ByteBufferPool writePool) {
+        if (readBuffer != null) {
+            readPool.release(readBuffer);
+            readBuffer = null;
+        }
+        if (writeBuffer != null) {
+            writePool.release(writeBuffer);
+            writeBuffer = null;
+        }
+        closeFile();
+    }
+
+    void startProcessing() {
+        processing = true;
+    }
+
+    /**
+     * Count a request served on this connection. Only the worker serving the connection calls this.
+     *
+     * @return the number of requests served so far, this one included
+     */
+    int countRequest() {
+        return ++requestCount;
+    }
+
+    void setResponse(final ByteBuffer writeBuffer, final boolean closeAfterWrite) {
+        setResponse(writeBuffer, null, closeAfterWrite);
+    }
+
+    /**
+     * @param fileRegion body sent with {@link FileChannel#transferTo} after the bytes of {@code writeBuffer}
+     */
+    void setResponse(final ByteBuffer writeBuffer, @Nullable final FileRegion fileRegion,
+                     final boolean closeAfterWrite) {
+        this.writeBuffer = writeBuffer;
+        this.fileRegion = fileRegion;
+        this.fileTransferred = 0;
+        this.closeAfterWrite = closeAfterWrite;
+    }
+
+    /**
+     * @param pool where the written buffer goes back to once it has been sent
+     * @return {@code true} once the whole response has been written to the socket
+     */
+    boolean write(final ByteBufferPool pool) throws IOException {
+        socketChannel.write(writeBuffer);
+        lastActive = System.currentTimeMillis();
+        if (writeBuffer.hasRemaining()) {
+            return false;
+        }
+        if (fileRegion != null && !transferFile()) {
+            return false;
+        }
+        pool.release(writeBuffer);
+        writeBuffer = null;
+        processing = false;
+        return true;
+    }
+
+    private boolean transferFile() throws IOException {
+        if (fileChannel == null) {
+            fileChannel = fileRegion.open();
+        }
+        final var position = fileRegion.getPosition() + fileTransferred;
+        final var remaining = fileRegion.getContentLength() - fileTransferred;
+        final var sent = fileChannel.transferTo(position, remaining, socketChannel);
+        if (sent == 0 && fileChannel.size() <= position) {
+            throw new IOException(fileRegion.getFile() + " was truncated while it was sent");
+        }
+        fileTransferred += sent;
+        if (fileTransferred < fileRegion.getContentLength()) {
+            return false;
+        }
+        closeFile();
+        fileRegion = null;
+        return true;
+    }
+
+    private void closeFile() {
+        if (fileChannel == null) {
+            return;
+        }
+        try {
+            fileChannel.close();
+        } catch (IOException ignored) {
+            // nothing was written to the file
+        }
+        fileChannel = null;
+    }
+
+    boolean isTimedOut(final long now, final long keepAliveTimeout) {
+        return !processing && keepAliveTimeout > 0 && now - lastActive > keepAliveTimeout;
+    }
+
+    SocketChannel getSocketChannel() {
+        return socketChannel;
+    }
+
+    Http11Processor getProcessor() {
+        return processor;
+    }
+
+    HttpRequestParser getParser() {
+        return parser;
+    }
+
+    boolean isCloseAfterWrite() {
+        return closeAfterWrite;
+    }
+}
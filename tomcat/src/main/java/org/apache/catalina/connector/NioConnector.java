@@ -0,0 +1,437 @@
+package org.apache.catalina.connector;
+
+import org.apache.catalina.metrics.MetricRegistry;
+import org.apache.coyote.http11.BadRequestException;
+import org.apache.coyote.http11.FileRegion;
+import org.apache.coyote.http11.Http11Processor;
+import org.apache.coyote.http11.HttpResponse;
+import org.apache.coyote.http11.MultipartByteRanges;
+import org.apache.coyote.http11.PayloadTooLargeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking connector. A single poller thread accepts connections and reads request bytes with a
+ * {@link Selector}; only complete requests are handed to the worker pool, so an idle keep-alive connection costs
+ * a registered key and no thread.
+ *
+ * <p>Unlike the blocking {@link Connector}, which streams request bodies, the poller buffers the whole body of a
+ * request in memory before a worker serves it, so every connection may hold up to {@code maxBodySize} bytes. Keep
+ * that limit low here and serve large uploads on the blocking connector.
+ */
+public class NioConnector extends AbstractConnector {
+
+    private static final Logger log = LoggerFactory.getLogger(NioConnector.class);
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_ACCEPT_COUNT = 100;
+    private static final int DEFAULT_MAX_THREADS = 200;
+    private static final int DEFAULT_MAX_CONNECTIONS = 8192;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int WRITE_BUFFER_SIZE = 16 * 1024;
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+    private static final long SELECT_TIMEOUT_MILLIS = 1000;
+    private static final long WRITE_TIMEOUT_MILLIS = 20_000;
+    private static final int MAX_PIPELINED_REQUESTS = 16;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final SelectionKey serverKey;
+    private final ThreadPoolExecutor executor;
+    private final ByteBufferPool bufferPool;
+    private final ByteBufferPool writeBufferPool;
+    private final Queue<Runnable> events = new ConcurrentLinkedQueue<>();
+    private final int maxConnections;
+
+    private Thread poller;
+    private volatile boolean stopped;
+    private volatile int connections;
+    private long lastTimeoutCheck;
+
+    public NioConnector() {
+        this(DEFAULT_PORT, DEFAULT_ACCEPT_COUNT, DEFAULT_MAX_THREADS, DEFAULT_MAX_CONNECTIONS,
+                Http11Processor.DEFAULT_KEEP_ALIVE_TIMEOUT, Http11Processor.DEFAULT_MAX_KEEP_ALIVE_REQUESTS);
+    }
+
+    /**
+     * @param maxConnections open connections, idle ones included. Once reached the poller stops accepting and new
+     *                       clients wait in the OS backlog of {@code acceptCount}.
+     */
+    public NioConnector(final int port, final int acceptCount, final int maxThreads, final int maxConnections,
+                        final int keepAliveTimeout, final int maxKeepAliveRequests) {
+        super(keepAliveTimeout, maxKeepAliveRequests);
+        try {
+            this.serverChannel = ServerSocketChannel.open();
+            this.serverChannel.bind(new InetSocketAddress(port), Math.max(acceptCount, DEFAULT_ACCEPT_COUNT));
+            this.serverChannel.configureBlocking(false);
+            this.selector = Selector.open();
+            this.serverKey = serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final var threads = maxThreads < 1 ? DEFAULT_MAX_THREADS : maxThreads;
+        // each connection has at most one request in flight, so the queue is bounded by maxConnections
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new WorkerThreadFactory("http-nio-" + port + "-exec-"));
+        this.bufferPool = new ByteBufferPool(BUFFER_SIZE, threads * 2);
+        // responses are only ever written to sockets, so their buffers can be direct
+        this.writeBufferPool = new ByteBufferPool(WRITE_BUFFER_SIZE, threads * 2, true);
+        this.maxConnections = maxConnections;
+        setMetricRegistry(new MetricRegistry());
+    }
+
+    @Override
+    protected void registerMetrics(final MetricRegistry registry) {
+        registry.gauge("connections_active", "Connections open, idle keep-alive connections included.",
+                () -> connections);
+        registry.gauge("worker_threads_busy", "Worker threads serving a request.", executor::getActiveCount);
+        registry.gauge("worker_threads", "Worker threads started.", executor::getPoolSize);
+        registry.gauge("worker_queue_size", "Requests read and waiting for a worker.",
+                () -> executor.getQueue().size());
+        bufferPool.registerMetrics(registry, "read");
+        writeBufferPool.registerMetrics(registry, "write");
+    }
+
+    @Override
+    public void start() {
+        startComponents();
+        poller = new Thread(this, "http-nio-" + getPort() + "-Poller");
+        poller.setDaemon(true);
+        poller.start();
+        log.info("Web Application Server started {} port. (nio)", getPort());
+    }
+
+    @Override
+    public void run() {
+        while (!stopped) {
+            try {
+                runEvents();
+                selector.select(SELECT_TIMEOUT_MILLIS);
+                handleSelectedKeys();
+                closeTimedOut();
+            } catch (IOException | RuntimeException e) {
+                // the poller must outlive any one failure, or no connection would be served or closed again
+                log.error(e.getMessage(), e);
+            }
+        }
+        closeAll();
+    }
+
+    private void runEvents() {
+        Runnable event;
+        while ((event = events.poll()) != null) {
+            event.run();
+        }
+    }
+
+    private void addEvent(final Runnable event) {
+        events.offer(event);
+        selector.wakeup();
+    }
+
+    private void handleSelectedKeys() {
+        final var iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+            final var key = iterator.next();
+            iterator.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                continue;
+            }
+            final var channel = (NioChannel) key.attachment();
+            try {
+                if (key.isReadable()) {
+                    read(key, channel);
+                } else if (key.isWritable()) {
+                    write(key, channel);
+                }
+            } catch (IOException e) {
+                log.debug("connection closed: {}", e.getMessage());
+                close(key);
+            } catch (RuntimeException e) {
+                log.error(e.getMessage(), e);
+                close(key);
+            }
+        }
+    }
+
+    private void accept() {
+        try {
+            final SocketChannel socketChannel = serverChannel.accept();
+            if (socketChannel == null) {
+                return;
+            }
+            socketChannel.configureBlocking(false);
+            final var processor = createProcessor(socketChannel.socket());
+            final var channel = new NioChannel(socketChannel, processor, getMaxBodySize());
+            socketChannel.register(selector, SelectionKey.OP_READ, channel);
+            connectionAccepted();
+            connections++;
+            if (connections >= maxConnections) {
+                serverKey.interestOps(0);
+            }
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    private void read(final SelectionKey key, final NioChannel channel) throws IOException {
+        if (channel.read(bufferPool) < 0) {
+            close(key);
+            return;
+        }
+        dispatch(key, channel);
+    }
+
+    private void dispatch(final SelectionKey key, final NioChannel channel) {
+        final List<byte[]> requests;
+        try {
+            requests = channel.nextRequests(MAX_PIPELINED_REQUESTS);
+        } catch (PayloadTooLargeException e) {
+            log.debug("payload too large: {}", e.getMessage());
+            key.interestOps(0);
+            channel.startProcessing();
+            final var output = new ByteBufferOutputStream(writeBufferPool);
+            startWrite(key, channel, collect(output, Http11Processor.payloadTooLarge()), true);
+            return;
+        }
+        if (requests.isEmpty()) {
+            channel.releaseIfEmpty(bufferPool);
+            return;
+        }
+        key.interestOps(0);
+        channel.startProcessing();
+        try {
+            executor.execute(() -> process(key, channel, requests));
+        } catch (RejectedExecutionException e) {
+            log.debug("connector is stopping: {}", e.getMessage());
+            close(key);
+        }
+    }
+
+    /**
+     * Serve pipelined requests in order and send their responses with one write. A response that is not in memory
+     * ends the batch: what was collected goes out before it and the requests after it are served once it is sent.
+     */
+    private void process(final SelectionKey key, final NioChannel channel, final List<byte[]> requests) {
+        final var output = new ByteBufferOutputStream(writeBufferPool);
+        var keepAlive = true;
+        try {
+            for (int i = 0; i < requests.size() && keepAlive; i++) {
+                final var processor = channel.getProcessor();
+                final var request = channel.getParser().accept(new ByteArrayInputStream(requests.get(i)));
+                final var response = processor.service(request);
+                keepAlive = processor.keepAlive(request, response, channel.countRequest());
+                final var close = !keepAlive;
+                // requests after one that closes the connection are not answered
+                final var rest = keepAlive ? requests.subList(i + 1, requests.size()) : List.<byte[]>of();
+                if (!response.hasContentLength() || response.getBody() instanceof MultipartByteRanges) {
+                    // streamed bodies are written by this worker as they are produced instead of being collected,
+                    // and so are ranges of a file, which may be large and cannot go out as one region
+                    try (final var socketOutput = new NioBlockingOutputStream(channel.getSocketChannel(),
+                            WRITE_TIMEOUT_MILLIS)) {
+                        final var collected = output.toByteBuffer();
+                        try {
+                            socketOutput.write(collected);
+                        } finally {
+                            writeBufferPool.release(collected);
+                        }
+                        response.writeTo(socketOutput);
+                    }
+                    addEvent(() -> {
+                        channel.requeue(rest);
+                        startWrite(key, channel, EMPTY_BUFFER, close);
+                    });
+                    return;
+                }
+                if (response.getBody() instanceof FileRegion) {
+                    response.writeHead(output);
+                    final var head = output.toByteBuffer();
+                    final var fileRegion = (FileRegion) response.getBody();
+                    addEvent(() -> {
+                        channel.requeue(rest);
+                        startWrite(key, channel, head, fileRegion, close);
+                    });
+                    return;
+                }
+                response.writeTo(output);
+            }
+        } catch (PayloadTooLargeException e) {
+            log.debug("payload too large: {}", e.getMessage());
+            writeError(key, channel, output, Http11Processor.payloadTooLarge());
+            return;
+        } catch (BadRequestException e) {
+            log.debug("bad request: {}", e.getMessage());
+            writeError(key, channel, output, Http11Processor.badRequest());
+            return;
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            output.release();
+            addEvent(() -> close(key));
+            return;
+        }
+        final var buffer = output.toByteBuffer();
+        final var close = !keepAlive;
+        addEvent(() -> startWrite(key, channel, buffer, close));
+    }
+
+    /**
+     * Send the responses collected so far and then the error, which closes the connection.
+     */
+    private void writeError(final SelectionKey key, final NioChannel channel, final ByteBufferOutputStream output,
+                            final HttpResponse error) {
+        final var buffer = collect(output, error);
+        addEvent(() -> startWrite(key, channel, buffer, true));
+    }
+
+    private ByteBuffer collect(final ByteBufferOutputStream output, final HttpResponse error) {
+        getMetrics().count(error);
+        try {
+            error.writeTo(output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteBuffer();
+    }
+
+    private void startWrite(final SelectionKey key, final NioChannel channel, final ByteBuffer buffer,
+                            final boolean closeAfterWrite) {
+        startWrite(key, channel, buffer, null, closeAfterWrite);
+    }
+
+    private void startWrite(final SelectionKey key, final NioChannel channel, final ByteBuffer head,
+                            final FileRegion fileRegion, final boolean closeAfterWrite) {
+        if (!key.isValid()) {
+            writeBufferPool.release(head);
+            return;
+        }
+        channel.setResponse(head, fileRegion, closeAfterWrite);
+        try {
+            write(key, channel);
+        } catch (IOException e) {
+            log.debug("connection closed: {}", e.getMessage());
+            close(key);
+        } catch (RuntimeException e) {
+            log.error(e.getMessage(), e);
+            close(key);
+        }
+    }
+
+    private void write(final SelectionKey key, final NioChannel channel) throws IOException {
+        if (!channel.write(writeBufferPool)) {
+            key.interestOps(SelectionKey.OP_WRITE);
+            return;
+        }
+        if (channel.isCloseAfterWrite()) {
+            close(key);
+            return;
+        }
+        key.interestOps(SelectionKey.OP_READ);
+        // a pipelining client may already have sent the next request
+        dispatch(key, channel);
+    }
+
+    private void closeTimedOut() {
+        final var now = System.currentTimeMillis();
+        if (now - lastTimeoutCheck < SELECT_TIMEOUT_MILLIS) {
+            return;
+        }
+        lastTimeoutCheck = now;
+        for (SelectionKey key : selector.keys()) {
+            final var attachment = key.attachment();
+            if (attachment instanceof NioChannel && ((NioChannel) attachment).isTimedOut(now, getKeepAliveTimeout())) {
+                close(key);
+            }
+        }
+    }
+
+    private void close(final SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        key.cancel();
+        final var channel = (NioChannel) key.attachment();
+        channel.release(bufferPool, writeBufferPool);
+        try {
+            channel.getSocketChannel().close();
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+        }
+        connections--;
+        if (connections < maxConnections && serverKey.isValid()) {
+            serverKey.interestOps(SelectionKey.OP_ACCEPT);
+        }
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof NioChannel) {
+                close(key);
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+        }
+        selector.wakeup();
+        // the poller hands requests to the workers until it has closed every connection, so it ends first
+        joinPoller();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        stopComponents();
+    }
+
+    private void joinPoller() {
+        if (poller == null) {
+            return;
+        }
+        try {
+            poller.join(TimeUnit.SECONDS.toMillis(SHUTDOWN_TIMEOUT_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+}
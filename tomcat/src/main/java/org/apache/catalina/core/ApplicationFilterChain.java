@@ -0,0 +1,51 @@
+package org.apache.catalina.core;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.Servlet;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The filters of one request in order, then the servlet. Reused for the next request once recycled.
+ */
+class ApplicationFilterChain implements FilterChain {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private Filter[] filters = new Filter[INITIAL_CAPACITY];
+    private int size;
+    private int position;
+    private Servlet servlet;
+
+    void addFilter(final Filter filter) {
+        if (size == filters.length) {
+            filters = Arrays.copyOf(filters, size * 2);
+        }
+        filters[size++] = filter;
+    }
+
+    void setServlet(final Servlet servlet) {
+        this.servlet = servlet;
+    }
+
+    @Override
+    public void doFilter(final ServletRequest request, final ServletResponse response)
+            throws IOException, ServletException {
+        if (position < size) {
+            filters[position++].doFilter(request, response, this);
+            return;
+        }
+        servlet.service(request, response);
+    }
+
+    void recycle() {
+        Arrays.fill(filters, 0, size, null);
+        size = 0;
+        position = 0;
+        servlet = null;
+    }
+}
@@ -0,0 +1,71 @@
+package org.apache.catalina.core;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletContext;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A filter with its name, init parameters and what it applies to: requests whose path matches one of its URL
+ * patterns, and requests for the servlets it names.
+ */
+class ApplicationFilterConfig implements FilterConfig {
+
+    private final String name;
+    private final Filter filter;
+    private final Map<String, String> initParameters;
+    private final List<UrlPattern> patterns;
+    private final Set<String> servletNames;
+
+    ApplicationFilterConfig(final String name, final Filter filter, final Map<String, String> initParameters,
+                            final List<UrlPattern> patterns, final Set<String> servletNames) {
+        this.name = name;
+        this.filter = filter;
+        this.initParameters = Map.copyOf(initParameters);
+        this.patterns = List.copyOf(patterns);
+        this.servletNames = Set.copyOf(servletNames);
+    }
+
+    Filter getFilter() {
+        return filter;
+    }
+
+    boolean appliesTo(final String uri, final String servletName) {
+        if (servletNames.contains(servletName)) {
+            return true;
+        }
+        for (UrlPattern pattern : patterns) {
+            if (pattern.matches(uri)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String getFilterName() {
+        return name;
+    }
+
+    /**
+     * @return {@code null}, there is no servlet context
+     */
+    @Override
+    public ServletContext getServletContext() {
+        return null;
+    }
+
+    @Override
+    public String getInitParameter(final String name) {
+        return initParameters.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getInitParameterNames() {
+        return Collections.enumeration(initParameters.keySet());
+    }
+}
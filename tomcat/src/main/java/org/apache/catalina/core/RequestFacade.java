@@ -0,0 +1,692 @@
+package org.apache.catalina.core;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.RequestDispatcher;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpUpgradeHandler;
+import jakarta.servlet.http.Part;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.apache.catalina.SessionManager;
+import org.apache.coyote.http11.HttpHeaders;
+import org.apache.coyote.http11.HttpRequest;
+
+/**
+ * An {@link HttpRequest} seen as an {@link HttpServletRequest}. Parameters are parsed, and the session looked up,
+ * only when the servlet asks for them. There is no servlet context, no authentication, no multipart parsing and no
+ * asynchronous processing. Reused for the next request once recycled.
+ */
+class RequestFacade implements HttpServletRequest {
+
+    static final String SESSION_COOKIE = "JSESSIONID";
+
+    private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
+    private static final String CHARSET = "charset=";
+    private static final String DEFAULT_HOST = "localhost";
+    private static final int DEFAULT_PORT = 80;
+
+    private final Map<String, Object> attributes = new HashMap<>();
+    private final Map<String, String[]> parameters = new LinkedHashMap<>();
+    private final RequestInputStream inputStream = new RequestInputStream();
+    private HttpRequest request;
+    private ResponseFacade response;
+    private SessionManager sessionManager;
+    private UrlPattern pattern;
+    private boolean parametersParsed;
+    private String characterEncoding;
+    private BufferedReader reader;
+    private boolean usingInputStream;
+    private StandardSessionFacade session;
+    private boolean sessionLookedUp;
+
+    void setRequest(final HttpRequest request, final ResponseFacade response, final SessionManager sessionManager,
+                    final UrlPattern pattern) {
+        this.request = request;
+        this.response = response;
+        this.sessionManager = sessionManager;
+        this.pattern = pattern;
+        inputStream.setInputStream(request.getInputStream());
+    }
+
+    void recycle() {
+        attributes.clear();
+        parameters.clear();
+        inputStream.setInputStream(null);
+        request = null;
+        response = null;
+        sessionManager = null;
+        pattern = null;
+        parametersParsed = false;
+        characterEncoding = null;
+        reader = null;
+        usingInputStream = false;
+        session = null;
+        sessionLookedUp = false;
+    }
+
+    @Override
+    public Object getAttribute(final String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(List.copyOf(attributes.keySet()));
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        if (characterEncoding != null) {
+            return characterEncoding;
+        }
+        final var contentType = getContentType();
+        if (contentType == null) {
+            return null;
+        }
+        final var charset = contentType.toLowerCase(Locale.ROOT).indexOf(CHARSET);
+        if (charset < 0) {
+            return null;
+        }
+        return contentType.substring(charset + CHARSET.length()).split(";")[0].trim().replace("\"", "");
+    }
+
+    private Charset getCharset() {
+        final var encoding = getCharacterEncoding();
+        if (encoding == null) {
+            return StandardCharsets.UTF_8;
+        }
+        try {
+            return Charset.forName(encoding);
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    @Override
+    public void setCharacterEncoding(final String env) throws UnsupportedEncodingException {
+        if (!Charset.isSupported(env)) {
+            throw new UnsupportedEncodingException(env);
+        }
+        characterEncoding = env;
+    }
+
+    @Override
+    public int getContentLength() {
+        final var length = getContentLengthLong();
+        return length > Integer.MAX_VALUE ? -1 : (int) length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        final var contentLength = request.getHeader(HttpHeaders.CONTENT_LENGTH);
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public String getContentType() {
+        return request.getHeader(HttpHeaders.CONTENT_TYPE);
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        if (reader != null) {
+            throw new IllegalStateException("getReader() has already been called");
+        }
+        usingInputStream = true;
+        return inputStream;
+    }
+
+    @Override
+    public String getParameter(final String name) {
+        final var values = getParameterMap().get(name);
+        return values == null ? null : values[0];
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(getParameterMap().keySet());
+    }
+
+    @Override
+    public String[] getParameterValues(final String name) {
+        final var values = getParameterMap().get(name);
+        return values == null ? null : values.clone();
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        if (!parametersParsed) {
+            parametersParsed = true;
+            parseParameters(request.getQueryString());
+            if (isForm()) {
+                parseParameters(readForm());
+            }
+        }
+        return Collections.unmodifiableMap(parameters);
+    }
+
+    private boolean isForm() {
+        final var contentType = getContentType();
+        return "POST".equals(request.getMethod()) && !usingInputStream && reader == null && contentType != null
+                && contentType.toLowerCase(Locale.ROOT).startsWith(FORM_CONTENT_TYPE);
+    }
+
+    private String readForm() {
+        try {
+            return request.getMessageBody();
+        } catch (IOException e) {
+            // the servlet sees the parameters that arrived, as with a client that went away
+            return null;
+        }
+    }
+
+    private void parseParameters(final String query) {
+        if (query == null || query.isEmpty()) {
+            return;
+        }
+        final var charset = getCharset();
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            final var equals = pair.indexOf('=');
+            final var name = decode(equals < 0 ? pair : pair.substring(0, equals), charset);
+            final var value = equals < 0 ? "" : decode(pair.substring(equals + 1), charset);
+            parameters.merge(name, new String[]{value}, RequestFacade::concat);
+        }
+    }
+
+    private static String decode(final String value, final Charset charset) {
+        try {
+            return URLDecoder.decode(value, charset);
+        } catch (IllegalArgumentException e) {
+            // a malformed escape is taken literally
+            return value;
+        }
+    }
+
+    private static String[] concat(final String[] values, final String[] more) {
+        final var all = new String[values.length + more.length];
+        System.arraycopy(values, 0, all, 0, values.length);
+        System.arraycopy(more, 0, all, values.length, more.length);
+        return all;
+    }
+
+    @Override
+    public String getProtocol() {
+        return request.getProtocol();
+    }
+
+    @Override
+    public String getScheme() {
+        return "http";
+    }
+
+    @Override
+    public String getServerName() {
+        final var host = request.getHeader(HttpHeaders.HOST);
+        if (host == null || host.isBlank()) {
+            return DEFAULT_HOST;
+        }
+        final var colon = getPortSeparator(host);
+        return (colon < 0 ? host : host.substring(0, colon)).trim();
+    }
+
+    @Override
+    public int getServerPort() {
+        final var host = request.getHeader(HttpHeaders.HOST);
+        if (host == null) {
+            return DEFAULT_PORT;
+        }
+        final var colon = getPortSeparator(host);
+        if (colon < 0) {
+            return DEFAULT_PORT;
+        }
+        try {
+            return Integer.parseInt(host.substring(colon + 1).trim());
+        } catch (NumberFormatException e) {
+            return DEFAULT_PORT;
+        }
+    }
+
+    /**
+     * @return the index of the colon before the port of a Host header, -1 if it has none. An IPv6 literal is in
+     * brackets and has colons of its own.
+     */
+    private static int getPortSeparator(final String host) {
+        final var colon = host.lastIndexOf(':');
+        return colon > host.lastIndexOf(']') ? colon : -1;
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        if (usingInputStream) {
+            throw new IllegalStateException("getInputStream() has already been called");
+        }
+        if (reader == null) {
+            reader = new BufferedReader(new InputStreamReader(inputStream, getCharset()));
+        }
+        return reader;
+    }
+
+    @Override
+    public String getRemoteAddr() {
+        final var address = request.getRemoteAddress();
+        return address == null ? null : address.getHostAddress();
+    }
+
+    /**
+     * @return the address of the client, names are not looked up
+     */
+    @Override
+    public String getRemoteHost() {
+        return getRemoteAddr();
+    }
+
+    @Override
+    public void setAttribute(final String name, final Object o) {
+        if (o == null) {
+            attributes.remove(name);
+            return;
+        }
+        attributes.put(name, o);
+    }
+
+    @Override
+    public void removeAttribute(final String name) {
+        attributes.remove(name);
+    }
+
+    @Override
+    public Locale getLocale() {
+        final var acceptLanguage = request.getHeader(HttpHeaders.ACCEPT_LANGUAGE);
+        if (acceptLanguage == null || acceptLanguage.isBlank()) {
+            return Locale.getDefault();
+        }
+        final var tag = acceptLanguage.split(",")[0].split(";")[0].trim();
+        return tag.equals("*") ? Locale.getDefault() : Locale.forLanguageTag(tag);
+    }
+
+    @Override
+    public Enumeration<Locale> getLocales() {
+        return Collections.enumeration(List.of(getLocale()));
+    }
+
+    @Override
+    public boolean isSecure() {
+        return false;
+    }
+
+    /**
+     * @return {@code null}, requests are not dispatched to other servlets
+     */
+    @Override
+    public RequestDispatcher getRequestDispatcher(final String path) {
+        return null;
+    }
+
+    @Override
+    @Deprecated
+    public String getRealPath(final String path) {
+        return null;
+    }
+
+    /**
+     * @return -1, the port of the client is not kept
+     */
+    @Override
+    public int getRemotePort() {
+        return -1;
+    }
+
+    @Override
+    public String getLocalName() {
+        return getServerName();
+    }
+
+    /**
+     * @return {@code null}, the local address of the connection is not kept
+     */
+    @Override
+    public String getLocalAddr() {
+        return null;
+    }
+
+    @Override
+    public int getLocalPort() {
+        return getServerPort();
+    }
+
+    /**
+     * @return {@code null}, there is no servlet context
+     */
+    @Override
+    public ServletContext getServletContext() {
+        return null;
+    }
+
+    @Override
+    public AsyncContext startAsync() {
+        throw new IllegalStateException("asynchronous processing is not supported");
+    }
+
+    @Override
+    public AsyncContext startAsync(final ServletRequest servletRequest, final ServletResponse servletResponse) {
+        throw new IllegalStateException("asynchronous processing is not supported");
+    }
+
+    @Override
+    public boolean isAsyncStarted() {
+        return false;
+    }
+
+    @Override
+    public boolean isAsyncSupported() {
+        return false;
+    }
+
+    @Override
+    public AsyncContext getAsyncContext() {
+        throw new IllegalStateException("asynchronous processing is not supported");
+    }
+
+    @Override
+    public DispatcherType getDispatcherType() {
+        return DispatcherType.REQUEST;
+    }
+
+    @Override
+    public String getAuthType() {
+        return null;
+    }
+
+    @Override
+    public Cookie[] getCookies() {
+        final var cookies = request.getCookies();
+        if (cookies.isEmpty()) {
+            return null;
+        }
+        return cookies.entrySet().stream()
+                .map(cookie -> new Cookie(cookie.getKey(), cookie.getValue()))
+                .toArray(Cookie[]::new);
+    }
+
+    @Override
+    public long getDateHeader(final String name) {
+        final var value = request.getHeader(name);
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("not a date: " + value, e);
+        }
+    }
+
+    @Override
+    public String getHeader(final String name) {
+        return request.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(final String name) {
+        final var value = request.getHeader(name);
+        return Collections.enumeration(value == null ? List.of() : List.of(value));
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        return Collections.enumeration(request.getHeaders().keySet());
+    }
+
+    @Override
+    public int getIntHeader(final String name) {
+        final var value = request.getHeader(name);
+        return value == null ? -1 : Integer.parseInt(value.trim());
+    }
+
+    @Override
+    public String getMethod() {
+        return request.getMethod();
+    }
+
+    @Override
+    public String getPathInfo() {
+        return pattern.getPathInfo(request.getUri());
+    }
+
+    @Override
+    public String getPathTranslated() {
+        return null;
+    }
+
+    @Override
+    public String getContextPath() {
+        return "";
+    }
+
+    @Override
+    public String getQueryString() {
+        return request.getQueryString();
+    }
+
+    @Override
+    public String getRemoteUser() {
+        return null;
+    }
+
+    @Override
+    public boolean isUserInRole(final String role) {
+        return false;
+    }
+
+    @Override
+    public Principal getUserPrincipal() {
+        return null;
+    }
+
+    @Override
+    public String getRequestedSessionId() {
+        return request.getCookie(SESSION_COOKIE);
+    }
+
+    @Override
+    public String getRequestURI() {
+        return request.getUri();
+    }
+
+    @Override
+    public StringBuffer getRequestURL() {
+        final var url = new StringBuffer(getScheme()).append("://").append(getServerName());
+        final var port = getServerPort();
+        if (port != DEFAULT_PORT) {
+            url.append(':').append(port);
+        }
+        return url.append(request.getUri());
+    }
+
+    @Override
+    public String getServletPath() {
+        return pattern.getServletPath(request.getUri());
+    }
+
+    @Override
+    public HttpSession getSession(final boolean create) {
+        if (!sessionLookedUp) {
+            sessionLookedUp = true;
+            final var found = sessionManager.findSession(getRequestedSessionId());
+            if (found != null) {
+                session = new StandardSessionFacade(found, sessionManager, false);
+            }
+        }
+        if (session != null && session.isInvalidated()) {
+            session = null;
+        }
+        if (session == null && create) {
+            if (response.isCommitted()) {
+                throw new IllegalStateException("response has already been committed");
+            }
+            final var created = sessionManager.createSession();
+            response.addSessionCookie(created.getId());
+            session = new StandardSessionFacade(created, sessionManager, true);
+        }
+        return session;
+    }
+
+    @Override
+    public HttpSession getSession() {
+        return getSession(true);
+    }
+
+    @Override
+    public String changeSessionId() {
+        final var current = (StandardSessionFacade) getSession(false);
+        if (current == null) {
+            throw new IllegalStateException("no session");
+        }
+        if (response.isCommitted()) {
+            throw new IllegalStateException("response has already been committed");
+        }
+        final var changed = sessionManager.changeSessionId(current.getSession());
+        response.addSessionCookie(changed.getId());
+        session = new StandardSessionFacade(changed, sessionManager, current.isNew());
+        return changed.getId();
+    }
+
+    @Override
+    public boolean isRequestedSessionIdValid() {
+        final var requestedSessionId = getRequestedSessionId();
+        final var current = getSession(false);
+        return requestedSessionId != null && current != null && current.getId().equals(requestedSessionId);
+    }
+
+    @Override
+    public boolean isRequestedSessionIdFromCookie() {
+        return getRequestedSessionId() != null;
+    }
+
+    @Override
+    public boolean isRequestedSessionIdFromURL() {
+        return false;
+    }
+
+    @Override
+    @Deprecated
+    public boolean isRequestedSessionIdFromUrl() {
+        return false;
+    }
+
+    @Override
+    public boolean authenticate(final HttpServletResponse response) {
+        return false;
+    }
+
+    @Override
+    public void login(final String username, final String password) throws ServletException {
+        throw new ServletException("authentication is not supported");
+    }
+
+    @Override
+    public void logout() throws ServletException {
+        throw new ServletException("authentication is not supported");
+    }
+
+    @Override
+    public Collection<Part> getParts() throws ServletException {
+        throw new ServletException("multipart requests are not supported");
+    }
+
+    @Override
+    public Part getPart(final String name) throws ServletException {
+        throw new ServletException("multipart requests are not supported");
+    }
+
+    @Override
+    public <T extends HttpUpgradeHandler> T upgrade(final Class<T> handlerClass) throws ServletException {
+        throw new ServletException("protocol upgrade is not supported");
+    }
+
+    /**
+     * Reads the body of the request as the servlet consumes it.
+     */
+    private static class RequestInputStream extends ServletInputStream {
+
+        private InputStream inputStream;
+        private boolean finished;
+
+        private void setInputStream(final InputStream inputStream) {
+            this.inputStream = inputStream;
+            finished = false;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final var b = inputStream.read();
+            finished = b < 0;
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final var read = inputStream.read(b, off, len);
+            finished = read < 0;
+            return read;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return inputStream.available();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(final ReadListener readListener) {
+            throw new IllegalStateException("non-blocking I/O is not supported");
+        }
+    }
+}
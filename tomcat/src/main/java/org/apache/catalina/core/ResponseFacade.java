@@ -0,0 +1,456 @@
+package org.apache.catalina.core;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.coyote.http11.HttpResponse;
+import org.apache.coyote.http11.HttpStatus;
+
+/**
+ * An {@link HttpServletResponse} collected in memory and turned into an {@link HttpResponse} once the servlet
+ * returns, so the whole response counts as buffered and nothing is committed before then. Text is written in UTF-8
+ * unless the servlet asks for another charset. Reused for the next request once recycled.
+ */
+class ResponseFacade implements HttpServletResponse {
+
+    /**
+     * A buffer that grew past this for one large response is not kept for the next one.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+    private static final String SET_COOKIE = "Set-Cookie";
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String CONTENT_LENGTH = "Content-Length";
+    private static final String CHARSET = "charset=";
+    private final Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final BufferOutputStream outputStream = new BufferOutputStream();
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream(HttpResponse.DEFAULT_BUFFER_SIZE);
+    private PrintWriter writer;
+    private Charset writerCharset;
+    private int status = SC_OK;
+    private String contentType;
+    private String characterEncoding;
+    private Locale locale = Locale.getDefault();
+    private int bufferSize = HttpResponse.DEFAULT_BUFFER_SIZE;
+    private boolean usingWriter;
+    private boolean usingOutputStream;
+    private boolean committed;
+    /**
+     * Set by sendError and sendRedirect: whatever the servlet writes after them is dropped.
+     */
+    private boolean suspended;
+
+    HttpResponse toHttpResponse() {
+        if (writer != null) {
+            writer.flush();
+        }
+        final var httpStatus = HttpStatus.of(status);
+        final var statusText = httpStatus == null ? String.valueOf(status) : httpStatus.toString();
+        final HttpResponse response;
+        if (buffer.size() == 0 && contentType == null) {
+            response = new HttpResponse(statusText, null, (byte[]) null, Map.of());
+        } else {
+            response = new HttpResponse(statusText, "Content-Type: " + getContentTypeOrDefault() + " ",
+                    buffer.toByteArray(), Map.of());
+        }
+        headers.forEach((name, values) -> {
+            for (String value : values) {
+                response.appendHeader(name, value);
+            }
+        });
+        return response;
+    }
+
+    private String getContentTypeOrDefault() {
+        if (contentType != null) {
+            return getContentType();
+        }
+        return usingWriter ? "text/plain;charset=" + getCharacterEncoding() : "application/octet-stream";
+    }
+
+    void addSessionCookie(final String sessionId) {
+        addHeader(SET_COOKIE, RequestFacade.SESSION_COOKIE + "=" + sessionId + "; Path=/; HttpOnly");
+    }
+
+    void recycle() {
+        headers.clear();
+        if (writer != null) {
+            writer.flush();
+        }
+        if (buffer.size() > MAX_RETAINED_BUFFER_SIZE) {
+            buffer = new ByteArrayOutputStream(HttpResponse.DEFAULT_BUFFER_SIZE);
+        } else {
+            buffer.reset();
+        }
+        status = SC_OK;
+        contentType = null;
+        characterEncoding = null;
+        locale = Locale.getDefault();
+        bufferSize = HttpResponse.DEFAULT_BUFFER_SIZE;
+        usingWriter = false;
+        usingOutputStream = false;
+        committed = false;
+        suspended = false;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return characterEncoding == null ? StandardCharsets.UTF_8.name() : characterEncoding;
+    }
+
+    @Override
+    public String getContentType() {
+        if (contentType == null) {
+            return null;
+        }
+        if (characterEncoding == null && !usingWriter) {
+            return contentType;
+        }
+        return contentType + ";charset=" + getCharacterEncoding();
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (usingWriter) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        usingOutputStream = true;
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (usingOutputStream) {
+            throw new IllegalStateException("getOutputStream() has already been called");
+        }
+        usingWriter = true;
+        final var charset = Charset.forName(getCharacterEncoding());
+        if (writer == null || !charset.equals(writerCharset)) {
+            // closing it only flushes, so it stays usable for the next request
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, charset)) {
+                @Override
+                public void close() {
+                    flush();
+                }
+            };
+            writerCharset = charset;
+        }
+        return writer;
+    }
+
+    @Override
+    public void setCharacterEncoding(final String charset) {
+        if (committed || usingWriter) {
+            return;
+        }
+        characterEncoding = charset;
+    }
+
+    @Override
+    public void setContentLength(final int len) {
+        // the length is that of what the servlet wrote
+    }
+
+    @Override
+    public void setContentLengthLong(final long len) {
+        // the length is that of what the servlet wrote
+    }
+
+    @Override
+    public void setContentType(final String type) {
+        if (committed) {
+            return;
+        }
+        if (type == null) {
+            contentType = null;
+            return;
+        }
+        final var semicolon = type.indexOf(';');
+        if (semicolon < 0) {
+            contentType = type.trim();
+            return;
+        }
+        contentType = type.substring(0, semicolon).trim();
+        final var charset = type.toLowerCase(Locale.ROOT).indexOf(CHARSET, semicolon);
+        if (charset >= 0) {
+            setCharacterEncoding(type.substring(charset + CHARSET.length()).split(";")[0].trim().replace("\"", ""));
+        }
+    }
+
+    @Override
+    public void setBufferSize(final int size) {
+        if (committed || buffer.size() > 0) {
+            throw new IllegalStateException("content has already been written");
+        }
+        bufferSize = size;
+    }
+
+    @Override
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    @Override
+    public void flushBuffer() {
+        if (writer != null) {
+            writer.flush();
+        }
+        committed = true;
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (committed) {
+            throw new IllegalStateException("response has already been committed");
+        }
+        if (writer != null) {
+            writer.flush();
+        }
+        buffer.reset();
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    @Override
+    public void reset() {
+        resetBuffer();
+        headers.clear();
+        status = SC_OK;
+        contentType = null;
+        characterEncoding = null;
+    }
+
+    @Override
+    public void setLocale(final Locale loc) {
+        if (committed || loc == null) {
+            return;
+        }
+        locale = loc;
+    }
+
+    @Override
+    public Locale getLocale() {
+        return locale;
+    }
+
+    @Override
+    public void addCookie(final Cookie cookie) {
+        final var header = new StringBuilder(cookie.getName()).append('=').append(cookie.getValue());
+        if (cookie.getPath() != null) {
+            header.append("; Path=").append(cookie.getPath());
+        }
+        if (cookie.getDomain() != null) {
+            header.append("; Domain=").append(cookie.getDomain());
+        }
+        if (cookie.getMaxAge() >= 0) {
+            header.append("; Max-Age=").append(cookie.getMaxAge());
+        }
+        if (cookie.getSecure()) {
+            header.append("; Secure");
+        }
+        if (cookie.isHttpOnly()) {
+            header.append("; HttpOnly");
+        }
+        addHeader(SET_COOKIE, header.toString());
+    }
+
+    @Override
+    public boolean containsHeader(final String name) {
+        return headers.containsKey(name);
+    }
+
+    /**
+     * Sessions are tracked with cookies only, so URLs are never rewritten.
+     */
+    @Override
+    public String encodeURL(final String url) {
+        return url;
+    }
+
+    @Override
+    public String encodeRedirectURL(final String url) {
+        return url;
+    }
+
+    @Override
+    @Deprecated
+    public String encodeUrl(final String url) {
+        return url;
+    }
+
+    @Override
+    @Deprecated
+    public String encodeRedirectUrl(final String url) {
+        return url;
+    }
+
+    @Override
+    public void sendError(final int sc, final String msg) {
+        resetBuffer();
+        status = sc;
+        contentType = "text/plain";
+        characterEncoding = StandardCharsets.UTF_8.name();
+        final var httpStatus = HttpStatus.of(sc);
+        final var message = msg != null ? msg : httpStatus == null ? String.valueOf(sc) : httpStatus.toString();
+        buffer.writeBytes(message.getBytes(StandardCharsets.UTF_8));
+        committed = true;
+        suspended = true;
+    }
+
+    @Override
+    public void sendError(final int sc) {
+        sendError(sc, null);
+    }
+
+    @Override
+    public void sendRedirect(final String location) {
+        resetBuffer();
+        status = SC_FOUND;
+        setHeader("Location", location);
+        committed = true;
+        suspended = true;
+    }
+
+    @Override
+    public void setDateHeader(final String name, final long date) {
+        setHeader(name, formatDate(date));
+    }
+
+    @Override
+    public void addDateHeader(final String name, final long date) {
+        addHeader(name, formatDate(date));
+    }
+
+    private static String formatDate(final long date) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(date).atZone(ZoneOffset.UTC));
+    }
+
+    @Override
+    public void setHeader(final String name, final String value) {
+        if (committed || isSpecialHeader(name, value)) {
+            return;
+        }
+        if (value == null) {
+            headers.remove(name);
+            return;
+        }
+        final List<String> values = new ArrayList<>(1);
+        values.add(value);
+        headers.put(name, values);
+    }
+
+    @Override
+    public void addHeader(final String name, final String value) {
+        if (committed || value == null || isSpecialHeader(name, value)) {
+            return;
+        }
+        headers.computeIfAbsent(name, key -> new ArrayList<>(1)).add(value);
+    }
+
+    /**
+     * Content-Type is kept apart so its charset can be looked at, and Content-Length is computed from the body.
+     */
+    private boolean isSpecialHeader(final String name, final String value) {
+        if (CONTENT_TYPE.equalsIgnoreCase(name)) {
+            setContentType(value);
+            return true;
+        }
+        return CONTENT_LENGTH.equalsIgnoreCase(name);
+    }
+
+    @Override
+    public void setIntHeader(final String name, final int value) {
+        setHeader(name, String.valueOf(value));
+    }
+
+    @Override
+    public void addIntHeader(final String name, final int value) {
+        addHeader(name, String.valueOf(value));
+    }
+
+    @Override
+    public void setStatus(final int sc) {
+        if (committed) {
+            return;
+        }
+        status = sc;
+    }
+
+    @Override
+    @Deprecated
+    public void setStatus(final int sc, final String sm) {
+        setStatus(sc);
+    }
+
+    @Override
+    public int getStatus() {
+        return status;
+    }
+
+    @Override
+    public String getHeader(final String name) {
+        if (CONTENT_TYPE.equalsIgnoreCase(name)) {
+            return getContentType();
+        }
+        final var values = headers.get(name);
+        return values == null ? null : values.get(0);
+    }
+
+    @Override
+    public Collection<String> getHeaders(final String name) {
+        final var values = headers.get(name);
+        return values == null ? List.of() : List.copyOf(values);
+    }
+
+    @Override
+    public Collection<String> getHeaderNames() {
+        return List.copyOf(headers.keySet());
+    }
+
+    /**
+     * Writes into the buffer of the response unless it is suspended.
+     */
+    private class BufferOutputStream extends ServletOutputStream {
+
+        @Override
+        public void write(final int b) {
+            if (!suspended) {
+                buffer.write(b);
+            }
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            if (!suspended) {
+                buffer.write(b, off, len);
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(final WriteListener writeListener) {
+            throw new IllegalStateException("non-blocking I/O is not supported");
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package org.apache.catalina.core;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.Filter;
+import jakarta.servlet.Servlet;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.annotation.WebInitParam;
+import jakarta.servlet.annotation.WebServlet;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import nextstep.jwp.exception.UncheckedServletException;
+import org.apache.catalina.Lifecycle;
+import org.apache.catalina.SessionManager;
+import org.apache.catalina.mapper.Controller;
+import org.apache.catalina.mapper.RequestMapping;
+import org.apache.catalina.metrics.MetricRegistry;
+import org.apache.coyote.http11.BadRequestException;
+import org.apache.coyote.http11.HttpRequest;
+import org.apache.coyote.http11.HttpResponse;
+import org.apache.coyote.http11.HttpStatus;
+import org.apache.coyote.http11.PayloadTooLargeException;
+import org.reflections.Reflections;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs {@code jakarta.servlet} servlets and filters on the connector. Servlets are routed by the connector's
+ * {@link RequestMapping}: exact and {@code /path/*} patterns become routes for every method, {@code /} takes what no
+ * other route does, and extension patterns are not supported. Routes of the server itself, such as static files,
+ * win over a servlet's prefix pattern.
+ *
+ * <p>The request and response facades and the filter chain are taken from a pool and recycled after the response,
+ * so a steady load allocates none of them. The response is buffered whole and sent once the servlet returns.
+ */
+public class ServletContainer implements Lifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ServletContainer.class);
+
+    public static final int DEFAULT_MAX_POOLED_EXCHANGES = 256;
+
+    private final List<StandardWrapper> servlets = new ArrayList<>();
+    private final List<ApplicationFilterConfig> filters = new ArrayList<>();
+    private final BlockingQueue<ServletExchange> pool;
+    private final LongAdder createdExchanges = new LongAdder();
+    private SessionManager sessionManager = new SessionManager();
+
+    public ServletContainer() {
+        this(DEFAULT_MAX_POOLED_EXCHANGES);
+    }
+
+    /**
+     * @param maxPooledExchanges recycled facades kept for later requests; more are made when requests run at once
+     */
+    public ServletContainer(final int maxPooledExchanges) {
+        this.pool = new ArrayBlockingQueue<>(Math.max(maxPooledExchanges, 1));
+    }
+
+    /**
+     * Add every class annotated with {@link WebServlet} or {@link WebFilter} under the package. Filters apply in the
+     * order of their class names.
+     */
+    public static ServletContainer scan(final String packageName) {
+        final var container = new ServletContainer();
+        final var reflections = new Reflections(packageName);
+        for (Class<?> type : sortByName(reflections.getTypesAnnotatedWith(WebFilter.class))) {
+            final var annotation = type.getAnnotation(WebFilter.class);
+            if (!Arrays.asList(annotation.dispatcherTypes()).contains(DispatcherType.REQUEST)) {
+                continue;
+            }
+            final var name = annotation.filterName().isEmpty() ? type.getName() : annotation.filterName();
+            container.addFilter(name, instantiate(type, Filter.class), toMap(annotation.initParams()),
+                    patterns(annotation.value(), annotation.urlPatterns()), annotation.servletNames());
+        }
+        for (Class<?> type : sortByName(reflections.getTypesAnnotatedWith(WebServlet.class))) {
+            final var annotation = type.getAnnotation(WebServlet.class);
+            final var name = annotation.name().isEmpty() ? type.getName() : annotation.name();
+            container.addServlet(name, instantiate(type, Servlet.class), toMap(annotation.initParams()),
+                    annotation.loadOnStartup(), patterns(annotation.value(), annotation.urlPatterns()));
+        }
+        return container;
+    }
+
+    private static List<Class<?>> sortByName(final Set<Class<?>> types) {
+        return types.stream()
+                .sorted(Comparator.comparing(Class::getName))
+                .collect(Collectors.toList());
+    }
+
+    private static <T> T instantiate(final Class<?> type, final Class<T> expected) {
+        if (!expected.isAssignableFrom(type)) {
+            throw new IllegalArgumentException(type.getName() + " is not a " + expected.getSimpleName());
+        }
+        try {
+            return expected.cast(type.getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("cannot instantiate " + type.getName(), e);
+        }
+    }
+
+    private static Map<String, String> toMap(final WebInitParam[] initParams) {
+        final Map<String, String> parameters = new LinkedHashMap<>();
+        for (WebInitParam initParam : initParams) {
+            parameters.put(initParam.name(), initParam.value());
+        }
+        return parameters;
+    }
+
+    private static String[] patterns(final String[] value, final String[] urlPatterns) {
+        return urlPatterns.length > 0 ? urlPatterns : value;
+    }
+
+    public void addServlet(final String name, final Servlet servlet, final String... urlPatterns) {
+        addServlet(name, servlet, Map.of(), -1, urlPatterns);
+    }
+
+    /**
+     * @param loadOnStartup servlets are initialized at startup in this order, lowest first and negative values last
+     */
+    public void addServlet(final String name, final Servlet servlet, final Map<String, String> initParameters,
+                           final int loadOnStartup, final String... urlPatterns) {
+        if (urlPatterns.length == 0) {
+            throw new IllegalArgumentException("servlet without url patterns: " + name);
+        }
+        final var patterns = parse(urlPatterns);
+        for (UrlPattern pattern : patterns) {
+            if (pattern.getType() == UrlPattern.Type.EXTENSION) {
+                throw new IllegalArgumentException("extension mappings are not supported: " + pattern);
+            }
+        }
+        servlets.add(new StandardWrapper(name, servlet, initParameters, patterns, loadOnStartup));
+    }
+
+    public void addFilter(final String name, final Filter filter, final String... urlPatterns) {
+        addFilter(name, filter, Map.of(), urlPatterns, new String[0]);
+    }
+
+    /**
+     * @param servletNames the filter also applies to every request for these servlets
+     */
+    public void addFilter(final String name, final Filter filter, final Map<String, String> initParameters,
+                          final String[] urlPatterns, final String[] servletNames) {
+        filters.add(new ApplicationFilterConfig(name, filter, initParameters, parse(urlPatterns),
+                Set.of(servletNames)));
+    }
+
+    private static List<UrlPattern> parse(final String[] urlPatterns) {
+        return Arrays.stream(urlPatterns)
+                .map(UrlPattern::parse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Add the routes of the servlets.
+     *
+     * @param sessionManager the sessions of the connector, which servlets see as {@code HttpSession}s
+     */
+    public void register(final RequestMapping mapping, final SessionManager sessionManager) {
+        this.sessionManager = sessionManager;
+        for (StandardWrapper wrapper : servlets) {
+            for (UrlPattern pattern : wrapper.getPatterns()) {
+                final Controller controller = request -> service(wrapper, pattern, request);
+                switch (pattern.getType()) {
+                    case EXACT:
+                        mapping.any(pattern.getValue(), controller);
+                        break;
+                    case PREFIX:
+                        mapping.any(pattern.getValue().isEmpty() ? "/" : pattern.getValue(), controller);
+                        mapping.any(pattern.getValue() + "/" + RequestMapping.CATCH_ALL, controller);
+                        break;
+                    case DEFAULT:
+                        mapping.any("/", controller);
+                        mapping.any("/" + RequestMapping.CATCH_ALL, controller);
+                        break;
+                    default:
+                        mapping.any("/", controller);
+                }
+            }
+        }
+    }
+
+    private HttpResponse service(final StandardWrapper wrapper, final UrlPattern pattern, final HttpRequest request)
+            throws IOException {
+        final var exchange = borrow();
+        try {
+            exchange.request.setRequest(request, exchange.response, sessionManager, pattern);
+            final var uri = request.getUri();
+            for (ApplicationFilterConfig filter : filters) {
+                if (filter.appliesTo(uri, wrapper.getServletName())) {
+                    exchange.chain.addFilter(filter.getFilter());
+                }
+            }
+            exchange.chain.setServlet(wrapper.getServlet());
+            exchange.chain.doFilter(exchange.request, exchange.response);
+            return exchange.response.toHttpResponse();
+        } catch (BadRequestException | PayloadTooLargeException e) {
+            // a body the servlet could not read is the client's fault: the connection answers 400 or 413 and closes
+            throw e;
+        } catch (ServletException | RuntimeException e) {
+            log.error("servlet {} failed: {}", wrapper.getServletName(), e.getMessage(), e);
+            return new HttpResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Content-Type: text/plain;charset=utf-8 ",
+                    "Internal Server Error");
+        } finally {
+            release(exchange);
+        }
+    }
+
+    private ServletExchange borrow() {
+        final var exchange = pool.poll();
+        if (exchange != null) {
+            return exchange;
+        }
+        createdExchanges.increment();
+        return new ServletExchange();
+    }
+
+    private void release(final ServletExchange exchange) {
+        exchange.recycle();
+        // a full pool means more requests ran at once than it keeps, the extra ones are left to the collector
+        pool.offer(exchange);
+    }
+
+    /**
+     * Export how many facades were made: it levels off once the pool covers the requests served at once.
+     */
+    public void registerMetrics(final MetricRegistry registry) {
+        registry.counter("servlet_exchanges_created_total",
+                "Servlet request and response facades made because the pool had none free.", createdExchanges::sum);
+    }
+
+    /**
+     * Initialize the filters, then the servlets in their load-on-startup order.
+     */
+    @Override
+    public void start() {
+        try {
+            for (ApplicationFilterConfig filter : filters) {
+                filter.getFilter().init(filter);
+            }
+            final List<StandardWrapper> ordered = new ArrayList<>(servlets);
+            ordered.sort(Comparator.comparingInt(StandardWrapper::getLoadOnStartup));
+            for (StandardWrapper wrapper : ordered) {
+                wrapper.getServlet().init(wrapper);
+            }
+        } catch (ServletException e) {
+            throw new UncheckedServletException(e);
+        }
+        log.info("servlet container started with {} servlets and {} filters", servlets.size(), filters.size());
+    }
+
+    @Override
+    public void stop() {
+        for (StandardWrapper wrapper : servlets) {
+            wrapper.getServlet().destroy();
+        }
+        for (ApplicationFilterConfig filter : filters) {
+            filter.getFilter().destroy();
+        }
+    }
+}
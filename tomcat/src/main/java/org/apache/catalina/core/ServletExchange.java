@@ -0,0 +1,18 @@
+package org.apache.catalina.core;
+
+/**
+ * The request and response facades and the filter chain of one servlet request, pooled by the
+ * {@link ServletContainer} so serving a request allocates none of them.
+ */
+class ServletExchange {
+
+    final RequestFacade request = new RequestFacade();
+    final ResponseFacade response = new ResponseFacade();
+    final ApplicationFilterChain chain = new ApplicationFilterChain();
+
+    void recycle() {
+        request.recycle();
+        response.recycle();
+        chain.recycle();
+    }
+}
@@ -0,0 +1,144 @@
+package org.apache.catalina.core;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpSessionContext;
+import java.util.Collections;
+import java.util.Enumeration;
+import org.apache.catalina.Session;
+import org.apache.catalina.SessionManager;
+
+/**
+ * A {@link Session} seen as an {@link HttpSession}. Sessions expire after the manager's interval, so
+ * {@link #setMaxInactiveInterval(int)} is ignored.
+ */
+class StandardSessionFacade implements HttpSession {
+
+    private final Session session;
+    private final SessionManager sessionManager;
+    private final boolean created;
+    private boolean invalidated;
+
+    StandardSessionFacade(final Session session, final SessionManager sessionManager, final boolean created) {
+        this.session = session;
+        this.sessionManager = sessionManager;
+        this.created = created;
+    }
+
+    boolean isInvalidated() {
+        return invalidated;
+    }
+
+    Session getSession() {
+        return session;
+    }
+
+    @Override
+    public long getCreationTime() {
+        checkValid();
+        return session.getCreationTime();
+    }
+
+    @Override
+    public String getId() {
+        return session.getId();
+    }
+
+    @Override
+    public long getLastAccessedTime() {
+        checkValid();
+        return session.getLastAccessedTime();
+    }
+
+    /**
+     * @return {@code null}, there is no servlet context
+     */
+    @Override
+    public ServletContext getServletContext() {
+        return null;
+    }
+
+    @Override
+    public void setMaxInactiveInterval(final int interval) {
+        // every session of a manager expires after the same interval
+    }
+
+    @Override
+    public int getMaxInactiveInterval() {
+        return sessionManager.getMaxInactiveInterval();
+    }
+
+    @Override
+    @Deprecated
+    public HttpSessionContext getSessionContext() {
+        return null;
+    }
+
+    @Override
+    public Object getAttribute(final String name) {
+        checkValid();
+        return session.getAttribute(name);
+    }
+
+    @Override
+    @Deprecated
+    public Object getValue(final String name) {
+        return getAttribute(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        checkValid();
+        return Collections.enumeration(session.getAttributeNames());
+    }
+
+    @Override
+    @Deprecated
+    public String[] getValueNames() {
+        checkValid();
+        return session.getAttributeNames().toArray(String[]::new);
+    }
+
+    @Override
+    public void setAttribute(final String name, final Object value) {
+        checkValid();
+        session.setAttribute(name, value);
+    }
+
+    @Override
+    @Deprecated
+    public void putValue(final String name, final Object value) {
+        setAttribute(name, value);
+    }
+
+    @Override
+    public void removeAttribute(final String name) {
+        checkValid();
+        session.removeAttribute(name);
+    }
+
+    @Override
+    @Deprecated
+    public void removeValue(final String name) {
+        removeAttribute(name);
+    }
+
+    @Override
+    public void invalidate() {
+        checkValid();
+        invalidated = true;
+        sessionManager.remove(session);
+    }
+
+    @Override
+    public boolean isNew() {
+        checkValid();
+        return created;
+    }
+
+    private void checkValid() {
+        if (invalidated) {
+            throw new IllegalStateException("session invalidated: " + session.getId());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.apache.catalina.core;
+
+import jakarta.servlet.Servlet;
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletContext;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A servlet with its name, init parameters and URL patterns.
+ */
+class StandardWrapper implements ServletConfig {
+
+    private final String name;
+    private final Servlet servlet;
+    private final Map<String, String> initParameters;
+    private final List<UrlPattern> patterns;
+    private final int loadOnStartup;
+
+    StandardWrapper(final String name, final Servlet servlet, final Map<String, String> initParameters,
+                    final List<UrlPattern> patterns, final int loadOnStartup) {
+        this.name = name;
+        this.servlet = servlet;
+        this.initParameters = Map.copyOf(initParameters);
+        this.patterns = List.copyOf(patterns);
+        this.loadOnStartup = loadOnStartup;
+    }
+
+    Servlet getServlet() {
+        return servlet;
+    }
+
+    List<UrlPattern> getPatterns() {
+        return patterns;
+    }
+
+    /**
+     * @return the order servlets are initialized in at startup, lowest first and negative values last
+     */
+    int getLoadOnStartup() {
+        return loadOnStartup < 0 ? Integer.MAX_VALUE : loadOnStartup;
+    }
+
+    @Override
+    public String getServletName() {
+        return name;
+    }
+
+    /**
+     * @return {@code null}, there is no servlet context
+     */
+    @Override
+    public ServletContext getServletContext() {
+        return null;
+    }
+
+    @Override
+    public String getInitParameter(final String name) {
+        return initParameters.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getInitParameterNames() {
+        return Collections.enumeration(initParameters.keySet());
+    }
+}
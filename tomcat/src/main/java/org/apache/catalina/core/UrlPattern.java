@@ -0,0 +1,104 @@
+package org.apache.catalina.core;
+
+import javax.annotation.Nullable;
+
+/**
+ * A URL pattern of the servlet specification: {@code /exact}, a prefix {@code /path/*}, an extension {@code *.ext},
+ * {@code /} for the default servlet or the empty string for the context root.
+ */
+class UrlPattern {
+
+    enum Type {
+        EXACT, PREFIX, EXTENSION, DEFAULT, CONTEXT_ROOT
+    }
+
+    private static final String PREFIX_SUFFIX = "/*";
+    private static final String EXTENSION_PREFIX = "*.";
+
+    private final String pattern;
+    private final Type type;
+    /**
+     * The path of an exact pattern, the prefix without {@code /*}, or the extension with its dot.
+     */
+    private final String value;
+
+    private UrlPattern(final String pattern, final Type type, final String value) {
+        this.pattern = pattern;
+        this.type = type;
+        this.value = value;
+    }
+
+    static UrlPattern parse(final String pattern) {
+        if (pattern.isEmpty()) {
+            return new UrlPattern(pattern, Type.CONTEXT_ROOT, "");
+        }
+        if (pattern.equals("/")) {
+            return new UrlPattern(pattern, Type.DEFAULT, "");
+        }
+        if (pattern.startsWith(EXTENSION_PREFIX) && pattern.indexOf('/') < 0) {
+            return new UrlPattern(pattern, Type.EXTENSION, pattern.substring(1));
+        }
+        if (!pattern.startsWith("/") || pattern.indexOf('*') != pattern.lastIndexOf('*')) {
+            throw new IllegalArgumentException("invalid url pattern: " + pattern);
+        }
+        if (pattern.endsWith(PREFIX_SUFFIX)) {
+            final var prefix = pattern.substring(0, pattern.length() - PREFIX_SUFFIX.length());
+            return new UrlPattern(pattern, Type.PREFIX, prefix);
+        }
+        if (pattern.indexOf('*') >= 0) {
+            throw new IllegalArgumentException("invalid url pattern: " + pattern);
+        }
+        return new UrlPattern(pattern, Type.EXACT, pattern);
+    }
+
+    boolean matches(final String uri) {
+        switch (type) {
+            case EXACT:
+                return uri.equals(value);
+            case PREFIX:
+                return uri.startsWith(value) && (uri.length() == value.length() || uri.charAt(value.length()) == '/');
+            case EXTENSION:
+                return uri.endsWith(value) && uri.lastIndexOf('/') < uri.length() - value.length();
+            case CONTEXT_ROOT:
+                return uri.equals("/");
+            default:
+                return true;
+        }
+    }
+
+    String getServletPath(final String uri) {
+        switch (type) {
+            case PREFIX:
+                return value;
+            case CONTEXT_ROOT:
+                return "";
+            default:
+                return uri;
+        }
+    }
+
+    @Nullable
+    String getPathInfo(final String uri) {
+        switch (type) {
+            case PREFIX:
+                return uri.length() == value.length() ? null : uri.substring(value.length());
+            case CONTEXT_ROOT:
+                return "/";
+            default:
+                return null;
+        }
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    String getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
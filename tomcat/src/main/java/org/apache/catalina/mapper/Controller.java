@@ -0,0 +1,14 @@
+package org.apache.catalina.mapper;
+
+import java.io.IOException;
+import org.apache.coyote.http11.HttpRequest;
+import org.apache.coyote.http11.HttpResponse;
+
+/**
+ * Answers the requests of the routes it is registered for in a {@link RequestMapping}.
+ */
+@FunctionalInterface
+public interface Controller {
+
+    HttpResponse service(HttpRequest request) throws IOException;
+}
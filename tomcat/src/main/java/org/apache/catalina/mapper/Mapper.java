@@ -0,0 +1,171 @@
+package org.apache.catalina.mapper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import org.apache.coyote.http11.HttpResponse;
+import org.apache.coyote.http11.HttpStatus;
+
+/**
+ * The routes of a {@link RequestMapping} as a trie of path segments. Matching walks the path once, looking each
+ * segment up in a hash map, so its cost depends on the length of the path and not on how many routes there are;
+ * only when a literal branch dead-ends does it back up and try the variable and {@code **} branches. Routes without
+ * path variables are built at compile time, so matching them allocates nothing but the segment keys.
+ *
+ * <p>A path some route matches but not with the request's method gets a 405 with {@code Allow}; a path no route
+ * matches goes to the not-found controller. Immutable once compiled and shared by all connections.
+ */
+public class Mapper {
+
+    private static final String[] NO_VALUES = new String[0];
+
+    private final Node root = new Node(-1);
+    private final int maxVariables;
+    private final Route notFound;
+
+    Mapper(final List<RequestMapping.Registration> registrations, final Controller notFound) {
+        var maxVariables = 0;
+        for (RequestMapping.Registration registration : registrations) {
+            maxVariables = Math.max(maxVariables, insert(registration));
+        }
+        this.maxVariables = maxVariables;
+        this.notFound = new Route(notFound, Map.of());
+    }
+
+    /**
+     * @return the number of path variables of the route
+     */
+    private int insert(final RequestMapping.Registration registration) {
+        var node = root;
+        final List<String> names = new ArrayList<>();
+        for (String segment : registration.segments) {
+            if (segment.equals(RequestMapping.CATCH_ALL)) {
+                if (node.catchAll == null) {
+                    node.catchAll = new Node(names.size());
+                }
+                node = node.catchAll;
+                names.add(RequestMapping.CATCH_ALL);
+            } else if (RequestMapping.isVariable(segment)) {
+                if (node.variable == null) {
+                    node.variable = new Node(names.size());
+                }
+                node = node.variable;
+                names.add(segment.substring(1, segment.length() - 1));
+            } else {
+                node = node.children.computeIfAbsent(segment, key -> new Node(-1));
+            }
+        }
+        node.addEndpoint(registration.method, new Endpoint(registration.controller, names.toArray(String[]::new)));
+        return names.size();
+    }
+
+    /**
+     * @param path the decoded path of the request, without the query string
+     */
+    public Route map(final String method, final String path) {
+        if (path.isEmpty() || path.charAt(0) != '/') {
+            return notFound;
+        }
+        final var values = maxVariables == 0 ? NO_VALUES : new String[maxVariables];
+        final var node = root.find(path, 0, values);
+        if (node == null) {
+            return notFound;
+        }
+        return node.route(method, values);
+    }
+
+    private static class Node {
+
+        /**
+         * Where a variable or {@code **} node stores the part of the path it matched, -1 for a literal segment.
+         */
+        private final int index;
+        private final Map<String, Node> children = new HashMap<>();
+        private final Map<String, Endpoint> endpoints = new HashMap<>();
+        private Node variable;
+        private Node catchAll;
+        private Route methodNotAllowed;
+
+        private Node(final int index) {
+            this.index = index;
+        }
+
+        private void addEndpoint(final String method, final Endpoint endpoint) {
+            endpoints.put(method, endpoint);
+            final var allow = String.join(", ", new TreeSet<>(endpoints.keySet()));
+            methodNotAllowed = new Route(request -> new HttpResponse(HttpStatus.METHOD_NOT_ALLOWED,
+                    "Content-Type: text/plain;charset=utf-8 ", "Method Not Allowed", Map.of("Allow", allow)),
+                    Map.of());
+        }
+
+        /**
+         * @param from index of the slash before the next segment, or the length of the path once it is consumed
+         */
+        private Node find(final String path, final int from, final String[] values) {
+            if (from == path.length()) {
+                return endpoints.isEmpty() ? null : this;
+            }
+            final var start = from + 1;
+            var end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            if (!children.isEmpty()) {
+                final var child = children.get(path.substring(start, end));
+                final var found = child == null ? null : child.find(path, end, values);
+                if (found != null) {
+                    return found;
+                }
+            }
+            if (variable != null && end > start) {
+                final var found = variable.find(path, end, values);
+                if (found != null) {
+                    values[variable.index] = path.substring(start, end);
+                    return found;
+                }
+            }
+            if (catchAll != null && start < path.length()) {
+                values[catchAll.index] = path.substring(from);
+                return catchAll;
+            }
+            return null;
+        }
+
+        private Route route(final String method, final String[] values) {
+            var endpoint = endpoints.get(method);
+            if (endpoint == null) {
+                endpoint = endpoints.get(RequestMapping.ANY_METHOD);
+            }
+            if (endpoint == null) {
+                return methodNotAllowed;
+            }
+            return endpoint.toRoute(values);
+        }
+    }
+
+    private static class Endpoint {
+
+        private final Controller controller;
+        private final String[] names;
+        private final Route route;
+
+        private Endpoint(final Controller controller, final String[] names) {
+            this.controller = controller;
+            this.names = names;
+            this.route = new Route(controller, Map.of());
+        }
+
+        private Route toRoute(final String[] values) {
+            if (names.length == 0) {
+                return route;
+            }
+            final Map<String, String> pathVariables = new HashMap<>(names.length * 2);
+            for (int i = 0; i < names.length; i++) {
+                pathVariables.put(names[i], values[i]);
+            }
+            return new Route(controller, pathVariables);
+        }
+    }
+}
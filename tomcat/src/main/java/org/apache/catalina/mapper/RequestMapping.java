@@ -0,0 +1,109 @@
+package org.apache.catalina.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.coyote.http11.HttpResponse;
+import org.apache.coyote.http11.HttpStatus;
+
+/**
+ * The routes of an application, registered at startup and compiled into a {@link Mapper} once they are all known.
+ *
+ * <p>A pattern starts with {@code /} and is matched segment by segment: a plain segment matches itself,
+ * {@code {name}} matches any one non-empty segment and binds it to the path variable {@code name}, and {@code **} as
+ * the last segment matches the rest of the path, which is bound to the path variable {@code **} with its leading
+ * slash. A literal segment wins over a variable, and a variable over {@code **}.
+ */
+public class RequestMapping {
+
+    public static final String CATCH_ALL = "**";
+
+    /**
+     * The method of a route that takes requests of every method without one of its own.
+     */
+    public static final String ANY_METHOD = "*";
+
+    private final List<Registration> registrations = new ArrayList<>();
+    private Controller notFound = request ->
+            new HttpResponse(HttpStatus.NOT_FOUND, "Content-Type: text/plain;charset=utf-8 ", "Not Found");
+
+    public RequestMapping get(final String pattern, final Controller controller) {
+        return add("GET", pattern, controller);
+    }
+
+    public RequestMapping post(final String pattern, final Controller controller) {
+        return add("POST", pattern, controller);
+    }
+
+    /**
+     * Route requests of every method to the controller, e.g. a servlet that dispatches on the method itself.
+     */
+    public RequestMapping any(final String pattern, final Controller controller) {
+        return add(ANY_METHOD, pattern, controller);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the pattern is malformed or already has a controller for the method
+     */
+    public RequestMapping add(final String method, final String pattern, final Controller controller) {
+        final var segments = split(pattern);
+        for (Registration registration : registrations) {
+            if (registration.method.equals(method) && registration.pattern.equals(pattern)) {
+                throw new IllegalArgumentException("duplicate route: " + method + " " + pattern);
+            }
+        }
+        registrations.add(new Registration(method, pattern, segments, controller));
+        return this;
+    }
+
+    /**
+     * Answers requests that match no route, a plain 404 unless set.
+     */
+    public RequestMapping setNotFound(final Controller notFound) {
+        this.notFound = notFound;
+        return this;
+    }
+
+    /**
+     * Build the trie of the routes registered so far; later registrations do not change it.
+     */
+    public Mapper compile() {
+        return new Mapper(registrations, notFound);
+    }
+
+    private static String[] split(final String pattern) {
+        if (!pattern.startsWith("/")) {
+            throw new IllegalArgumentException("pattern must start with /: " + pattern);
+        }
+        final var segments = pattern.substring(1).split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            final var segment = segments[i];
+            if (segment.equals(CATCH_ALL) && i != segments.length - 1) {
+                throw new IllegalArgumentException(CATCH_ALL + " must be the last segment: " + pattern);
+            }
+            if (isVariable(segment) && segment.length() == 2) {
+                throw new IllegalArgumentException("path variable without a name: " + pattern);
+            }
+        }
+        return segments;
+    }
+
+    static boolean isVariable(final String segment) {
+        return segment.startsWith("{") && segment.endsWith("}");
+    }
+
+    static class Registration {
+
+        final String method;
+        final String pattern;
+        final String[] segments;
+        final Controller controller;
+
+        private Registration(final String method, final String pattern, final String[] segments,
+                             final Controller controller) {
+            this.method = method;
+            this.pattern = pattern;
+            this.segments = segments;
+            this.controller = controller;
+        }
+    }
+}
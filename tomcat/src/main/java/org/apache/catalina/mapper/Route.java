@@ -0,0 +1,25 @@
+package org.apache.catalina.mapper;
+
+import java.util.Map;
+
+/**
+ * What a {@link Mapper} found for a request: the controller to call and the path variables it bound.
+ */
+public class Route {
+
+    private final Controller controller;
+    private final Map<String, String> pathVariables;
+
+    Route(final Controller controller, final Map<String, String> pathVariables) {
+        this.controller = controller;
+        this.pathVariables = pathVariables;
+    }
+
+    public Controller getController() {
+        return controller;
+    }
+
+    public Map<String, String> getPathVariables() {
+        return pathVariables;
+    }
+}
@@ -0,0 +1,29 @@
+package org.apache.catalina.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that only goes up. Increments from many threads go to separate cells, so a hot counter is never a point
+ * of contention; reading adds the cells up.
+ */
+public class Counter implements Metric {
+
+    private final LongAdder count = new LongAdder();
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(final long amount) {
+        count.add(amount);
+    }
+
+    public long get() {
+        return count.sum();
+    }
+
+    @Override
+    public void write(final StringBuilder output, final String name, final String labels) {
+        MetricRegistry.writeSample(output, name, labels, get());
+    }
+}
@@ -0,0 +1,79 @@
+package org.apache.catalina.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Durations counted into fixed buckets and exported in seconds. Every bucket is a {@link LongAdder}, so recording
+ * takes no lock; a scrape reads the buckets one after another and may see a duration in a bucket but not yet in the
+ * sum, which Prometheus tolerates.
+ */
+public class Histogram implements Metric {
+
+    /**
+     * Upper bounds in seconds, from half a millisecond for a cached file to ten seconds for a stuck request.
+     */
+    public static final double[] DEFAULT_BUCKETS = {
+            0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double[] buckets;
+    private final long[] upperBoundNanos;
+    private final LongAdder[] counts;
+    private final LongAdder sumNanos = new LongAdder();
+
+    public Histogram() {
+        this(DEFAULT_BUCKETS);
+    }
+
+    /**
+     * @param buckets upper bounds in seconds, in increasing order; the {@code +Inf} bucket is added
+     */
+    public Histogram(final double[] buckets) {
+        this.buckets = buckets.clone();
+        this.upperBoundNanos = new long[buckets.length];
+        this.counts = new LongAdder[buckets.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            if (i > 0 && buckets[i] <= buckets[i - 1]) {
+                throw new IllegalArgumentException("buckets must increase: " + buckets[i]);
+            }
+            upperBoundNanos[i] = (long) (buckets[i] * NANOS_PER_SECOND);
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void observe(final long nanos) {
+        var bucket = 0;
+        while (bucket < upperBoundNanos.length && nanos > upperBoundNanos[bucket]) {
+            bucket++;
+        }
+        counts[bucket].increment();
+        sumNanos.add(nanos);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : counts) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public void write(final StringBuilder output, final String name, final String labels) {
+        final var separator = labels.isEmpty() ? "" : ",";
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i].sum();
+            final var upperBound = i < buckets.length ? MetricRegistry.format(buckets[i]) : "+Inf";
+            MetricRegistry.writeSample(output, name + "_bucket", labels + separator + "le=\"" + upperBound + "\"",
+                    cumulative);
+        }
+        MetricRegistry.writeSample(output, name + "_sum", labels, sumNanos.sum() / NANOS_PER_SECOND);
+        MetricRegistry.writeSample(output, name + "_count", labels, cumulative);
+    }
+}
@@ -0,0 +1,14 @@
+package org.apache.catalina.metrics;
+
+/**
+ * One time series of a {@link MetricRegistry}: a metric name with one set of label values.
+ */
+interface Metric {
+
+    /**
+     * Append the samples of this series in the Prometheus text format.
+     *
+     * @param labels the rendered label set, such as {@code status="200"}, or empty
+     */
+    void write(StringBuilder output, String name, String labels);
+}
@@ -0,0 +1,151 @@
+package org.apache.catalina.metrics;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * The metrics of one server, exported in the Prometheus text exposition format. Components look their counters and
+ * histograms up once and keep them, so recording never touches the registry; values another component already
+ * counts, like the size of a pool, are registered as functions read at scrape time.
+ *
+ * <p>Labels are given as name and value pairs: {@code counter("http_responses_total", "...", "status", "200")}.
+ */
+public class MetricRegistry {
+
+    public static final String CONTENT_TYPE = "Content-Type: text/plain;version=0.0.4;charset=utf-8 ";
+
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+
+    /**
+     * @return the counter with these labels, created the first time it is asked for
+     */
+    public Counter counter(final String name, final String help, final String... labels) {
+        return (Counter) family(name, help, Type.COUNTER).children
+                .computeIfAbsent(toLabels(labels), ignored -> new Counter());
+    }
+
+    /**
+     * Export a count kept elsewhere. Registering the same name and labels again replaces the function.
+     */
+    public void counter(final String name, final String help, final DoubleSupplier count, final String... labels) {
+        family(name, help, Type.COUNTER).children.put(toLabels(labels), new FunctionMetric(count));
+    }
+
+    /**
+     * Export a value that goes up and down, read when scraped. Registering the same name and labels again replaces
+     * the function.
+     */
+    public void gauge(final String name, final String help, final DoubleSupplier value, final String... labels) {
+        family(name, help, Type.GAUGE).children.put(toLabels(labels), new FunctionMetric(value));
+    }
+
+    /**
+     * @return the histogram with these labels and {@link Histogram#DEFAULT_BUCKETS}, created the first time it is
+     * asked for
+     */
+    public Histogram histogram(final String name, final String help, final String... labels) {
+        return (Histogram) family(name, help, Type.HISTOGRAM).children
+                .computeIfAbsent(toLabels(labels), ignored -> new Histogram());
+    }
+
+    private Family family(final String name, final String help, final Type type) {
+        final var family = families.computeIfAbsent(name, ignored -> new Family(help, type));
+        if (family.type != type) {
+            throw new IllegalArgumentException(name + " is already registered as a " + family.type.name);
+        }
+        return family;
+    }
+
+    private static String toLabels(final String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("labels are name and value pairs");
+        }
+        final var rendered = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                rendered.append(',');
+            }
+            rendered.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+        }
+        return rendered.toString();
+    }
+
+    private static String escape(final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * @return every metric in the text exposition format, families sorted by name
+     */
+    public String scrape() {
+        final var output = new StringBuilder(4096);
+        new TreeMap<>(families).forEach((name, family) -> {
+            output.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+            output.append("# TYPE ").append(name).append(' ').append(family.type.name).append('\n');
+            new TreeMap<>(family.children).forEach((labels, metric) -> metric.write(output, name, labels));
+        });
+        return output.toString();
+    }
+
+    static void writeSample(final StringBuilder output, final String name, final String labels, final double value) {
+        output.append(name);
+        if (!labels.isEmpty()) {
+            output.append('{').append(labels).append('}');
+        }
+        output.append(' ').append(format(value)).append('\n');
+    }
+
+    static String format(final double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    private enum Type {
+        COUNTER("counter"),
+        GAUGE("gauge"),
+        HISTOGRAM("histogram");
+
+        private final String name;
+
+        Type(final String name) {
+            this.name = name;
+        }
+    }
+
+    private static class Family {
+
+        private final String help;
+        private final Type type;
+        private final Map<String, Metric> children = new ConcurrentHashMap<>();
+
+        private Family(final String help, final Type type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    private static class FunctionMetric implements Metric {
+
+        private final DoubleSupplier value;
+
+        private FunctionMetric(final DoubleSupplier value) {
+            this.value = value;
+        }
+
+        @Override
+        public void write(final StringBuilder output, final String name, final String labels) {
+            writeSample(output, name, labels, value.getAsDouble());
+        }
+    }
+}
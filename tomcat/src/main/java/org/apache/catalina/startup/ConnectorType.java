@@ -0,0 +1,14 @@
+package org.apache.catalina.startup;
+
+public enum ConnectorType {
+
+    /**
+     * Blocking I/O, a worker thread per connection for as long as the connection stays open.
+     */
+    BIO,
+
+    /**
+     * Selector based I/O, a worker thread only while a request is being processed.
+     */
+    NIO
+}
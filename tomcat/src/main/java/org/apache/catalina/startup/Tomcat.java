@@ -1,17 +1,56 @@
 package org.apache.catalina.startup;
 
+import nextstep.jwp.db.InMemoryUserRepository;
+import org.apache.catalina.AccessLog;
+import org.apache.catalina.Lifecycle;
+import org.apache.catalina.PersistentSessionManager;
+import org.apache.catalina.connector.AbstractConnector;
 import org.apache.catalina.connector.Connector;
+import org.apache.catalina.connector.ExecutorType;
+import org.apache.catalina.connector.NioConnector;
+import org.apache.catalina.core.ServletContainer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.Path;
 
 public class Tomcat {
 
     private static final Logger log = LoggerFactory.getLogger(Tomcat.class);
 
+    private static final int PORT = 8080;
+    private static final int ACCEPT_COUNT = 100;
+    private static final int MAX_THREADS = 200;
+    private static final int MAX_CONNECTIONS = 8192;
+    private static final int KEEP_ALIVE_TIMEOUT = 20_000;
+    private static final int MAX_KEEP_ALIVE_REQUESTS = 100;
+    private static final Path SESSION_DIRECTORY = Path.of("work", "sessions");
+    private static final Path ACCESS_LOG = Path.of("logs", "access.log");
+    private static final String SERVLET_PACKAGE = "nextstep.jwp";
+
+    private final ConnectorType connectorType;
+    private final ExecutorType executorType;
+
+    public Tomcat() {
+        this(ConnectorType.BIO);
+    }
+
+    public Tomcat(final ConnectorType connectorType) {
+        this(connectorType, ExecutorType.PLATFORM);
+    }
+
+    /**
+     * @param executorType threads running the blocking {@link ConnectorType#BIO} connector. The NIO connector only
+     *                     blocks a worker while a request is processed and always uses a platform pool.
+     */
+    public Tomcat(final ConnectorType connectorType, final ExecutorType executorType) {
+        this.connectorType = connectorType;
+        this.executorType = executorType;
+    }
+
     public void start() {
-        var connector = new Connector();
+        var connector = createConnector();
         connector.start();
 
         try {
@@ -24,4 +63,22 @@ public class Tomcat {
             connector.stop();
         }
     }
+
+    private Lifecycle createConnector() {
+        // sessions are kept across restarts so a deploy does not log everyone out
+        final var sessionManager = new PersistentSessionManager(SESSION_DIRECTORY,
+                InMemoryUserRepository::findByAccount);
+        final AbstractConnector connector;
+        if (connectorType == ConnectorType.NIO) {
+            connector = new NioConnector(PORT, ACCEPT_COUNT, MAX_THREADS, MAX_CONNECTIONS, KEEP_ALIVE_TIMEOUT,
+                    MAX_KEEP_ALIVE_REQUESTS);
+        } else {
+            connector = new Connector(PORT, ACCEPT_COUNT, MAX_THREADS, MAX_CONNECTIONS, KEEP_ALIVE_TIMEOUT,
+                    MAX_KEEP_ALIVE_REQUESTS, executorType);
+        }
+        connector.setSessionManager(sessionManager);
+        connector.setAccessLog(new AccessLog(ACCESS_LOG));
+        connector.setServletContainer(ServletContainer.scan(SERVLET_PACKAGE));
+        return connector;
+    }
 }
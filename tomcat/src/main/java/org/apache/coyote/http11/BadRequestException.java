@@ -0,0 +1,12 @@
+package org.apache.coyote.http11;
+
+/**
+ * The request line, headers or body framing are malformed or too large. Answered with {@code 400 Bad Request} and the
+ * connection is closed, since what follows in it cannot be trusted to start a request.
+ */
+public class BadRequestException extends IllegalArgumentException {
+
+    public BadRequestException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package org.apache.coyote.http11;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Produces a response body while it is being sent. See {@link StreamingResponseBody}.
+ */
+@FunctionalInterface
+public interface BodyWriter {
+
+    /**
+     * @param outputStream buffered, bounded output of the response; {@link OutputStream#flush()} sends what was
+     *                     written so far to the client
+     */
+    void writeTo(OutputStream outputStream) throws IOException;
+}
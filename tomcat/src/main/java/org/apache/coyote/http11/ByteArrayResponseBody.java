@@ -0,0 +1,30 @@
+package org.apache.coyote.http11;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A body that is already in memory.
+ */
+public class ByteArrayResponseBody implements ResponseBody {
+
+    private final byte[] bytes;
+
+    public ByteArrayResponseBody(final byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public long getContentLength() {
+        return bytes.length;
+    }
+
+    @Override
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        outputStream.write(bytes);
+    }
+}
@@ -0,0 +1,54 @@
+package org.apache.coyote.http11;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import javax.annotation.Nullable;
+
+/**
+ * A body already in a buffer, on the heap or direct, like a file mapped into memory. The bytes between the
+ * position and the limit are sent without moving either, so one buffer can be the body of many responses.
+ */
+public class ByteBufferResponseBody implements ResponseBody {
+
+    private final ByteBuffer buffer;
+
+    public ByteBufferResponseBody(final ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public long getContentLength() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        if (buffer.hasArray()) {
+            outputStream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            return;
+        }
+        writeTo(Channels.newChannel(outputStream));
+    }
+
+    @Override
+    public void writeTo(final OutputStream outputStream, @Nullable final WritableByteChannel channel)
+            throws IOException {
+        if (channel == null || buffer.hasArray()) {
+            writeTo(outputStream);
+            return;
+        }
+        // a direct buffer goes to the socket as it is, after the head waiting in the output
+        outputStream.flush();
+        writeTo(channel);
+    }
+
+    private void writeTo(final WritableByteChannel channel) throws IOException {
+        final var bytes = buffer.duplicate();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.apache.coyote.http11;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * One range of a {@code Range: bytes=...} header, resolved against the length of the representation: both ends are
+ * inclusive offsets into it.
+ */
+public class ByteRange {
+
+    /**
+     * More ranges than this are not worth answering one by one; the whole representation is sent instead.
+     */
+    public static final int MAX_RANGES = 16;
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    private final long first;
+    private final long last;
+
+    public ByteRange(final long first, final long last) {
+        this.first = first;
+        this.last = last;
+    }
+
+    /**
+     * @param length length of the representation the ranges are taken from
+     * @return the satisfiable ranges in the order they were asked for, empty if none is satisfiable, or {@code null}
+     * if the header is invalid, uses another unit or asks for too many ranges, in which case it is ignored
+     */
+    @Nullable
+    public static List<ByteRange> parse(final String range, final long length) {
+        if (!range.regionMatches(true, 0, BYTES_UNIT, 0, BYTES_UNIT.length())) {
+            return null;
+        }
+        final var specs = range.substring(BYTES_UNIT.length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+        final List<ByteRange> ranges = new ArrayList<>(specs.length);
+        for (String spec : specs) {
+            final var trimmed = spec.trim();
+            final var dash = trimmed.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            try {
+                final var byteRange = resolve(trimmed.substring(0, dash), trimmed.substring(dash + 1), length);
+                if (byteRange != null) {
+                    ranges.add(byteRange);
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * @return the range, {@code null} if it is not satisfiable
+     */
+    @Nullable
+    private static ByteRange resolve(final String firstPosition, final String lastPosition, final long length) {
+        if (firstPosition.isEmpty()) {
+            // suffix range: the last n bytes
+            final var suffixLength = parsePosition(lastPosition);
+            if (suffixLength == 0 || length == 0) {
+                return null;
+            }
+            return new ByteRange(Math.max(0, length - suffixLength), length - 1);
+        }
+        final var first = parsePosition(firstPosition);
+        final var last = lastPosition.isEmpty() ? Long.MAX_VALUE : parsePosition(lastPosition);
+        if (last < first) {
+            throw new NumberFormatException("range ends before it starts: " + firstPosition + "-" + lastPosition);
+        }
+        if (first >= length) {
+            return null;
+        }
+        return new ByteRange(first, Math.min(last, length - 1));
+    }
+
+    private static long parsePosition(final String position) {
+        final var value = Long.parseLong(position);
+        if (value < 0 || position.charAt(0) == '+') {
+            throw new NumberFormatException("not a byte position: " + position);
+        }
+        return value;
+    }
+
+    public long getFirst() {
+        return first;
+    }
+
+    public long getLast() {
+        return last;
+    }
+
+    public long getLength() {
+        return last - first + 1;
+    }
+
+    /**
+     * @return the {@code Content-Range} value of this range of a representation of {@code length} bytes
+     */
+    public String toContentRange(final long length) {
+        return "bytes " + first + "-" + last + "/" + length;
+    }
+}
@@ -0,0 +1,106 @@
+package org.apache.coyote.http11;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Decides the {@code Cache-Control} of a response from its path and then its MIME type, the first matching rule
+ * winning. Path patterns are written like servlet mappings: {@code /login} matches exactly, {@code /assets/**}
+ * everything below {@code /assets/} and {@code *.css} every path with that extension. A type is either exact, like
+ * {@code text/html}, or a wildcard like {@code image/*}.
+ */
+public class CachePolicy {
+
+    public static final String IMMUTABLE = "max-age=31536000, immutable";
+    public static final String NO_CACHE = "no-cache";
+    public static final String NO_STORE = "no-store";
+
+    private static final String ALL_BELOW = "/**";
+    private static final String ANY_NAME = "*.";
+    private static final String ANY_SUBTYPE = "/*";
+
+    private final List<PathRule> pathRules = new ArrayList<>();
+    private final Map<String, String> typeRules = new HashMap<>();
+    private String defaultCacheControl;
+
+    /**
+     * What the server uses unless told otherwise: login and registration are never stored, pages, scripts and
+     * styles are revalidated with their ETag and images are kept for a day. Versioned URLs are always immutable.
+     */
+    public static CachePolicy defaultPolicy() {
+        final var policy = new CachePolicy();
+        policy.addPath("/login", NO_STORE);
+        policy.addPath("/register", NO_STORE);
+        policy.addType("text/html", NO_CACHE);
+        policy.addType("text/css", NO_CACHE);
+        policy.addType("application/javascript", NO_CACHE);
+        policy.addType("text/javascript", NO_CACHE);
+        policy.addType("image/*", "max-age=86400");
+        return policy;
+    }
+
+    public void addPath(final String pattern, final String cacheControl) {
+        pathRules.add(new PathRule(pattern, cacheControl));
+    }
+
+    public void addType(final String mimeType, final String cacheControl) {
+        typeRules.put(mimeType, cacheControl);
+    }
+
+    /**
+     * @param cacheControl used when no rule matches, {@code null} to send no {@code Cache-Control} then
+     */
+    public void setDefault(@Nullable final String cacheControl) {
+        this.defaultCacheControl = cacheControl;
+    }
+
+    /**
+     * @return the {@code Cache-Control} value or {@code null} to send none
+     */
+    @Nullable
+    public String getCacheControl(final String path, @Nullable final String mimeType) {
+        for (PathRule rule : pathRules) {
+            if (rule.matches(path)) {
+                return rule.cacheControl;
+            }
+        }
+        if (mimeType != null) {
+            final var cacheControl = typeRules.get(mimeType);
+            if (cacheControl != null) {
+                return cacheControl;
+            }
+            final var slash = mimeType.indexOf('/');
+            if (slash > 0) {
+                final var wildcard = typeRules.get(mimeType.substring(0, slash) + ANY_SUBTYPE);
+                if (wildcard != null) {
+                    return wildcard;
+                }
+            }
+        }
+        return defaultCacheControl;
+    }
+
+    private static class PathRule {
+
+        private final String pattern;
+        private final String cacheControl;
+
+        private PathRule(final String pattern, final String cacheControl) {
+            this.pattern = pattern;
+            this.cacheControl = cacheControl;
+        }
+
+        private boolean matches(final String path) {
+            if (pattern.endsWith(ALL_BELOW)) {
+                return path.startsWith(pattern.substring(0, pattern.length() - ALL_BELOW.length() + 1));
+            }
+            if (pattern.startsWith(ANY_NAME)) {
+                return path.endsWith(pattern.substring(1));
+            }
+            return path.equals(pattern);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.apache.coyote.http11;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Body sent with {@code Transfer-Encoding: chunked}. Chunk sizes and trailers are consumed as the body is read;
+ * a body growing past {@code maxBodySize} fails with {@link PayloadTooLargeException}.
+ */
+public class ChunkedInputStream extends InputStream {
+
+    private static final int MAX_LINE_LENGTH = 4096;
+
+    private final InputStream source;
+    private final long maxBodySize;
+    private long chunkRemaining;
+    private long total;
+    private boolean lastChunk;
+
+    public ChunkedInputStream(final InputStream source, final long maxBodySize) {
+        this.source = source;
+        this.maxBodySize = maxBodySize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextChunk()) {
+            return -1;
+        }
+        final var b = source.read();
+        if (b < 0) {
+            throw new EOFException("connection closed in the middle of a chunk");
+        }
+        chunkRemaining--;
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+        final var read = source.read(b, off, (int) Math.min(len, chunkRemaining));
+        if (read < 0) {
+            throw new EOFException("connection closed in the middle of a chunk");
+        }
+        chunkRemaining -= read;
+        return read;
+    }
+
+    /**
+     * @return {@code false} once the last chunk and the trailers have been consumed
+     */
+    private boolean nextChunk() throws IOException {
+        if (chunkRemaining > 0) {
+            return true;
+        }
+        if (lastChunk) {
+            return false;
+        }
+        if (total > 0) {
+            expectEmptyLine(readLine());
+        }
+        chunkRemaining = parseChunkSize(readLine());
+        // compared before adding, a size near Long.MAX_VALUE would wrap the sum around
+        if (chunkRemaining > maxBodySize - total) {
+            throw new PayloadTooLargeException(maxBodySize);
+        }
+        total += chunkRemaining;
+        if (chunkRemaining == 0) {
+            lastChunk = true;
+            skipTrailers();
+            return false;
+        }
+        return true;
+    }
+
+    private long parseChunkSize(final String line) {
+        final var extension = line.indexOf(';');
+        final var size = (extension < 0 ? line : line.substring(0, extension)).trim();
+        try {
+            final var chunkSize = Long.parseLong(size, 16);
+            if (chunkSize < 0) {
+                throw new BadRequestException("invalid chunk size: " + line);
+            }
+            return chunkSize;
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("invalid chunk size: " + line);
+        }
+    }
+
+    private void expectEmptyLine(final String line) {
+        if (!line.isEmpty()) {
+            throw new BadRequestException("chunk data longer than its size");
+        }
+    }
+
+    private void skipTrailers() throws IOException {
+        while (!readLine().isEmpty()) {
+            // trailer fields are not used
+        }
+    }
+
+    private String readLine() throws IOException {
+        final var line = new StringBuilder();
+        while (true) {
+            final var b = source.read();
+            if (b < 0) {
+                throw new EOFException("connection closed in the middle of a chunked body");
+            }
+            if (b == '\n') {
+                final var length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+                return line.toString();
+            }
+            if (line.length() == MAX_LINE_LENGTH) {
+                throw new BadRequestException("chunk line exceeds " + MAX_LINE_LENGTH + " bytes");
+            }
+            line.append((char) b);
+        }
+    }
+}
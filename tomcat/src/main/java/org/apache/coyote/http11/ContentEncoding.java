@@ -0,0 +1,128 @@
+package org.apache.coyote.http11;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nullable;
+
+/**
+ * The codings a response body can be sent with, chosen from the request's {@code Accept-Encoding}.
+ */
+public enum ContentEncoding {
+
+    GZIP("gzip"),
+    DEFLATE("deflate"),
+    IDENTITY("identity");
+
+    /**
+     * Smaller bodies are sent as they are: the coding's own overhead eats most of what it would save.
+     */
+    public static final int MIN_SIZE = 512;
+
+    private static final Set<String> COMPRESSIBLE_APPLICATION_TYPES = Set.of(
+            "application/javascript", "application/json", "application/xml", "application/xhtml+xml",
+            "image/svg+xml");
+
+    private final String name;
+
+    ContentEncoding(final String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the accepted coding with the highest q-value, gzip on a tie, or {@link #IDENTITY} if the client
+     * accepts neither gzip nor deflate
+     */
+    public static ContentEncoding negotiate(@Nullable final String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return IDENTITY;
+        }
+        var gzip = -1.0;
+        var deflate = -1.0;
+        var any = -1.0;
+        for (String coding : acceptEncoding.split(",")) {
+            final var parameters = coding.split(";");
+            final var name = parameters[0].trim().toLowerCase(Locale.ROOT);
+            final var quality = parseQuality(parameters);
+            if (name.equals(GZIP.name) || name.equals("x-gzip")) {
+                gzip = quality;
+            } else if (name.equals(DEFLATE.name)) {
+                deflate = quality;
+            } else if (name.equals("*")) {
+                any = quality;
+            }
+        }
+        gzip = gzip < 0 ? any : gzip;
+        deflate = deflate < 0 ? any : deflate;
+        if (gzip > 0 && gzip >= deflate) {
+            return GZIP;
+        }
+        if (deflate > 0) {
+            return DEFLATE;
+        }
+        return IDENTITY;
+    }
+
+    private static double parseQuality(final String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            final var parameter = parameters[i].trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * @param contentType a {@code Content-Type} header line as {@link HttpResponse} keeps it
+     * @return whether bodies of this type are text that is worth compressing; images, fonts and archives are not
+     */
+    public static boolean isCompressible(@Nullable final String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        final var mimeType = HttpResponse.toMimeType(contentType);
+        return mimeType.startsWith("text/") || COMPRESSIBLE_APPLICATION_TYPES.contains(mimeType);
+    }
+
+    /**
+     * @return an output stream that encodes into {@code outputStream}, sends what it has on flush and finishes the
+     * coding when closed
+     */
+    public OutputStream wrap(final OutputStream outputStream) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new GZIPOutputStream(outputStream, HttpResponse.DEFAULT_BUFFER_SIZE, true);
+            case DEFLATE:
+                return new DeflaterOutputStream(outputStream, true);
+            default:
+                return outputStream;
+        }
+    }
+
+    public byte[] encode(final byte[] bytes) {
+        if (this == IDENTITY) {
+            return bytes;
+        }
+        final var output = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (final var encoder = wrap(output)) {
+            encoder.write(bytes);
+        } catch (IOException e) {
+            // a ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+        return output.toByteArray();
+    }
+}
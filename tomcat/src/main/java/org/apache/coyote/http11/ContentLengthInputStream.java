@@ -0,0 +1,68 @@
+package org.apache.coyote.http11;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Body of exactly {@code Content-Length} bytes. Never reads past the body, so the next request of the connection
+ * stays in the source.
+ */
+public class ContentLengthInputStream extends InputStream {
+
+    private final InputStream source;
+    private long remaining;
+
+    public ContentLengthInputStream(final InputStream source, final long contentLength) {
+        this.source = source;
+        this.remaining = contentLength;
+    }
+
+    /**
+     * Reuse this stream for the body of the next request read from the same source.
+     */
+    void recycle(final long contentLength) {
+        this.remaining = contentLength;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (remaining == 0) {
+            return -1;
+        }
+        final var b = source.read();
+        if (b < 0) {
+            throw new EOFException("connection closed with " + remaining + " bytes of the body missing");
+        }
+        remaining--;
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (remaining == 0) {
+            return -1;
+        }
+        if (len == 0) {
+            return 0;
+        }
+        final var read = source.read(b, off, (int) Math.min(len, remaining));
+        if (read < 0) {
+            throw new EOFException("connection closed with " + remaining + " bytes of the body missing");
+        }
+        remaining -= read;
+        return read;
+    }
+
+    /**
+     * @return bytes of the body not read yet
+     */
+    public long getRemaining() {
+        return remaining;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(source.available(), remaining);
+    }
+}
@@ -1,15 +1,38 @@
 package org.apache.coyote.http11;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import javax.annotation.Nullable;
 
 public class Cookie {
 
+    private static final String COOKIE_DELIMITER = ";";
+    private static final char KEY_VALUE_DELIMITER = '=';
+
     private Map<String, String> cookies;
 
     public Cookie(Map<String, String> cookies) {
         this.cookies = cookies;
     }
 
+    /**
+     * Parse a {@code Cookie} request header value such as {@code JSESSIONID=abc; theme=dark}.
+     */
+    public static Cookie parse(@Nullable String header) {
+        final Map<String, String> cookies = new HashMap<>();
+        if (header == null) {
+            return new Cookie(cookies);
+        }
+        for (String pair : header.split(COOKIE_DELIMITER)) {
+            final int delimiter = pair.indexOf(KEY_VALUE_DELIMITER);
+            if (delimiter > 0) {
+                cookies.put(pair.substring(0, delimiter).trim(), pair.substring(delimiter + 1).trim());
+            }
+        }
+        return new Cookie(cookies);
+    }
+
     public String getCookie(String key) {
         return cookies.get(key);
     }
@@ -26,4 +49,8 @@ public class Cookie {
         return cookies.containsKey(key);
     }
 
+    public Map<String, String> toMap() {
+        return Collections.unmodifiableMap(cookies);
+    }
+
 }
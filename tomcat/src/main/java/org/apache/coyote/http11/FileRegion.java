@@ -0,0 +1,74 @@
+package org.apache.coyote.http11;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import javax.annotation.Nullable;
+
+/**
+ * {@code count} bytes of a file starting at {@code position}, sent with {@link FileChannel#transferTo} so the
+ * operating system copies them from the page cache to the socket without passing through the Java heap.
+ */
+public class FileRegion implements ResponseBody {
+
+    private final Path file;
+    private final long position;
+    private final long count;
+
+    public FileRegion(final Path file, final long position, final long count) {
+        this.file = file;
+        this.position = position;
+        this.count = count;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public long getContentLength() {
+        return count;
+    }
+
+    public FileChannel open() throws IOException {
+        return FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    @Override
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        // without a socket channel the bytes are copied through a buffer; still never the whole file at once
+        transferTo(Channels.newChannel(outputStream));
+    }
+
+    @Override
+    public void writeTo(final OutputStream outputStream, @Nullable final WritableByteChannel channel)
+            throws IOException {
+        if (channel == null) {
+            writeTo(outputStream);
+            return;
+        }
+        outputStream.flush();
+        transferTo(channel);
+    }
+
+    private void transferTo(final WritableByteChannel channel) throws IOException {
+        try (final var fileChannel = open()) {
+            var transferred = 0L;
+            while (transferred < count) {
+                final var sent = fileChannel.transferTo(position + transferred, count - transferred, channel);
+                if (sent <= 0 && fileChannel.size() <= position + transferred) {
+                    throw new IOException(file + " was truncated while it was sent");
+                }
+                transferred += sent;
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.apache.coyote.http11;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Encodes the head of a response into a byte array that every thread keeps for all of its responses, which then
+ * goes to the output with one write. Field names and values are ISO-8859-1, other characters are sent as {@code ?}.
+ * Control characters other than tab are sent as spaces, so a CR or LF in a value cannot end the line and start a
+ * header or a response of its own.
+ */
+class HeaderWriter {
+
+    private static final int INITIAL_SIZE = 512;
+    private static final byte[] COLON_SPACE = {':', ' '};
+    private static final byte[] SPACE_CRLF = {' ', '\r', '\n'};
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final ThreadLocal<HeaderWriter> WRITERS = ThreadLocal.withInitial(HeaderWriter::new);
+
+    private byte[] buffer = new byte[INITIAL_SIZE];
+    private int count;
+
+    private HeaderWriter() {
+    }
+
+    /**
+     * @return the writer of this thread, emptied; it is reused by the next call so it must not be kept
+     */
+    static HeaderWriter get() {
+        final var writer = WRITERS.get();
+        writer.count = 0;
+        return writer;
+    }
+
+    HeaderWriter write(final byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+        return this;
+    }
+
+    HeaderWriter write(final String value) {
+        final var length = value.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            final var c = value.charAt(i);
+            if (c > 0xFF) {
+                buffer[count++] = '?';
+            } else if ((c < ' ' && c != '\t') || c == 0x7F) {
+                buffer[count++] = ' ';
+            } else {
+                buffer[count++] = (byte) c;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Write the number without making a string of it first.
+     */
+    HeaderWriter write(final long value) {
+        if (value < 0) {
+            return write(Long.toString(value));
+        }
+        var digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        var remaining = value;
+        for (int i = count + digits - 1; i >= count; i--) {
+            buffer[i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        count += digits;
+        return this;
+    }
+
+    /**
+     * Write a field line in the form the server always sends, {@code name: value } with a trailing space.
+     */
+    HeaderWriter writeField(final String name, final String value) {
+        return write(name).write(COLON_SPACE).write(value).write(SPACE_CRLF);
+    }
+
+    /**
+     * Write a field line that is already formatted, like a {@code Content-Type} line.
+     */
+    HeaderWriter writeLine(final String line) {
+        return write(line).write(CRLF);
+    }
+
+    HeaderWriter endHead() {
+        return write(CRLF);
+    }
+
+    void writeTo(final OutputStream outputStream) throws IOException {
+        outputStream.write(buffer, 0, count);
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    private void ensureCapacity(final int length) {
+        if (count + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + length));
+        }
+    }
+}
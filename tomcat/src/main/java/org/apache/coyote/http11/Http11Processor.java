@@ -1,19 +1,21 @@
 package org.apache.coyote.http11;
 
-import java.io.File;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.Socket;
-import java.net.URL;
-import java.nio.file.Files;
-import java.util.Map;
-import java.util.Optional;
-import java.util.UUID;
+import java.net.SocketTimeoutException;
 import javax.annotation.Nullable;
-import nextstep.jwp.db.InMemoryUserRepository;
+import nextstep.jwp.controller.ApplicationRoutes;
 import nextstep.jwp.exception.UncheckedServletException;
-import nextstep.jwp.model.User;
-import org.apache.catalina.Session;
+import org.apache.catalina.AccessLog;
 import org.apache.catalina.SessionManager;
+import org.apache.catalina.core.ServletContainer;
+import org.apache.catalina.mapper.Mapper;
+import org.apache.catalina.mapper.RequestMapping;
+import org.apache.catalina.metrics.MetricRegistry;
 import org.apache.coyote.Processor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,19 +24,47 @@ public class Http11Processor implements Runnable, Processor {
 
     private static final Logger log = LoggerFactory.getLogger(Http11Processor.class);
 
+    public static final int DEFAULT_KEEP_ALIVE_TIMEOUT = 20_000;
+    public static final int DEFAULT_MAX_KEEP_ALIVE_REQUESTS = 100;
+
+    /**
+     * Metrics of the server in the Prometheus text format, answered only to clients on the same host.
+     */
+    public static final String METRICS_PATH = "/admin/metrics";
+
     private final Socket connection;
     private final HttpRequestParser httpRequestParser;
-    private final SessionManager sessionManager;
+    private final Mapper mapper;
+    private final CachePolicy cachePolicy;
+    private final HttpMetrics metrics;
+    private final AccessLog accessLog;
+    private final int keepAliveTimeout;
+    private final int maxKeepAliveRequests;
 
-    public Http11Processor(final Socket connection, final SessionManager sessionManager) {
+    /**
+     * @param mapper               routes of the application from {@link #createMapper}, compiled once per connector
+     * @param cachePolicy          decides the {@code Cache-Control} of responses that do not set their own
+     * @param metrics              records every response, shared by the connections of a connector
+     * @param accessLog            gets a line for every served request, {@code null} to log none
+     * @param keepAliveTimeout     milliseconds to wait for the next request on an idle connection, 0 waits forever
+     * @param maxKeepAliveRequests requests served on one connection before it is closed, 0 or less means unlimited
+     * @param maxBodySize          largest request body accepted, larger ones are answered with 413
+     */
+    public Http11Processor(final Socket connection, final Mapper mapper, final CachePolicy cachePolicy,
+                           final HttpMetrics metrics, @Nullable final AccessLog accessLog, final int keepAliveTimeout,
+                           final int maxKeepAliveRequests, final long maxBodySize) {
         this.connection = connection;
-        httpRequestParser = new HttpRequestParser();
-        this.sessionManager = sessionManager;
+        httpRequestParser = new HttpRequestParser(HttpRequestParser.DEFAULT_MAX_HEADER_SIZE, maxBodySize);
+        this.mapper = mapper;
+        this.cachePolicy = cachePolicy;
+        this.metrics = metrics;
+        this.accessLog = accessLog;
+        this.keepAliveTimeout = keepAliveTimeout;
+        this.maxKeepAliveRequests = maxKeepAliveRequests;
     }
 
     @Override
     public void run() {
-        log.info("connect host: {}, port: {}", connection.getInetAddress(), connection.getPort());
         process(connection);
     }
 
@@ -42,127 +72,198 @@ public class Http11Processor implements Runnable, Processor {
     public void process(final Socket connection) {
         try (final var inputStream = connection.getInputStream();
              final var outputStream = connection.getOutputStream()) {
-            final var request = httpRequestParser.accept(inputStream);
-            final var response = handleRequest(request);
-
-            outputStream.write(response.buildResponse().getBytes());
-            outputStream.flush();
+            connection.setSoTimeout(keepAliveTimeout);
+            serve(inputStream, outputStream);
+        } catch (SocketTimeoutException e) {
+            log.debug("keep-alive timeout, host: {}", connection.getInetAddress());
         } catch (IOException | UncheckedServletException e) {
             log.error(e.getMessage(), e);
         }
     }
 
-    private HttpResponse postLogin(HttpRequest request) throws IOException {
-        final var form = request.getForm();
-        final var account = form.get("account");
-        final var password = form.get("password");
-        final var optionalUser = findUser(account, password);
+    /**
+     * Serve the requests of one connection in order. Responses are collected in a buffer while the next request is
+     * already waiting, so the answers to pipelined requests go out together instead of one write each.
+     */
+    private void serve(final InputStream inputStream, final OutputStream socketOutputStream) throws IOException {
+        final var outputStream = new BufferedOutputStream(socketOutputStream, HttpResponse.DEFAULT_BUFFER_SIZE);
+        try {
+            var keepAlive = true;
+            for (int count = 1; keepAlive; count++) {
+                final var request = httpRequestParser.accept(inputStream);
+                if (request == null) {
+                    break;
+                }
+                final var response = service(request);
+                keepAlive = keepAlive(request, response, count);
 
-        if (optionalUser.isEmpty()) {
-            File page = getFile("/401.html");
-            String contentType = getContentType(page);
-            String body = buildResponseBody(page);
-            return new HttpResponse("401 Unauthorized", contentType, body);
+                response.writeTo(outputStream, connection.getChannel());
+                if (!keepAlive || !httpRequestParser.hasPipelinedRequest()) {
+                    outputStream.flush();
+                }
+            }
+        } catch (PayloadTooLargeException e) {
+            log.debug("payload too large, host: {}, {}", connection.getInetAddress(), e.getMessage());
+            writeError(outputStream, payloadTooLarge());
+        } catch (BadRequestException e) {
+            log.debug("bad request, host: {}, {}", connection.getInetAddress(), e.getMessage());
+            writeError(outputStream, badRequest());
+        } finally {
+            outputStream.flush();
         }
+    }
 
-        User user = optionalUser.get();
-        log.info("user: {}", user);
-        Session session = new Session(UUID.randomUUID().toString());
-        sessionManager.add(session);
-        session.addUser(user);
-        return new HttpResponse("302 Found", "Content-Type: text/plain;charset=utf-8 ", null,
-                Map.of("Location", "/index.html", "Set-Cookie", "JSESSIONID=" + session.getId()));
-    }
-
-    private HttpResponse postRegister(HttpRequest request) {
-        final var form = request.getForm();
-        final var account = form.get("account");
-        final var password = form.get("password");
-        final var email = form.get("email");
-        final var user = new User(account, password, email);
-        InMemoryUserRepository.save(user);
-        return new HttpResponse("302 Found", "Content-Type: text/plain;charset=utf-8 ", null,
-                Map.of("Location", "/index.html"));
-    }
-
-    private String getContentType(final File file) throws IOException {
-        if (file == null) {
-            return "Content-Type: text/plain;charset=utf-8 ";
-        }
-        final var urlConnection = file.toURI().toURL().openConnection();
-        final var mimeType = urlConnection.getContentType();
-        return "Content-Type: " + mimeType + ";charset=utf-8 ";
+    private void writeError(final OutputStream outputStream, final HttpResponse error) throws IOException {
+        metrics.count(error);
+        error.writeTo(outputStream);
+    }
 
+    /**
+     * Response for a request that could not be parsed; the connection is closed after it.
+     */
+    public static HttpResponse badRequest() {
+        return closingError(HttpStatus.BAD_REQUEST);
     }
 
-    private String buildResponseBody(final File file) throws IOException {
-        if (file == null) {
-            return "Hello world!";
-        }
-        return new String(Files.readAllBytes(file.toPath()));
+    /**
+     * Response for a request whose body is larger than allowed; the connection is closed after it.
+     */
+    public static HttpResponse payloadTooLarge() {
+        return closingError(HttpStatus.PAYLOAD_TOO_LARGE);
     }
 
+    /**
+     * Response for a request whose handler failed; the connection stays open.
+     */
+    public static HttpResponse internalServerError() {
+        return new HttpResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Content-Type: text/plain;charset=utf-8 ",
+                HttpStatus.INTERNAL_SERVER_ERROR.getReasonPhrase());
+    }
 
-    private Optional<User> findUser(String account, String password) {
-        return InMemoryUserRepository.findByAccount(account)
-                .filter(user -> user.checkPassword(password))
-                .stream().findFirst();
+    private static HttpResponse closingError(final HttpStatus status) {
+        final var response = new HttpResponse(status, "Content-Type: text/plain;charset=utf-8 ",
+                status.getReasonPhrase());
+        response.addHeader("Connection", "close");
+        return response;
     }
 
-    private HttpResponse handleRequest(final HttpRequest request) throws IOException {
-        final var uri = request.getUri();
-        if (uri.equals("/")) {
-            return getResource("/");
+    /**
+     * Handle one parsed request. Reading the request and writing the response is left to the caller,
+     * so connectors that do their own socket I/O can share the request handling.
+     */
+    public HttpResponse service(final HttpRequest request) throws IOException {
+        final var start = System.nanoTime();
+        request.setRemoteAddress(connection.getInetAddress());
+        final var response = handleRequest(request);
+        response.compress(ContentEncoding.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING)));
+        applyCachePolicy(request, response);
+        final var nanos = System.nanoTime() - start;
+        metrics.served(response, nanos);
+        if (accessLog != null) {
+            accessLog.log(connection.getInetAddress(), request, response, nanos);
         }
-        if (uri.equals("/login")) {
-            return handleLogin(request);
+        return response;
+    }
+
+    private void applyCachePolicy(final HttpRequest request, final HttpResponse response) {
+        if (response.hasHeader("Set-Cookie")) {
+            // a shared cache must never hand someone else's session to the next client
+            response.addHeader(HttpHeaders.CACHE_CONTROL, CachePolicy.NO_STORE);
+            return;
         }
-        if (uri.equals("/register")) {
-            if (request.isPost()) {
-                return postRegister(request);
-            }
-            return getResource("/register.html");
+        if (response.hasHeader(HttpHeaders.CACHE_CONTROL)) {
+            return;
+        }
+        final var cacheControl = cachePolicy.getCacheControl(request.getUri(), response.getMimeType());
+        if (cacheControl != null) {
+            response.addHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
         }
-        return getResource(uri);
     }
 
-    private HttpResponse handleLogin(final HttpRequest request) throws IOException {
-        if (request.isPost()) {
-            return postLogin(request);
+    /**
+     * Decide whether the connection stays open after the {@code count}-th response and tell the client.
+     */
+    public boolean keepAlive(final HttpRequest request, final HttpResponse response, final int count) {
+        var keepAlive = request.isKeepAlive() && !isKeepAliveLimitReached(count);
+        if (!response.hasContentLength() && !HttpRequest.DEFAULT_PROTOCOL.equals(request.getProtocol())) {
+            // HTTP/1.0 has no chunked encoding, closing the connection ends the body
+            response.setChunked(false);
+            keepAlive = false;
         }
-        if (isAlreadyLoggedIn(request)) {
-            return new HttpResponse("302 Found", "Content-Type: text/plain;charset=utf-8 ", null,
-                    Map.of("Location", "/index.html"));
+        if (!keepAlive) {
+            response.addHeader("Connection", "close");
+        } else if (!HttpRequest.DEFAULT_PROTOCOL.equals(request.getProtocol())) {
+            response.addHeader("Connection", "keep-alive");
         }
-        return getResource("/login.html");
+        return keepAlive;
     }
 
-    private boolean isAlreadyLoggedIn(final HttpRequest request) {
-        String sessionId = request.getCookie("JSESSIONID");
-        return sessionManager.findSession(sessionId) != null;
+    private boolean isKeepAliveLimitReached(final int count) {
+        return maxKeepAliveRequests > 0 && count >= maxKeepAliveRequests;
     }
 
-    private HttpResponse getResource(String uri) throws IOException {
+    /**
+     * A failing handler is answered with 500, unless it failed reading a body the client got wrong, which the caller
+     * answers with 400 or 413 and then closes the connection.
+     */
+    private HttpResponse handleRequest(final HttpRequest request) throws IOException {
+        final var route = mapper.map(request.getMethod(), request.getUri());
+        request.setPathVariables(route.getPathVariables());
         try {
-            File page = getFile(uri);
-            String contentType = getContentType(page);
-            String body = buildResponseBody(page);
-            return new HttpResponse("200 OK", contentType, body);
-        } catch (Exception e) {
-            File page = getFile("/404.html");
-            String contentType = getContentType(page);
-            String body = buildResponseBody(page);
-            return new HttpResponse("404 Not Found", contentType, body);
+            return route.getController().service(request);
+        } catch (BadRequestException | PayloadTooLargeException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            log.error("{} {} failed: {}", request.getMethod(), request.getUri(), e.getMessage(), e);
+            return internalServerError();
         }
     }
 
-    @Nullable
-    private File getFile(final String uri) {
-        if (uri.equals("/")) {
-            return null;
+    /**
+     * Compile the routes of the application, its static files and {@link #METRICS_PATH}. Done once by a connector
+     * and shared by all of its processors.
+     */
+    public static Mapper createMapper(final SessionManager sessionManager, final StaticResourceCache resourceCache,
+                                      final CachePolicy cachePolicy, final HttpMetrics metrics) {
+        return createMapper(sessionManager, resourceCache, cachePolicy, metrics, null);
+    }
+
+    /**
+     * @param servletContainer servlets routed after the application routes, whose static files still win over a
+     *                         servlet's prefix pattern
+     */
+    public static Mapper createMapper(final SessionManager sessionManager, final StaticResourceCache resourceCache,
+                                      final CachePolicy cachePolicy, final HttpMetrics metrics,
+                                      @Nullable final ServletContainer servletContainer) {
+        final var resourceHandler = new StaticResourceHandler(resourceCache, cachePolicy);
+        final var mapping = new RequestMapping();
+        ApplicationRoutes.register(mapping, sessionManager, resourceHandler);
+        mapping.get(METRICS_PATH, request -> {
+            if (!isLocalClient(request)) {
+                return resourceHandler.notFound(request);
+            }
+            return getMetrics(metrics);
+        });
+        if (servletContainer != null) {
+            servletContainer.register(mapping, sessionManager);
+        }
+        try {
+            resourceHandler.register(mapping);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        final URL resource = getClass().getClassLoader().getResource("static" + uri);
-        return Optional.ofNullable(resource.getFile()).map(File::new).orElse(null);
+        return mapping.compile();
     }
 
+    private static boolean isLocalClient(final HttpRequest request) {
+        final var address = request.getRemoteAddress();
+        return address != null && address.isLoopbackAddress();
+    }
+
+    private static HttpResponse getMetrics(final HttpMetrics metrics) {
+        final var response = new HttpResponse(HttpStatus.OK, MetricRegistry.CONTENT_TYPE,
+                metrics.getRegistry().scrape());
+        response.addHeader(HttpHeaders.CACHE_CONTROL, CachePolicy.NO_STORE);
+        return response;
+    }
 }
@@ -0,0 +1,176 @@
+package org.apache.coyote.http11;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+
+/**
+ * Request headers as parsed from the wire. Well-known names are shared constants instead of new strings, and a
+ * value stays a range of the raw header bytes until someone asks for it. The parser of a connection recycles one
+ * instance for all of its requests.
+ */
+public class HttpHeaders {
+
+    public static final String HOST = "Host";
+    public static final String CONNECTION = "Connection";
+    public static final String CONTENT_LENGTH = "Content-Length";
+    public static final String CONTENT_TYPE = "Content-Type";
+    public static final String TRANSFER_ENCODING = "Transfer-Encoding";
+    public static final String COOKIE = "Cookie";
+    public static final String ACCEPT = "Accept";
+    public static final String ACCEPT_ENCODING = "Accept-Encoding";
+    public static final String ACCEPT_LANGUAGE = "Accept-Language";
+    public static final String USER_AGENT = "User-Agent";
+    public static final String REFERER = "Referer";
+    public static final String ORIGIN = "Origin";
+    public static final String CACHE_CONTROL = "Cache-Control";
+    public static final String PRAGMA = "Pragma";
+    public static final String IF_NONE_MATCH = "If-None-Match";
+    public static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+    public static final String RANGE = "Range";
+    public static final String IF_RANGE = "If-Range";
+    public static final String UPGRADE_INSECURE_REQUESTS = "Upgrade-Insecure-Requests";
+
+    private static final String[] WELL_KNOWN_NAMES = {
+            HOST, CONNECTION, CONTENT_LENGTH, CONTENT_TYPE, TRANSFER_ENCODING, COOKIE, ACCEPT, ACCEPT_ENCODING,
+            ACCEPT_LANGUAGE, USER_AGENT, REFERER, ORIGIN, CACHE_CONTROL, PRAGMA, IF_NONE_MATCH, IF_MODIFIED_SINCE,
+            RANGE, IF_RANGE, UPGRADE_INSECURE_REQUESTS
+    };
+    private static final byte[][] WELL_KNOWN_NAME_BYTES = Arrays.stream(WELL_KNOWN_NAMES)
+            .map(name -> name.getBytes(StandardCharsets.US_ASCII))
+            .toArray(byte[][]::new);
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int TO_LOWER_CASE = 'a' - 'A';
+
+    private byte[] bytes;
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] values = new String[INITIAL_CAPACITY];
+    private int[] valueStarts = new int[INITIAL_CAPACITY];
+    private int[] valueEnds = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * @param bytes the header block that {@link #add(int, int, int, int)} offsets point into
+     */
+    HttpHeaders(final byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    public HttpHeaders() {
+        this(new byte[0]);
+    }
+
+    public static HttpHeaders of(final Map<String, String> headers) {
+        final var httpHeaders = new HttpHeaders();
+        headers.forEach(httpHeaders::add);
+        return httpHeaders;
+    }
+
+    /**
+     * Forget the headers of the previous request and copy the next header block into the array kept from it, which
+     * is only replaced when the block does not fit.
+     */
+    void recycle(final byte[] source, final int start, final int end) {
+        final var length = end - start;
+        if (bytes.length < length) {
+            bytes = new byte[Math.max(length, bytes.length * 2)];
+        }
+        System.arraycopy(source, start, bytes, 0, length);
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+
+    void add(final int nameStart, final int nameEnd, final int valueStart, final int valueEnd) {
+        ensureCapacity();
+        names[size] = internName(nameStart, nameEnd);
+        valueStarts[size] = valueStart;
+        valueEnds[size] = valueEnd;
+        size++;
+    }
+
+    public void add(final String name, final String value) {
+        ensureCapacity();
+        names[size] = name;
+        values[size] = value;
+        size++;
+    }
+
+    private void ensureCapacity() {
+        if (size < names.length) {
+            return;
+        }
+        final var capacity = names.length * 2;
+        names = Arrays.copyOf(names, capacity);
+        values = Arrays.copyOf(values, capacity);
+        valueStarts = Arrays.copyOf(valueStarts, capacity);
+        valueEnds = Arrays.copyOf(valueEnds, capacity);
+    }
+
+    private String internName(final int start, final int end) {
+        for (int i = 0; i < WELL_KNOWN_NAME_BYTES.length; i++) {
+            if (equalsIgnoreCase(WELL_KNOWN_NAME_BYTES[i], start, end)) {
+                return WELL_KNOWN_NAMES[i];
+            }
+        }
+        return new String(bytes, start, end - start, StandardCharsets.US_ASCII);
+    }
+
+    private boolean equalsIgnoreCase(final byte[] name, final int start, final int end) {
+        if (name.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (toLowerCase(name[i]) != toLowerCase(bytes[start + i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int toLowerCase(final byte b) {
+        if (b >= 'A' && b <= 'Z') {
+            return b + TO_LOWER_CASE;
+        }
+        return b;
+    }
+
+    /**
+     * @return the first value of the header, matched case-insensitively, or {@code null}
+     */
+    @Nullable
+    public String get(final String name) {
+        for (int i = 0; i < size; i++) {
+            if (names[i] == name || names[i].equalsIgnoreCase(name)) {
+                return getValue(i);
+            }
+        }
+        return null;
+    }
+
+    public boolean contains(final String name) {
+        return get(name) != null;
+    }
+
+    private String getValue(final int index) {
+        if (values[index] == null) {
+            final var start = valueStarts[index];
+            values[index] = new String(bytes, start, valueEnds[index] - start, StandardCharsets.ISO_8859_1);
+        }
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Map<String, String> toMap() {
+        final Map<String, String> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < size; i++) {
+            map.putIfAbsent(names[i], getValue(i));
+        }
+        return map;
+    }
+}
@@ -0,0 +1,66 @@
+package org.apache.coyote.http11;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.apache.catalina.metrics.Counter;
+import org.apache.catalina.metrics.Histogram;
+import org.apache.catalina.metrics.MetricRegistry;
+
+/**
+ * What the processor records for every response, shared by all connections of a connector.
+ */
+public class HttpMetrics {
+
+    private static final int MIN_STATUS = 100;
+    private static final int MAX_STATUS = 599;
+
+    private final MetricRegistry registry;
+    private final Histogram requestDuration;
+    private final Counter responseBodyBytes;
+    private final AtomicReferenceArray<Counter> responses = new AtomicReferenceArray<>(MAX_STATUS - MIN_STATUS + 1);
+
+    public HttpMetrics(final MetricRegistry registry) {
+        this.registry = registry;
+        this.requestDuration = registry.histogram("http_request_duration_seconds",
+                "Time from a parsed request to its response being ready to write.");
+        this.responseBodyBytes = registry.counter("http_response_body_bytes_total",
+                "Body bytes of the responses whose length is known before they are written.");
+    }
+
+    public MetricRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * @param nanos time the processor took to produce the response
+     */
+    public void served(final HttpResponse response, final long nanos) {
+        requestDuration.observe(nanos);
+        count(response);
+    }
+
+    /**
+     * Count a response that was not produced for a parsed request, such as a 400 for one that could not be parsed.
+     */
+    public void count(final HttpResponse response) {
+        countStatus(response.getStatusCode());
+        final var body = response.getBody();
+        if (body != null && response.hasContentLength()) {
+            responseBodyBytes.add(body.getContentLength());
+        }
+    }
+
+    private void countStatus(final int status) {
+        if (status < MIN_STATUS || status > MAX_STATUS) {
+            return;
+        }
+        final var index = status - MIN_STATUS;
+        var counter = responses.get(index);
+        if (counter == null) {
+            // the registry hands every thread the same counter for a status, so losing this race is harmless
+            counter = registry.counter("http_responses_total", "Responses sent, by status code.",
+                    "status", String.valueOf(status));
+            responses.set(index, counter);
+        }
+        counter.increment();
+    }
+}
@@ -1,24 +1,78 @@
 package org.apache.coyote.http11;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 
 public class HttpRequest {
 
+    public static final String DEFAULT_PROTOCOL = "HTTP/1.1";
+
+    private static final String HTTP_1_0 = "HTTP/1.0";
+    private static final String KEEP_ALIVE = "keep-alive";
+    private static final String CLOSE = "close";
+    private static final String CHARSET = "charset=";
+
     private String method;
     private String uri;
+    private String queryString;
+    private String protocol;
+    private InputStream body;
     private String messageBody;
-    private Map<String, String> headers;
+    private HttpHeaders headers;
     private Cookie cookie;
+    private Map<String, String> pathVariables = Map.of();
+    private InetAddress remoteAddress;
 
     public HttpRequest(final String method, final String uri, final Map<String, String> headers,
                        final String messageBody, final Map<String, String> cookie) {
+        this(method, uri, DEFAULT_PROTOCOL, headers, messageBody, cookie);
+    }
+
+    public HttpRequest(final String method, final String uri, final String protocol,
+                       final Map<String, String> headers, final String messageBody,
+                       final Map<String, String> cookie) {
+        this(method, uri, null, protocol, HttpHeaders.of(headers),
+                new ByteArrayInputStream(messageBody.getBytes(StandardCharsets.UTF_8)));
+        this.messageBody = messageBody;
+        this.cookie = new Cookie(cookie);
+    }
+
+    /**
+     * @param body the message body, read from the connection as the handler consumes it
+     */
+    public HttpRequest(final String method, final String uri, final String queryString, final String protocol,
+                       final HttpHeaders headers, final InputStream body) {
         this.method = method;
         this.uri = uri;
+        this.queryString = queryString;
+        this.protocol = protocol;
         this.headers = headers;
-        this.messageBody = messageBody;
-        this.cookie = new Cookie(cookie);
+        this.body = body;
+    }
+
+    /**
+     * Reuse this request for the next one of the connection. Everything derived from the previous request is
+     * forgotten; the headers object is kept and recycled by the parser.
+     */
+    void recycle(final String method, final String uri, @Nullable final String queryString, final String protocol,
+                 final InputStream body) {
+        this.method = method;
+        this.uri = uri;
+        this.queryString = queryString;
+        this.protocol = protocol;
+        this.body = body;
+        this.messageBody = null;
+        this.cookie = null;
+        this.pathVariables = Map.of();
+        this.remoteAddress = null;
     }
 
     public boolean isGet() {
@@ -33,20 +87,76 @@ public class HttpRequest {
         return uri;
     }
 
+    @Nullable
+    public String getQueryString() {
+        return queryString;
+    }
+
     public String getMethod() {
         return method;
     }
 
-    public String getMessageBody() {
+    public String getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * HTTP/1.1 connections are persistent unless the client sends {@code Connection: close};
+     * HTTP/1.0 connections are persistent only if the client asks for {@code Connection: keep-alive}.
+     */
+    public boolean isKeepAlive() {
+        final var connection = headers.get(HttpHeaders.CONNECTION);
+        if (HTTP_1_0.equals(protocol)) {
+            return KEEP_ALIVE.equalsIgnoreCase(connection);
+        }
+        return !CLOSE.equalsIgnoreCase(connection);
+    }
+
+    /**
+     * The body as a stream, for bodies too large to hold in memory. Do not combine with {@link #getMessageBody()}.
+     */
+    public InputStream getInputStream() {
+        return body;
+    }
+
+    /**
+     * Read the whole body and decode it with the charset of the {@code Content-Type}, UTF-8 if it has none.
+     */
+    public String getMessageBody() throws IOException {
+        if (messageBody == null) {
+            messageBody = new String(body.readAllBytes(), getCharset());
+        }
         return messageBody;
     }
 
+    private Charset getCharset() {
+        final var contentType = headers.get(HttpHeaders.CONTENT_TYPE);
+        if (contentType == null) {
+            return StandardCharsets.UTF_8;
+        }
+        final var index = contentType.toLowerCase().indexOf(CHARSET);
+        if (index < 0) {
+            return StandardCharsets.UTF_8;
+        }
+        final var charset = contentType.substring(index + CHARSET.length()).split(";")[0].trim();
+        try {
+            return Charset.forName(charset.replace("\"", ""));
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    @Nullable
+    public String getHeader(final String name) {
+        return headers.get(name);
+    }
+
     public Map<String, String> getHeaders() {
-        return headers;
+        return headers.toMap();
     }
 
-    public Map<String, String> getForm() {
-        String[] split = messageBody.split("&");
+    public Map<String, String> getForm() throws IOException {
+        String[] split = getMessageBody().split("&");
         return Arrays.asList(split)
                 .stream()
                 .map(s -> s.split("="))
@@ -54,7 +164,41 @@ public class HttpRequest {
     }
 
     public String getCookie(String key) {
-        return cookie.getCookie(key);
+        return getParsedCookie().getCookie(key);
+    }
+
+    public Map<String, String> getCookies() {
+        return getParsedCookie().toMap();
     }
 
+    private Cookie getParsedCookie() {
+        if (cookie == null) {
+            cookie = Cookie.parse(headers.get(HttpHeaders.COOKIE));
+        }
+        return cookie;
+    }
+
+    /**
+     * Set by the processor to what the matched route bound, e.g. {@code id} of {@code /users/{id}}.
+     */
+    public void setPathVariables(final Map<String, String> pathVariables) {
+        this.pathVariables = pathVariables;
+    }
+
+    @Nullable
+    public String getPathVariable(final String name) {
+        return pathVariables.get(name);
+    }
+
+    public void setRemoteAddress(final InetAddress remoteAddress) {
+        this.remoteAddress = remoteAddress;
+    }
+
+    /**
+     * @return the address of the client, {@code null} if the request did not come from a connection
+     */
+    @Nullable
+    public InetAddress getRemoteAddress() {
+        return remoteAddress;
+    }
 }
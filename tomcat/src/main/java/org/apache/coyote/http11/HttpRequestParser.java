@@ -1,85 +1,407 @@
 package org.apache.coyote.http11;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 
+/**
+ * Parses requests straight from the bytes of a connection. One parser belongs to one connection: its buffer is
+ * reused for every request and keeps the bytes that already arrived for the next one, and so are the request, its
+ * headers and its body stream, so a keep-alive connection allocates none of them per request.
+ */
 public class HttpRequestParser {
 
-    private static final String KEY_VALUE_DELIMITER = "=";
-    private static final String START_LINE_DELIMITER = " ";
-    private static final String QUERY_PARAMETER_DELIMITER_REGEX = "\\?";
-    private static final String QUERY_PARAMETER_DELIMITER = "?";
-    private static final int KEY_INDEX = 0;
-    private static final int VALUE_INDEX = 1;
+    public static final int DEFAULT_MAX_HEADER_SIZE = 8 * 1024;
+    public static final long DEFAULT_MAX_BODY_SIZE = 2 * 1024 * 1024;
 
-    public HttpRequest accept(InputStream inputStream) throws IOException {
-        InputStreamReader inputStreamReader = new InputStreamReader(inputStream);
-        BufferedReader bufferedReader = new BufferedReader(inputStreamReader);
+    private static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+    private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE", "HEAD", "OPTIONS", "PATCH", "TRACE"};
+    private static final byte[][] METHOD_BYTES = toBytes(METHODS);
+    private static final String HTTP_1_0 = "HTTP/1.0";
+    private static final byte[] HTTP_1_1_BYTES = HttpRequest.DEFAULT_PROTOCOL.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HTTP_1_0_BYTES = HTTP_1_0.getBytes(StandardCharsets.US_ASCII);
+    private static final byte SP = ' ';
+    private static final byte HT = '\t';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final byte COLON = ':';
+    private static final byte QUESTION_MARK = '?';
+    private static final String CHUNKED = "chunked";
 
-        final var startLine = bufferedReader.readLine();
-        final var method = startLine.split(START_LINE_DELIMITER)[0];
-        final var path = getPath(startLine);
-        final var headers = readHeader(bufferedReader);
-        final var body = readMessageBody(bufferedReader, headers);
-        final var cookies = findCookies(headers);
+    private final int maxHeaderSize;
+    private final long maxBodySize;
+    private final InputStream bufferedInput = new BufferedInput();
+    private final HttpHeaders headers = new HttpHeaders();
+    private final ContentLengthInputStream contentLengthBody = new ContentLengthInputStream(bufferedInput, 0);
+    private final HttpRequest request = new HttpRequest(null, null, null, null, headers, null);
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private InputStream inputStream;
+    private InputStream body;
 
-        return new HttpRequest(method, path, headers, body, cookies);
+    private String method;
+    private String uri;
+    private String queryString;
+    private String protocol;
+
+    public HttpRequestParser() {
+        this(DEFAULT_MAX_HEADER_SIZE, DEFAULT_MAX_BODY_SIZE);
+    }
+
+    public HttpRequestParser(final int maxHeaderSize) {
+        this(maxHeaderSize, DEFAULT_MAX_BODY_SIZE);
+    }
+
+    /**
+     * @param maxBodySize largest request body accepted, larger bodies fail with {@link PayloadTooLargeException}
+     */
+    public HttpRequestParser(final int maxHeaderSize, final long maxBodySize) {
+        this.maxHeaderSize = maxHeaderSize;
+        this.maxBodySize = maxBodySize;
+        this.buffer = new byte[Math.min(INITIAL_BUFFER_SIZE, maxHeaderSize)];
+    }
+
+    private static byte[][] toBytes(final String[] values) {
+        return Arrays.stream(values)
+                .map(value -> value.getBytes(StandardCharsets.US_ASCII))
+                .toArray(byte[][]::new);
+    }
+
+    /**
+     * Read the next request of the connection. The body is not read here: it is streamed from the connection by
+     * {@link HttpRequest#getInputStream()}, and whatever the handler left unread is skipped by the next call.
+     *
+     * <p>The same request object is returned every time and is only valid until the next call, which recycles it.
+     *
+     * @return the next request or {@code null} if the client closed the connection between requests
+     * @throws BadRequestException      if the request line or headers are malformed or too large
+     * @throws PayloadTooLargeException if the declared body is larger than {@code maxBodySize}
+     */
+    @Nullable
+    public HttpRequest accept(final InputStream inputStream) throws IOException {
+        skipUnreadBody();
+        this.inputStream = inputStream;
+        if (!skipEmptyLines(inputStream)) {
+            return null;
+        }
+        final var headerEnd = fillHeader(inputStream);
+        final var requestLineEnd = indexOf(LF, position, headerEnd);
+
+        parseRequestLine(position, lineEnd(position, requestLineEnd));
+        parseHeaders(requestLineEnd + 1, headerEnd);
+        position = headerEnd;
+        body = createBody();
+
+        request.recycle(method, uri, queryString, protocol, body);
+        return request;
+    }
+
+    /**
+     * Whether the next request already arrived behind the current one, as it does from a pipelining client. Only
+     * looks at buffered bytes and never blocks: a body that is not completely buffered yet counts as no.
+     */
+    public boolean hasPipelinedRequest() throws IOException {
+        if (body instanceof ChunkedInputStream) {
+            return false;
+        }
+        if (body instanceof ContentLengthInputStream) {
+            if (((ContentLengthInputStream) body).getRemaining() > limit - position) {
+                return false;
+            }
+            skipUnreadBody();
+        }
+        while (position < limit && (buffer[position] == CR || buffer[position] == LF)) {
+            position++;
+        }
+        return position < limit;
+    }
+
+    private void skipUnreadBody() throws IOException {
+        if (body == null) {
+            return;
+        }
+        final var unread = body;
+        body = null;
+        unread.transferTo(OutputStream.nullOutputStream());
+    }
+
+    /**
+     * Clients may send CRLF between requests. Returns {@code false} on end of stream.
+     */
+    private boolean skipEmptyLines(final InputStream inputStream) throws IOException {
+        while (true) {
+            if (position == limit && fill(inputStream) < 0) {
+                return false;
+            }
+            final var b = buffer[position];
+            if (b != CR && b != LF) {
+                return true;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Make sure the whole header block is in the buffer.
+     *
+     * @return index just after the empty line that ends the header block
+     */
+    private int fillHeader(final InputStream inputStream) throws IOException {
+        var scanned = position;
+        while (true) {
+            final var headerEnd = findHeaderEnd(scanned);
+            if (headerEnd >= 0) {
+                return headerEnd;
+            }
+            scanned = Math.max(position, limit - 3);
+            final var offset = position;
+            if (fill(inputStream) < 0) {
+                throw new BadRequestException("connection closed in the middle of the request header");
+            }
+            scanned -= offset - position;
+        }
+    }
+
+    private int findHeaderEnd(final int from) {
+        for (int i = from; i < limit; i++) {
+            if (buffer[i] != LF) {
+                continue;
+            }
+            if (i + 1 < limit && buffer[i + 1] == LF) {
+                return i + 2;
+            }
+            if (i + 2 < limit && buffer[i + 1] == CR && buffer[i + 2] == LF) {
+                return i + 3;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Read more bytes, moving unread bytes to the front or growing the buffer up to {@code maxHeaderSize}.
+     *
+     * @return number of bytes read, -1 at end of stream
+     */
+    private int fill(final InputStream inputStream) throws IOException {
+        if (limit == buffer.length) {
+            makeRoom();
+        }
+        final var read = inputStream.read(buffer, limit, buffer.length - limit);
+        if (read > 0) {
+            limit += read;
+        }
+        return read;
+    }
+
+    private void makeRoom() {
+        final var unread = limit - position;
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, unread);
+        } else if (buffer.length < maxHeaderSize) {
+            buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, maxHeaderSize));
+        } else {
+            throw new BadRequestException("request header exceeds " + maxHeaderSize + " bytes");
+        }
+        position = 0;
+        limit = unread;
+    }
+
+    private void parseRequestLine(final int start, final int end) {
+        final var methodEnd = indexOf(SP, start, end);
+        final var uriStart = methodEnd + 1;
+        final var uriEnd = indexOf(SP, uriStart, end);
+        if (methodEnd < 0 || uriEnd < 0) {
+            throw new BadRequestException("invalid request line: "
+                    + new String(buffer, start, end - start, StandardCharsets.ISO_8859_1));
+        }
+        method = parseMethod(start, methodEnd);
+        protocol = parseProtocol(uriEnd + 1, trimEnd(uriEnd + 1, end));
+        final var queryStart = indexOf(QUESTION_MARK, uriStart, uriEnd);
+        if (queryStart < 0) {
+            uri = decode(uriStart, uriEnd);
+            queryString = null;
+            return;
+        }
+        uri = decode(uriStart, queryStart);
+        queryString = decode(queryStart + 1, uriEnd);
+    }
+
+    private String parseMethod(final int start, final int end) {
+        for (int i = 0; i < METHOD_BYTES.length; i++) {
+            if (matches(METHOD_BYTES[i], start, end)) {
+                return METHODS[i];
+            }
+        }
+        return decode(start, end);
+    }
+
+    private String parseProtocol(final int start, final int end) {
+        if (start >= end || matches(HTTP_1_1_BYTES, start, end)) {
+            return HttpRequest.DEFAULT_PROTOCOL;
+        }
+        if (matches(HTTP_1_0_BYTES, start, end)) {
+            return HTTP_1_0;
+        }
+        return decode(start, end);
+    }
+
+    /**
+     * Header offsets are kept relative to {@code start}, where the copy held by the headers begins.
+     */
+    private void parseHeaders(final int start, final int headerEnd) {
+        headers.recycle(buffer, start, headerEnd);
+        var lineStart = start;
+        while (lineStart < headerEnd) {
+            final var newLine = indexOf(LF, lineStart, headerEnd);
+            final var lineEnd = lineEnd(lineStart, newLine);
+            if (lineEnd == lineStart) {
+                break;
+            }
+            final var colon = indexOf(COLON, lineStart, lineEnd);
+            if (colon <= lineStart) {
+                throw new BadRequestException("invalid header line: " + decode(lineStart, lineEnd));
+            }
+            headers.add(lineStart - start, colon - start, trimStart(buffer, colon + 1, lineEnd) - start,
+                    trimEnd(buffer, colon + 1, lineEnd) - start);
+            lineStart = newLine + 1;
+        }
+    }
+
+    private InputStream createBody() {
+        final var transferEncoding = headers.get(HttpHeaders.TRANSFER_ENCODING);
+        if (transferEncoding != null && transferEncoding.toLowerCase().contains(CHUNKED)) {
+            return new ChunkedInputStream(bufferedInput, maxBodySize);
+        }
+        final var contentLength = parseContentLength(headers.get(HttpHeaders.CONTENT_LENGTH));
+        if (contentLength > maxBodySize) {
+            throw new PayloadTooLargeException(maxBodySize);
+        }
+        // an empty body too, instead of a stream of its own for every request without one
+        contentLengthBody.recycle(contentLength);
+        return contentLengthBody;
+    }
+
+    private long parseContentLength(@Nullable final String contentLength) {
+        if (contentLength == null) {
+            return 0;
+        }
+        try {
+            final var length = Long.parseLong(contentLength.trim());
+            if (length < 0) {
+                throw new BadRequestException("invalid Content-Length: " + contentLength);
+            }
+            return length;
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("invalid Content-Length: " + contentLength);
+        }
     }
 
-    private Map<String, String> readHeader(BufferedReader bufferedReader) throws IOException {
-        Map<String, String> header = new HashMap<>();
-        String line = bufferedReader.readLine();
-        while (line != null && !line.isBlank()) {
-            String[] split = line.split(":");
-            header.put(split[KEY_INDEX], split[VALUE_INDEX].trim());
-            line = bufferedReader.readLine();
+    private boolean matches(final byte[] expected, final int start, final int end) {
+        if (expected.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer[start + i] != expected[i]) {
+                return false;
+            }
         }
-        return header;
+        return true;
     }
 
-    private String readMessageBody(BufferedReader bufferedReader, Map<String, String> headers) throws IOException {
-        String key = "Content-Length";
-        if (headers.containsKey(key)) {
-            int contentLength = Integer.parseInt(headers.get(key));
-            char[] body = new char[contentLength];
-            bufferedReader.read(body, 0, contentLength);
-            return new String(body);
+    private int lineEnd(final int start, final int newLine) {
+        if (newLine > start && buffer[newLine - 1] == CR) {
+            return newLine - 1;
         }
-        return "";
+        return newLine;
     }
 
-    public Map<String, String> findCookies(Map<String, String> headers) {
-        return headers.entrySet().stream()
-                .filter(entry -> entry.getKey().equals("Cookie"))
-                .map(entry -> entry.getValue().split("; "))
-                .flatMap(Arrays::stream)
-                .map(line -> line.split(KEY_VALUE_DELIMITER))
-                .collect(Collectors.toMap(line -> line[0], line -> line[1]));
+    private int trimEnd(final int start, final int end) {
+        return trimEnd(buffer, start, end);
+    }
+
+    private static int trimStart(final byte[] bytes, final int start, final int end) {
+        var trimmed = start;
+        while (trimmed < end && isWhitespace(bytes[trimmed])) {
+            trimmed++;
+        }
+        return trimmed;
     }
 
-    public Map<String, String> findQueryStrings(String path) {
-        if (!path.contains(QUERY_PARAMETER_DELIMITER)) {
-            return new HashMap<>();
+    private static int trimEnd(final byte[] bytes, final int start, final int end) {
+        var trimmed = end;
+        while (trimmed > start && isWhitespace(bytes[trimmed - 1])) {
+            trimmed--;
         }
-        String queryString = path.split(QUERY_PARAMETER_DELIMITER_REGEX)[1];
-        return Arrays.stream(queryString.split("&"))
-                .map(line -> line.split(KEY_VALUE_DELIMITER))
-                .collect(Collectors.toMap(line -> line[0], line -> line[1]));
+        return trimmed;
     }
 
-    public String getPath(String startLine) {
-        String url = startLine.split(START_LINE_DELIMITER)[1];
-        if (!startLine.contains(QUERY_PARAMETER_DELIMITER)) {
-            return url;
+    private static boolean isWhitespace(final byte b) {
+        return b == SP || b == HT;
+    }
+
+    private int indexOf(final byte target, final int start, final int end) {
+        return indexOf(buffer, target, start, end);
+    }
+
+    private static int indexOf(final byte[] bytes, final byte target, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == target) {
+                return i;
+            }
         }
-        return url.split(QUERY_PARAMETER_DELIMITER_REGEX)[0];
+        return -1;
     }
 
+    private String decode(final int start, final int end) {
+        return new String(buffer, start, end - start, StandardCharsets.ISO_8859_1);
+    }
 
+    /**
+     * The connection as seen by a request body: bytes already in the buffer first, then the socket. Large reads go
+     * to the socket directly instead of through the buffer.
+     */
+    private class BufferedInput extends InputStream {
+
+        @Override
+        public int read() throws IOException {
+            if (position == limit && refill() < 0) {
+                return -1;
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position == limit) {
+                if (len >= buffer.length) {
+                    return inputStream.read(b, off, len);
+                }
+                if (refill() < 0) {
+                    return -1;
+                }
+            }
+            final var read = Math.min(len, limit - position);
+            System.arraycopy(buffer, position, b, off, read);
+            position += read;
+            return read;
+        }
+
+        private int refill() throws IOException {
+            position = 0;
+            limit = 0;
+            return fill(inputStream);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return limit - position + inputStream.available();
+        }
+    }
 }
@@ -1,65 +1,370 @@
 package org.apache.coyote.http11;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
-
-import static java.lang.String.join;
+import javax.annotation.Nullable;
 
+/**
+ * A response as the server sends it. The body is bytes and goes out as it is; the head is encoded straight into
+ * bytes by a {@link HeaderWriter}.
+ */
 public class HttpResponse {
 
-    private String httpStatus;
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+    private static final String VARY = "Vary";
+    private static final String CONTENT_RANGE = "Content-Range";
+    private static final String ACCEPT_ENCODING = "Accept-Encoding";
+    private static final String CONTENT_TYPE_PREFIX = "Content-Type: ";
+    private static final String UTF_8_PARAMETER = ";charset=utf-8";
+    private static final byte[] CONTENT_LENGTH_PREFIX = "Content-Length: ".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] TRAILING_SPACE_CRLF = {' ', '\r', '\n'};
+    private static final byte[] TRANSFER_ENCODING_CHUNKED = "Transfer-Encoding: chunked \r\n"
+            .getBytes(StandardCharsets.ISO_8859_1);
+
+    private final int statusCode;
+    private final byte[] statusLine;
     private String contentType;
-    private String body;
+    private ResponseBody body;
     private Map<String, String> headers;
+    private final List<String> repeatedHeaders = new ArrayList<>();
+    private boolean chunked = true;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    public HttpResponse(final String httpStatus, final Map<String, String> headers) {
+        this(httpStatus, null, (ResponseBody) null, headers);
+    }
 
     public HttpResponse(final String httpStatus, final String contentType, final String body) {
-        this.httpStatus = httpStatus;
-        this.contentType = contentType;
-        this.body = body;
+        this(httpStatus, contentType, body, Map.of());
     }
 
     public HttpResponse(final String httpStatus, final String contentType, final String body,
                         final Map<String, String> headers) {
-        this.httpStatus = httpStatus;
+        this(httpStatus, contentType, encode(body), headers);
+    }
+
+    public HttpResponse(final String httpStatus, final String contentType, final byte[] body) {
+        this(httpStatus, contentType, body, Map.of());
+    }
+
+    public HttpResponse(final String httpStatus, final String contentType, final byte[] body,
+                        final Map<String, String> headers) {
+        this(httpStatus, contentType, body == null ? null : new ByteArrayResponseBody(body), headers);
+    }
+
+    public HttpResponse(final String httpStatus, final String contentType, final ResponseBody body) {
+        this(httpStatus, contentType, body, Map.of());
+    }
+
+    /**
+     * @param httpStatus code and reason phrase, like {@code 200 OK}; for codes without a {@link HttpStatus}
+     */
+    public HttpResponse(final String httpStatus, final String contentType, final ResponseBody body,
+                        final Map<String, String> headers) {
+        this(parseStatusCode(httpStatus), toStatusLine(httpStatus), contentType, body, headers);
+    }
+
+    public HttpResponse(final HttpStatus status, final Map<String, String> headers) {
+        this(status, null, (ResponseBody) null, headers);
+    }
+
+    public HttpResponse(final HttpStatus status, final String contentType, final String body) {
+        this(status, contentType, body, Map.of());
+    }
+
+    public HttpResponse(final HttpStatus status, final String contentType, final String body,
+                        final Map<String, String> headers) {
+        this(status, contentType, encode(body), headers);
+    }
+
+    public HttpResponse(final HttpStatus status, final String contentType, final byte[] body) {
+        this(status, contentType, body, Map.of());
+    }
+
+    public HttpResponse(final HttpStatus status, final String contentType, final byte[] body,
+                        final Map<String, String> headers) {
+        this(status, contentType, body == null ? null : new ByteArrayResponseBody(body), headers);
+    }
+
+    public HttpResponse(final HttpStatus status, final String contentType, final ByteBuffer body) {
+        this(status, contentType, new ByteBufferResponseBody(body), Map.of());
+    }
+
+    public HttpResponse(final HttpStatus status, final String contentType, final ResponseBody body) {
+        this(status, contentType, body, Map.of());
+    }
+
+    /**
+     * @param contentType the whole {@code Content-Type} line, see {@link #contentType(String)}
+     */
+    public HttpResponse(final HttpStatus status, final String contentType, final ResponseBody body,
+                        final Map<String, String> headers) {
+        this(status.getCode(), status.getStatusLine(), contentType, body, headers);
+    }
+
+    private HttpResponse(final int statusCode, final byte[] statusLine, final String contentType,
+                         final ResponseBody body, final Map<String, String> headers) {
+        this.statusCode = statusCode;
+        this.statusLine = statusLine;
         this.contentType = contentType;
         this.body = body;
-        this.headers = headers;
+        this.headers = new LinkedHashMap<>(headers);
+    }
+
+    private static int parseStatusCode(final String httpStatus) {
+        final var space = httpStatus.indexOf(' ');
+        return Integer.parseInt(space < 0 ? httpStatus : httpStatus.substring(0, space));
+    }
+
+    private static byte[] toStatusLine(final String httpStatus) {
+        final var status = HttpStatus.of(parseStatusCode(httpStatus));
+        if (status != null && status.toString().equals(httpStatus)) {
+            return status.getStatusLine();
+        }
+        return HttpStatus.encodeStatusLine(httpStatus);
+    }
+
+    /**
+     * The {@code Content-Type} line of a body of this MIME type. Only text is declared as UTF-8: a charset means
+     * nothing to images or archives, and clients may even try to decode them with it.
+     */
+    public static String contentType(final String mimeType) {
+        if (isText(mimeType)) {
+            return CONTENT_TYPE_PREFIX + mimeType + UTF_8_PARAMETER + " ";
+        }
+        return CONTENT_TYPE_PREFIX + mimeType + " ";
+    }
+
+    /**
+     * Whether bodies of the MIME type are characters, such as {@code text/css}, {@code application/json} or
+     * {@code image/svg+xml}.
+     */
+    public static boolean isText(final String mimeType) {
+        final var type = mimeType.toLowerCase(Locale.ROOT);
+        return type.startsWith("text/") || type.equals("application/javascript") || type.equals("application/json")
+                || type.equals("application/xml") || type.endsWith("+xml") || type.endsWith("+json");
+    }
+
+    private static byte[] encode(final String body) {
+        if (body == null) {
+            return null;
+        }
+        return body.getBytes(StandardCharsets.UTF_8);
     }
 
-    private String getHeaders() {
-        String joined = "";
-        if (headers != null) {
-            joined = headers.entrySet().stream()
-                    .map(entry -> entry.getKey() + ": " + entry.getValue() + " ")
-                    .collect(Collectors.joining("\r\n"));
+    public void addHeader(final String key, final String value) {
+        headers.put(key, value);
+    }
+
+    /**
+     * Add a field line even if one with the same name is there, for fields like {@code Set-Cookie} whose values
+     * cannot be joined into one line.
+     */
+    public void appendHeader(final String key, final String value) {
+        if (headers.putIfAbsent(key, value) != null) {
+            repeatedHeaders.add(key + ": " + value + " ");
         }
+    }
+
+    public boolean hasHeader(final String key) {
+        return headers.containsKey(key);
+    }
+
+    /**
+     * @return the three digit code of the status, like {@code 200} for {@code 200 OK}
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return the MIME type of the body without parameters, like {@code text/html}, or {@code null} without a body
+     */
+    @Nullable
+    public String getMimeType() {
         if (body == null) {
-            return joined;
+            return null;
         }
-        if (joined == "") {
-            return contentType + "\r\n" + "Content-Length: " + body.getBytes().length + " ";
+        return toMimeType(contentType);
+    }
+
+    /**
+     * @param contentType a {@code Content-Type} header line, or only its value
+     */
+    static String toMimeType(final String contentType) {
+        var mimeType = contentType.toLowerCase(Locale.ROOT);
+        final var colon = mimeType.indexOf(':');
+        if (colon >= 0) {
+            mimeType = mimeType.substring(colon + 1);
         }
-        return join("\r\n",
-                joined,
-                contentType,
-                "Content-Length: " + body.getBytes().length + " ");
+        final var semicolon = mimeType.indexOf(';');
+        if (semicolon >= 0) {
+            mimeType = mimeType.substring(0, semicolon);
+        }
+        return mimeType.trim();
+    }
+
+    /**
+     * Compress a text body of at least {@link ContentEncoding#MIN_SIZE} bytes, or of unknown length, with the
+     * negotiated coding. Bodies whose coding was already negotiated, like precompressed static files, and file
+     * regions are left alone.
+     */
+    public void compress(final ContentEncoding encoding) {
+        if (body == null || isNegotiated() || !ContentEncoding.isCompressible(contentType)) {
+            return;
+        }
+        final var length = body.getContentLength();
+        if (length >= 0 && (length < ContentEncoding.MIN_SIZE || !(body instanceof ByteArrayResponseBody))) {
+            return;
+        }
+        headers.merge(VARY, ACCEPT_ENCODING, (vary, value) -> vary + ", " + value);
+        if (encoding == ContentEncoding.IDENTITY) {
+            return;
+        }
+        headers.put(CONTENT_ENCODING, encoding.getName());
+        if (length >= 0) {
+            body = new ByteArrayResponseBody(encoding.encode(((ByteArrayResponseBody) body).getBytes()));
+            return;
+        }
+        final var streamed = body;
+        body = new StreamingResponseBody(outputStream -> {
+            try (final var encoder = encoding.wrap(outputStream)) {
+                streamed.writeTo(encoder);
+            }
+        });
+    }
+
+    private boolean isNegotiated() {
+        final var vary = headers.get(VARY);
+        // a part of a body is sent as it is, its range points into the identity
+        return headers.containsKey(CONTENT_ENCODING) || headers.containsKey(CONTENT_RANGE)
+                || (vary != null && vary.contains(ACCEPT_ENCODING));
     }
 
-    private String getBody() {
+    /**
+     * Whether a body of unknown length is sent chunked; if not, the end of the body is the end of the connection.
+     */
+    public void setChunked(final boolean chunked) {
+        this.chunked = chunked;
+    }
+
+    /**
+     * Bytes of a streamed body held before they are sent.
+     */
+    public void setBufferSize(final int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @return {@code false} if the body is streamed and its length is not known before it is written
+     */
+    public boolean hasContentLength() {
+        return body == null || body.getContentLength() >= 0;
+    }
+
+    private void writeHead(final HeaderWriter writer) {
+        writer.write(statusLine);
+        headers.forEach(writer::writeField);
+        for (String line : repeatedHeaders) {
+            writer.writeLine(line);
+        }
+        if (body != null) {
+            writer.writeLine(contentType);
+        }
+        if (isNotModified()) {
+            // never has a body, and a length would describe the representation it stands for
+            writer.endHead();
+            return;
+        }
+        // a persistent connection needs the length to find where the next response starts
+        if (hasContentLength()) {
+            writer.write(CONTENT_LENGTH_PREFIX).write(getContentLength()).write(TRAILING_SPACE_CRLF);
+        } else if (chunked) {
+            writer.write(TRANSFER_ENCODING_CHUNKED);
+        }
+        writer.endHead();
+    }
+
+    private boolean isNotModified() {
+        return statusCode == HttpStatus.NOT_MODIFIED.getCode();
+    }
+
+    private long getContentLength() {
         if (body == null) {
-            return "";
+            return 0;
         }
-        return "\r\n" + body;
+        return body.getContentLength();
+    }
+
+    @Nullable
+    public ResponseBody getBody() {
+        return body;
+    }
+
+    /**
+     * The whole response as text, for tests and logs; the connectors send it with {@link #writeTo}.
+     */
+    public String buildResponse() throws IOException {
+        final var output = new ByteArrayOutputStream();
+        writeTo(output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    public byte[] buildHeadBytes() {
+        final var writer = HeaderWriter.get();
+        writeHead(writer);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Write the status line and the header fields, encoded into the output with one write.
+     */
+    public void writeHead(final OutputStream outputStream) throws IOException {
+        final var writer = HeaderWriter.get();
+        writeHead(writer);
+        writer.writeTo(outputStream);
     }
 
-    public String buildResponse() {
-        String headers = getHeaders();
+    /**
+     * Write the head and the body as they are, without decoding and re-encoding the body.
+     */
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        writeTo(outputStream, null);
+    }
 
-        String startLine = "HTTP/1.1 " + httpStatus + " ";
-        String withHeader = join("\r\n", startLine, headers);
+    /**
+     * @param channel the socket channel of the connection, if it has one, for bodies sent without copying
+     */
+    public void writeTo(final OutputStream outputStream, @Nullable final WritableByteChannel channel)
+            throws IOException {
+        writeHead(outputStream);
+        writeBody(outputStream, channel);
+    }
 
-        String body = getBody();
-        return join("\r\n", withHeader, body);
+    private void writeBody(final OutputStream outputStream, @Nullable final WritableByteChannel channel)
+            throws IOException {
+        if (body == null) {
+            return;
+        }
+        if (hasContentLength()) {
+            body.writeTo(outputStream, channel);
+            return;
+        }
+        final var output = new ResponseOutputStream(outputStream, bufferSize, chunked);
+        body.writeTo(output);
+        // not reached when the writer fails, which leaves the body unterminated and the connection to be closed
+        output.finish();
     }
 
 }
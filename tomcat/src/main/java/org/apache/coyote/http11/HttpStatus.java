@@ -0,0 +1,103 @@
+package org.apache.coyote.http11;
+
+import java.nio.charset.StandardCharsets;
+import javax.annotation.Nullable;
+
+/**
+ * Statuses the server sends, each with its status line encoded once instead of for every response.
+ */
+public enum HttpStatus {
+
+    OK(200, "OK"),
+    CREATED(201, "Created"),
+    ACCEPTED(202, "Accepted"),
+    NO_CONTENT(204, "No Content"),
+    PARTIAL_CONTENT(206, "Partial Content"),
+    MOVED_PERMANENTLY(301, "Moved Permanently"),
+    FOUND(302, "Found"),
+    SEE_OTHER(303, "See Other"),
+    NOT_MODIFIED(304, "Not Modified"),
+    TEMPORARY_REDIRECT(307, "Temporary Redirect"),
+    PERMANENT_REDIRECT(308, "Permanent Redirect"),
+    BAD_REQUEST(400, "Bad Request"),
+    UNAUTHORIZED(401, "Unauthorized"),
+    FORBIDDEN(403, "Forbidden"),
+    NOT_FOUND(404, "Not Found"),
+    METHOD_NOT_ALLOWED(405, "Method Not Allowed"),
+    NOT_ACCEPTABLE(406, "Not Acceptable"),
+    REQUEST_TIMEOUT(408, "Request Timeout"),
+    CONFLICT(409, "Conflict"),
+    GONE(410, "Gone"),
+    LENGTH_REQUIRED(411, "Length Required"),
+    PRECONDITION_FAILED(412, "Precondition Failed"),
+    PAYLOAD_TOO_LARGE(413, "Payload Too Large"),
+    URI_TOO_LONG(414, "URI Too Long"),
+    UNSUPPORTED_MEDIA_TYPE(415, "Unsupported Media Type"),
+    RANGE_NOT_SATISFIABLE(416, "Range Not Satisfiable"),
+    TOO_MANY_REQUESTS(429, "Too Many Requests"),
+    INTERNAL_SERVER_ERROR(500, "Internal Server Error"),
+    NOT_IMPLEMENTED(501, "Not Implemented"),
+    BAD_GATEWAY(502, "Bad Gateway"),
+    SERVICE_UNAVAILABLE(503, "Service Unavailable"),
+    GATEWAY_TIMEOUT(504, "Gateway Timeout");
+
+    private static final int MAX_CODE = 599;
+    private static final HttpStatus[] BY_CODE = new HttpStatus[MAX_CODE + 1];
+
+    static {
+        for (HttpStatus status : values()) {
+            BY_CODE[status.code] = status;
+        }
+    }
+
+    private final int code;
+    private final String reasonPhrase;
+    private final byte[] statusLine;
+
+    HttpStatus(final int code, final String reasonPhrase) {
+        this.code = code;
+        this.reasonPhrase = reasonPhrase;
+        this.statusLine = encodeStatusLine(code + " " + reasonPhrase);
+    }
+
+    /**
+     * @return the status with this code, {@code null} for codes without a constant
+     */
+    @Nullable
+    public static HttpStatus of(final int code) {
+        if (code < 0 || code > MAX_CODE) {
+            return null;
+        }
+        return BY_CODE[code];
+    }
+
+    /**
+     * @param status code and reason phrase, like {@code 200 OK}
+     */
+    static byte[] encodeStatusLine(final String status) {
+        return (HttpRequest.DEFAULT_PROTOCOL + " " + status + " \r\n").getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getReasonPhrase() {
+        return reasonPhrase;
+    }
+
+    /**
+     * The status line with its line break; shared, so it must not be modified.
+     */
+    byte[] getStatusLine() {
+        return statusLine;
+    }
+
+    /**
+     * @return code and reason phrase, like {@code 200 OK}
+     */
+    @Override
+    public String toString() {
+        return code + " " + reasonPhrase;
+    }
+}
@@ -0,0 +1,88 @@
+package org.apache.coyote.http11;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maps file extensions to MIME types, such as {@code css} to {@code text/css}. The {@code Content-Type} line of each
+ * type is made once when it is added, with a charset only for text, so finding the type of a file is one map access.
+ * Files with an unknown or no extension are {@code application/octet-stream}.
+ */
+public class MimeTypes {
+
+    public static final String DEFAULT_MIME_TYPE = "application/octet-stream";
+
+    private static final String DEFAULT_CONTENT_TYPE = HttpResponse.contentType(DEFAULT_MIME_TYPE);
+
+    private final Map<String, String> contentTypes = new HashMap<>();
+
+    /**
+     * The types of the files a web application usually serves: pages, styles, scripts, data, images, fonts and
+     * media.
+     */
+    public static MimeTypes defaultTypes() {
+        final var mimeTypes = new MimeTypes();
+        mimeTypes.addType("html", "text/html");
+        mimeTypes.addType("htm", "text/html");
+        mimeTypes.addType("css", "text/css");
+        mimeTypes.addType("js", "text/javascript");
+        mimeTypes.addType("mjs", "text/javascript");
+        mimeTypes.addType("txt", "text/plain");
+        mimeTypes.addType("csv", "text/csv");
+        mimeTypes.addType("md", "text/markdown");
+        mimeTypes.addType("json", "application/json");
+        mimeTypes.addType("map", "application/json");
+        mimeTypes.addType("webmanifest", "application/manifest+json");
+        mimeTypes.addType("xml", "application/xml");
+        mimeTypes.addType("xhtml", "application/xhtml+xml");
+        mimeTypes.addType("pdf", "application/pdf");
+        mimeTypes.addType("zip", "application/zip");
+        mimeTypes.addType("gz", "application/gzip");
+        mimeTypes.addType("wasm", "application/wasm");
+        mimeTypes.addType("svg", "image/svg+xml");
+        mimeTypes.addType("png", "image/png");
+        mimeTypes.addType("jpg", "image/jpeg");
+        mimeTypes.addType("jpeg", "image/jpeg");
+        mimeTypes.addType("gif", "image/gif");
+        mimeTypes.addType("webp", "image/webp");
+        mimeTypes.addType("avif", "image/avif");
+        mimeTypes.addType("ico", "image/x-icon");
+        mimeTypes.addType("bmp", "image/bmp");
+        mimeTypes.addType("woff", "font/woff");
+        mimeTypes.addType("woff2", "font/woff2");
+        mimeTypes.addType("ttf", "font/ttf");
+        mimeTypes.addType("otf", "font/otf");
+        mimeTypes.addType("mp4", "video/mp4");
+        mimeTypes.addType("webm", "video/webm");
+        mimeTypes.addType("mp3", "audio/mpeg");
+        mimeTypes.addType("ogg", "audio/ogg");
+        mimeTypes.addType("wav", "audio/wav");
+        return mimeTypes;
+    }
+
+    /**
+     * Add a type or replace the type of an extension.
+     *
+     * @param extension without the dot, like {@code css}; case does not matter
+     */
+    public void addType(final String extension, final String mimeType) {
+        contentTypes.put(extension.toLowerCase(Locale.ROOT), HttpResponse.contentType(mimeType));
+    }
+
+    /**
+     * @return the whole {@code Content-Type} line for the file, like {@code Content-Type: text/css;charset=utf-8 }
+     */
+    public String getContentType(final String fileName) {
+        final var dot = fileName.lastIndexOf('.');
+        if (dot < 0 || dot < fileName.lastIndexOf('/')) {
+            return DEFAULT_CONTENT_TYPE;
+        }
+        final var extension = fileName.substring(dot + 1);
+        final var contentType = contentTypes.get(extension);
+        if (contentType != null) {
+            return contentType;
+        }
+        return contentTypes.getOrDefault(extension.toLowerCase(Locale.ROOT), DEFAULT_CONTENT_TYPE);
+    }
+}
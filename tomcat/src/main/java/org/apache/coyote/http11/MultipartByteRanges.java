@@ -0,0 +1,74 @@
+package org.apache.coyote.http11;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.annotation.Nullable;
+
+/**
+ * A {@code multipart/byteranges} body answering a request for several ranges. Each part is a body of its own, so
+ * ranges of a large file stay {@link FileRegion}s and are never read into memory.
+ */
+public class MultipartByteRanges implements ResponseBody {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private final String boundary;
+    private final List<byte[]> partHeads = new ArrayList<>();
+    private final List<ResponseBody> parts = new ArrayList<>();
+    private final byte[] end;
+    private long contentLength;
+
+    public MultipartByteRanges() {
+        this(Long.toHexString(ThreadLocalRandom.current().nextLong()) + Long.toHexString(System.nanoTime()));
+    }
+
+    public MultipartByteRanges(final String boundary) {
+        this.boundary = boundary;
+        this.end = ("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        this.contentLength = end.length;
+    }
+
+    /**
+     * @param contentType the {@code Content-Type} header line of the whole representation
+     */
+    public void addPart(final String contentType, final String contentRange, final ResponseBody part) {
+        final var head = String.join("\r\n", "--" + boundary, contentType.trim(), "Content-Range: " + contentRange,
+                "", "").getBytes(StandardCharsets.ISO_8859_1);
+        partHeads.add(head);
+        parts.add(part);
+        contentLength += head.length + part.getContentLength() + CRLF.length;
+    }
+
+    /**
+     * @return the {@code Content-Type} header line of this body
+     */
+    public String getContentType() {
+        return "Content-Type: multipart/byteranges; boundary=" + boundary + " ";
+    }
+
+    @Override
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        writeTo(outputStream, null);
+    }
+
+    @Override
+    public void writeTo(final OutputStream outputStream, @Nullable final WritableByteChannel channel)
+            throws IOException {
+        for (int i = 0; i < parts.size(); i++) {
+            outputStream.write(partHeads.get(i));
+            parts.get(i).writeTo(outputStream, channel);
+            outputStream.write(CRLF);
+        }
+        outputStream.write(end);
+    }
+}
@@ -0,0 +1,11 @@
+package org.apache.coyote.http11;
+
+/**
+ * The request body is larger than the parser accepts. Answered with {@code 413 Payload Too Large}.
+ */
+public class PayloadTooLargeException extends RuntimeException {
+
+    public PayloadTooLargeException(final long maxBodySize) {
+        super("request body exceeds " + maxBodySize + " bytes");
+    }
+}
@@ -0,0 +1,25 @@
+package org.apache.coyote.http11;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import javax.annotation.Nullable;
+
+/**
+ * What follows the head of a {@link HttpResponse}.
+ */
+public interface ResponseBody {
+
+    long getContentLength();
+
+    void writeTo(OutputStream outputStream) throws IOException;
+
+    /**
+     * Write to the connection. A body that can go straight from the file system to the socket uses
+     * {@code channel} when the connection has one; everything else is written to {@code outputStream}.
+     */
+    default void writeTo(final OutputStream outputStream, @Nullable final WritableByteChannel channel)
+            throws IOException {
+        writeTo(outputStream);
+    }
+}
@@ -0,0 +1,115 @@
+package org.apache.coyote.http11;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Output of a body of unknown length. Bytes are collected in a fixed buffer and sent when it is full or on
+ * {@link #flush()}, as one chunk each when {@code chunked}. Only {@link #finish()} ends the body with the last chunk,
+ * so a body whose writer failed halfway, and closed the stream on its way out, is not taken for a complete one.
+ * Neither leaves the connection closed nor flushes it; that is up to whoever writes the responses.
+ */
+public class ResponseOutputStream extends OutputStream {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] LAST_CHUNK = {'0', '\r', '\n', '\r', '\n'};
+
+    private final OutputStream outputStream;
+    private final byte[] buffer;
+    private final boolean chunked;
+    private int count;
+    private boolean closed;
+    private boolean finished;
+
+    public ResponseOutputStream(final OutputStream outputStream, final int bufferSize, final boolean chunked) {
+        this.outputStream = outputStream;
+        this.buffer = new byte[bufferSize];
+        this.chunked = chunked;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        ensureOpen();
+        if (count == buffer.length) {
+            writeBuffer();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        ensureOpen();
+        if (len == 0) {
+            return;
+        }
+        if (len >= buffer.length) {
+            // too large to buffer: send what is buffered and then this as its own chunk
+            writeBuffer();
+            writeChunk(b, off, len);
+            return;
+        }
+        if (len > buffer.length - count) {
+            writeBuffer();
+        }
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        writeBuffer();
+        outputStream.flush();
+    }
+
+    /**
+     * Send what is buffered; further writes fail. The body is not ended, see {@link #finish()}.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        writeBuffer();
+        closed = true;
+    }
+
+    /**
+     * End the body once its writer has returned normally: send what is buffered and the last chunk.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        close();
+        if (chunked) {
+            outputStream.write(LAST_CHUNK);
+        }
+        finished = true;
+    }
+
+    private void writeBuffer() throws IOException {
+        if (count > 0) {
+            writeChunk(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    private void writeChunk(final byte[] b, final int off, final int len) throws IOException {
+        if (!chunked) {
+            outputStream.write(b, off, len);
+            return;
+        }
+        outputStream.write(Integer.toHexString(len).getBytes(StandardCharsets.US_ASCII));
+        outputStream.write(CRLF);
+        outputStream.write(b, off, len);
+        outputStream.write(CRLF);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("response body already ended");
+        }
+    }
+}
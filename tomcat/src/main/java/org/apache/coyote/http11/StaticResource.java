@@ -0,0 +1,170 @@
+package org.apache.coyote.http11;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * A file under {@code static/} with everything needed to answer it computed once at load time. Small files keep
+ * their bytes; large ones are only described and sent from the file as a {@link FileRegion}. Text is also kept
+ * compressed, so negotiating a {@link ContentEncoding} costs nothing per request.
+ */
+public class StaticResource {
+
+    private static final DateTimeFormatter HTTP_DATE =
+            DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.ENGLISH);
+    private static final int VERSION_LENGTH = 16;
+
+    private final String path;
+    private final Path file;
+    private final byte[] body;
+    private final long contentLength;
+    private final String contentType;
+    private final String etag;
+    private final String version;
+    private final long lastModified;
+    private final String lastModifiedHeader;
+    private final ResponseBody responseBody;
+    private final Map<ContentEncoding, ResponseBody> encodedBodies = new EnumMap<>(ContentEncoding.class);
+    private final Map<ContentEncoding, String> encodedEtags = new EnumMap<>(ContentEncoding.class);
+    private long encodedSize;
+
+    /**
+     * @param contentHash hex digest of the content, the source of the ETag and of the version in versioned URLs
+     */
+    public StaticResource(final String path, final byte[] body, final String contentType, final String contentHash,
+                          final long lastModified) {
+        this(path, null, body, body.length, contentType, contentHash, lastModified);
+    }
+
+    public StaticResource(final String path, final Path file, final long contentLength, final String contentType,
+                          final String contentHash, final long lastModified) {
+        this(path, file, null, contentLength, contentType, contentHash, lastModified);
+    }
+
+    private StaticResource(final String path, final Path file, final byte[] body, final long contentLength,
+                           final String contentType, final String contentHash, final long lastModified) {
+        this.path = path;
+        this.file = file;
+        this.body = body;
+        this.contentLength = contentLength;
+        this.contentType = contentType;
+        this.etag = "\"0" + contentHash + "\"";
+        this.version = contentHash.substring(0, Math.min(VERSION_LENGTH, contentHash.length()));
+        this.lastModified = lastModified;
+        this.lastModifiedHeader = HTTP_DATE.format(Instant.ofEpochMilli(lastModified).atOffset(ZoneOffset.UTC));
+        this.responseBody = body != null ? new ByteArrayResponseBody(body) : new FileRegion(file, 0, contentLength);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the bytes of the file or {@code null} if it is sent from the file
+     */
+    @Nullable
+    public byte[] getBody() {
+        return body;
+    }
+
+    @Nullable
+    public Path getFile() {
+        return file;
+    }
+
+    public ResponseBody getResponseBody() {
+        return responseBody;
+    }
+
+    /**
+     * @return {@code range} of the uncompressed body, still sent from the file if the resource is
+     */
+    public ResponseBody getResponseBody(final ByteRange range) {
+        if (body == null) {
+            return new FileRegion(file, range.getFirst(), range.getLength());
+        }
+        return new ByteArrayResponseBody(Arrays.copyOfRange(body, (int) range.getFirst(), (int) range.getLast() + 1));
+    }
+
+    /**
+     * @return the body compressed with {@code encoding} or {@code null} if there is no such variant
+     */
+    @Nullable
+    public ResponseBody getResponseBody(final ContentEncoding encoding) {
+        if (encoding == ContentEncoding.IDENTITY) {
+            return responseBody;
+        }
+        return encodedBodies.get(encoding);
+    }
+
+    /**
+     * @return whether there is a compressed variant, i.e. the response depends on {@code Accept-Encoding}
+     */
+    public boolean isEncoded() {
+        return !encodedBodies.isEmpty();
+    }
+
+    /**
+     * Keep a compressed variant of the body. Only called while the resource is loaded, before it is shared.
+     */
+    void putEncodedBody(final ContentEncoding encoding, final byte[] encodedBody) {
+        final var previous = encodedBodies.put(encoding, new ByteArrayResponseBody(encodedBody));
+        if (previous != null) {
+            encodedSize -= previous.getContentLength();
+        }
+        encodedSize += encodedBody.length;
+        // each coding is a different representation and needs its own strong validator
+        encodedEtags.put(encoding, etag.substring(0, etag.length() - 1) + "-" + encoding.getName() + "\"");
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * @return bytes this resource holds in memory
+     */
+    public long getCachedSize() {
+        return (body == null ? 0 : body.length) + encodedSize;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * @return the part of the content hash that names this content in a versioned URL
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the ETag of the variant sent with {@code encoding}
+     */
+    public String getEtag(final ContentEncoding encoding) {
+        return encodedEtags.getOrDefault(encoding, etag);
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return the modification time as an HTTP date, for {@code Last-Modified}
+     */
+    public String getLastModifiedHeader() {
+        return lastModifiedHeader;
+    }
+}
@@ -0,0 +1,311 @@
+package org.apache.coyote.http11;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import org.apache.catalina.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Files under {@code static/} kept in memory with their bytes, Content-Type, Content-Length and ETag, so a hit is a
+ * map lookup. The ETag is a strong hash of the content, computed once per version of the file. Least recently used
+ * entries are evicted once the cached bodies exceed {@code maxSize} bytes. Files of {@code fileRegionSize} bytes or
+ * more only have their metadata cached and are sent with sendfile instead. Text up to a twentieth of
+ * {@code maxSize} is compressed once at load time and the variants are cached with the raw bytes.
+ */
+public class StaticResourceCache {
+
+    private static final Logger log = LoggerFactory.getLogger(StaticResourceCache.class);
+
+    public static final long DEFAULT_MAX_SIZE = 10 * 1024 * 1024;
+    public static final long DEFAULT_FILE_REGION_SIZE = 48 * 1024;
+    public static final String VERSIONED_PATH_PREFIX = "/resources/";
+
+    private static final String STATIC_DIRECTORY = "static";
+    private static final String PARENT_DIRECTORY = "..";
+    private static final int OBJECT_MAX_SIZE_RATIO = 20;
+    private static final MimeTypes DEFAULT_MIME_TYPES = MimeTypes.defaultTypes();
+
+    private final long maxSize;
+    private final long fileRegionSize;
+    private final long maxEncodedSize;
+    private final boolean checkModified;
+    private final MimeTypes mimeTypes;
+    private final Map<String, StaticResource> resources = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+
+    public StaticResourceCache() {
+        this(DEFAULT_MAX_SIZE, false);
+    }
+
+    /**
+     * @param checkModified compare the file's modification time on every hit and reload it when it changed
+     */
+    public StaticResourceCache(final long maxSize, final boolean checkModified) {
+        this(maxSize, checkModified, DEFAULT_FILE_REGION_SIZE);
+    }
+
+    /**
+     * @param fileRegionSize files at least this large are sent from the file system instead of being held in
+     *                       memory; never more than a twentieth of {@code maxSize}
+     */
+    public StaticResourceCache(final long maxSize, final boolean checkModified, final long fileRegionSize) {
+        this(maxSize, checkModified, fileRegionSize, DEFAULT_MIME_TYPES);
+    }
+
+    /**
+     * @param mimeTypes gives the Content-Type of each file, found once when the file is loaded
+     */
+    public StaticResourceCache(final long maxSize, final boolean checkModified, final long fileRegionSize,
+                               final MimeTypes mimeTypes) {
+        this.maxSize = maxSize;
+        this.fileRegionSize = Math.min(fileRegionSize, maxSize / OBJECT_MAX_SIZE_RATIO);
+        this.maxEncodedSize = maxSize / OBJECT_MAX_SIZE_RATIO;
+        this.checkModified = checkModified;
+        this.mimeTypes = mimeTypes;
+    }
+
+    /**
+     * @return the resource or {@code null} if there is no such file under {@code static/}
+     */
+    @Nullable
+    public StaticResource get(final String path) throws IOException {
+        final var cached = find(path);
+        if (cached != null && !isModified(cached)) {
+            hits.increment();
+            return cached;
+        }
+        final var file = getFile(path);
+        if (file == null) {
+            notFound.increment();
+            return null;
+        }
+        misses.increment();
+        final var resource = load(path, file);
+        put(resource);
+        return resource;
+    }
+
+    /**
+     * @return {@code /resources/{version}/path}, naming the current content of the file so it can be cached forever,
+     * or {@code path} itself if there is no such file
+     */
+    public String getVersionedPath(final String path) throws IOException {
+        final var resource = get(path);
+        if (resource == null) {
+            return path;
+        }
+        return VERSIONED_PATH_PREFIX + resource.getVersion() + path;
+    }
+
+    public static boolean isVersionedPath(final String uri) {
+        return uri.startsWith(VERSIONED_PATH_PREFIX);
+    }
+
+    /**
+     * @return the resource a versioned path names or {@code null} if there is no such file or its content is not
+     * the version in the path anymore
+     */
+    @Nullable
+    public StaticResource getVersioned(final String uri) throws IOException {
+        if (!isVersionedPath(uri)) {
+            return null;
+        }
+        final var slash = uri.indexOf('/', VERSIONED_PATH_PREFIX.length());
+        if (slash < 0) {
+            return null;
+        }
+        final var version = uri.substring(VERSIONED_PATH_PREFIX.length(), slash);
+        final var resource = get(uri.substring(slash));
+        if (resource == null || !resource.getVersion().equals(version)) {
+            return null;
+        }
+        return resource;
+    }
+
+    /**
+     * @return the path of every file under {@code static/}, or {@code null} if the directory is not on the file
+     * system, e.g. inside a jar, and files can only be looked up one by one
+     */
+    @Nullable
+    public List<String> listPaths() throws IOException {
+        final URL root = getClass().getClassLoader().getResource(STATIC_DIRECTORY);
+        if (root == null || !"file".equals(root.getProtocol())) {
+            return null;
+        }
+        final Path directory;
+        try {
+            directory = Path.of(root.toURI());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .map(file -> "/" + directory.relativize(file).toString().replace(File.separatorChar, '/'))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Export lookups by outcome and what the cache holds.
+     */
+    public void registerMetrics(final MetricRegistry registry) {
+        final var lookups = "static_cache_lookups_total";
+        final var lookupsHelp = "Static resource lookups: served from memory, loaded from disk, or not found.";
+        registry.counter(lookups, lookupsHelp, hits::sum, "result", "hit");
+        registry.counter(lookups, lookupsHelp, misses::sum, "result", "miss");
+        registry.counter(lookups, lookupsHelp, notFound::sum, "result", "not_found");
+        registry.gauge("static_cache_bytes", "Bytes of static resources held in memory, compressed variants included.",
+                this::getSize);
+        registry.gauge("static_cache_resources", "Static resources cached.", this::getResourceCount);
+    }
+
+    private synchronized long getSize() {
+        return size;
+    }
+
+    private synchronized int getResourceCount() {
+        return resources.size();
+    }
+
+    private synchronized StaticResource find(final String path) {
+        return resources.get(path);
+    }
+
+    private synchronized void put(final StaticResource resource) {
+        final var previous = resources.put(resource.getPath(), resource);
+        if (previous != null) {
+            size -= previous.getCachedSize();
+        }
+        size += resource.getCachedSize();
+        evict();
+    }
+
+    private void evict() {
+        final var iterator = resources.values().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            final var eldest = iterator.next();
+            size -= eldest.getCachedSize();
+            iterator.remove();
+        }
+    }
+
+    private boolean isModified(final StaticResource resource) {
+        if (!checkModified) {
+            return false;
+        }
+        final var file = getFile(resource.getPath());
+        return file == null || file.lastModified() != resource.getLastModified();
+    }
+
+    @Nullable
+    private File getFile(final String path) {
+        if (path.contains(PARENT_DIRECTORY)) {
+            return null;
+        }
+        final URL resource = getClass().getClassLoader().getResource(STATIC_DIRECTORY + path);
+        if (resource == null) {
+            return null;
+        }
+        try {
+            final var file = new File(resource.toURI());
+            if (!file.isFile()) {
+                return null;
+            }
+            return file;
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            log.warn("static resource is not a file: {}", resource);
+            return null;
+        }
+    }
+
+    private StaticResource load(final String path, final File file) throws IOException {
+        final var lastModified = file.lastModified();
+        final var length = file.length();
+        final var contentType = mimeTypes.getContentType(file.getName());
+        final var compressible = ContentEncoding.isCompressible(contentType)
+                && length >= ContentEncoding.MIN_SIZE && length <= maxEncodedSize;
+        if (length >= fileRegionSize) {
+            if (!compressible) {
+                return new StaticResource(path, file.toPath(), length, contentType, hash(file), lastModified);
+            }
+            final var body = Files.readAllBytes(file.toPath());
+            final var resource = new StaticResource(path, file.toPath(), length, contentType, hash(body),
+                    lastModified);
+            encode(resource, body);
+            return resource;
+        }
+        final var body = Files.readAllBytes(file.toPath());
+        final var resource = new StaticResource(path, body, contentType, hash(body), lastModified);
+        if (compressible) {
+            encode(resource, body);
+        }
+        return resource;
+    }
+
+    private void encode(final StaticResource resource, final byte[] body) {
+        for (ContentEncoding encoding : ContentEncoding.values()) {
+            if (encoding == ContentEncoding.IDENTITY) {
+                continue;
+            }
+            final var encoded = encoding.encode(body);
+            // already compressed data can grow
+            if (encoded.length < body.length) {
+                resource.putEncodedBody(encoding, encoded);
+            }
+        }
+    }
+
+    private String hash(final byte[] body) {
+        final var digest = createDigest();
+        digest.update(body);
+        return toHex(digest);
+    }
+
+    /**
+     * Hash a file too large to keep in memory without reading it into memory either.
+     */
+    private String hash(final File file) throws IOException {
+        final var digest = createDigest();
+        try (final var input = Files.newInputStream(file.toPath())) {
+            final var buffer = new byte[HttpResponse.DEFAULT_BUFFER_SIZE];
+            for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest);
+    }
+
+    private MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toHex(final MessageDigest digest) {
+        final var hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
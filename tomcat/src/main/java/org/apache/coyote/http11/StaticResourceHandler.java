@@ -0,0 +1,252 @@
+package org.apache.coyote.http11;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.catalina.mapper.Controller;
+import org.apache.catalina.mapper.RequestMapping;
+
+/**
+ * Serves the files under {@code static/} with conditional and range requests, and the error pages of the
+ * application.
+ */
+public class StaticResourceHandler implements Controller {
+
+    public static final String NOT_FOUND_PAGE = "/404.html";
+
+    private static final String VERSIONED_PATTERN = StaticResourceCache.VERSIONED_PATH_PREFIX + "{version}/"
+            + RequestMapping.CATCH_ALL;
+
+    private final StaticResourceCache resourceCache;
+    private final CachePolicy cachePolicy;
+    private Set<String> paths;
+
+    public StaticResourceHandler(final StaticResourceCache resourceCache, final CachePolicy cachePolicy) {
+        this.resourceCache = resourceCache;
+        this.cachePolicy = cachePolicy;
+    }
+
+    /**
+     * Add a GET route for every file under {@code static/} and one for their versioned paths, so a path that names
+     * no file is a miss of the mapper and never a class loader lookup. Files added later are not served until the
+     * next start. When the files cannot be listed, every GET path is looked up instead.
+     */
+    public void register(final RequestMapping mapping) throws IOException {
+        final List<String> files = resourceCache.listPaths();
+        if (files == null) {
+            mapping.get("/" + RequestMapping.CATCH_ALL, this);
+        } else {
+            paths = new HashSet<>(files);
+            for (String path : files) {
+                mapping.get(path, this);
+            }
+        }
+        mapping.get(VERSIONED_PATTERN, this::serveVersioned);
+        mapping.setNotFound(this::notFound);
+    }
+
+    @Override
+    public HttpResponse service(final HttpRequest request) throws IOException {
+        return serve(request, request.getUri());
+    }
+
+    /**
+     * Serve the file at {@code path} whatever the request's path is, e.g. a page for an endpoint.
+     */
+    public HttpResponse serve(final HttpRequest request, final String path) throws IOException {
+        final var resource = resourceCache.get(path);
+        if (resource == null) {
+            return notFound(request);
+        }
+        final var cacheControl = cachePolicy.getCacheControl(request.getUri(),
+                HttpResponse.toMimeType(resource.getContentType()));
+        return serveResource(request, resource, cacheControl);
+    }
+
+    /**
+     * A versioned path names one content of a file, so whatever is served for it never changes.
+     */
+    public HttpResponse serveVersioned(final HttpRequest request) throws IOException {
+        final var path = request.getPathVariable(RequestMapping.CATCH_ALL);
+        if (paths != null && !paths.contains(path)) {
+            return notFound(request);
+        }
+        final var resource = resourceCache.getVersioned(request.getUri());
+        if (resource == null) {
+            return notFound(request);
+        }
+        return serveResource(request, resource, CachePolicy.IMMUTABLE);
+    }
+
+    public HttpResponse notFound(final HttpRequest request) throws IOException {
+        return getErrorPage(request, HttpStatus.NOT_FOUND, NOT_FOUND_PAGE);
+    }
+
+    public HttpResponse getErrorPage(final HttpRequest request, final HttpStatus status, final String errorPage)
+            throws IOException {
+        final var resource = resourceCache.get(errorPage);
+        if (resource == null) {
+            return new HttpResponse(status, "Content-Type: text/plain;charset=utf-8 ", status.toString());
+        }
+        return toResponse(status, resource, selectEncoding(request, resource));
+    }
+
+    private HttpResponse serveResource(final HttpRequest request, final StaticResource resource,
+                                       @Nullable final String cacheControl) {
+        final var ranges = getRanges(request, resource);
+        // ranges point into the uncompressed file
+        final var encoding = ranges == null ? selectEncoding(request, resource) : ContentEncoding.IDENTITY;
+        final var etag = resource.getEtag(encoding);
+        final HttpResponse response;
+        if (isNotModified(request, resource, etag)) {
+            response = new HttpResponse(HttpStatus.NOT_MODIFIED, Map.of("ETag", etag));
+            addVary(response, resource);
+        } else if (ranges != null && ranges.isEmpty()) {
+            response = new HttpResponse(HttpStatus.RANGE_NOT_SATISFIABLE,
+                    Map.of("Content-Range", "bytes */" + resource.getContentLength()));
+        } else {
+            response = ranges == null
+                    ? toResponse(HttpStatus.OK, resource, encoding)
+                    : toPartialResponse(resource, ranges);
+            response.addHeader("ETag", etag);
+            response.addHeader("Last-Modified", resource.getLastModifiedHeader());
+            response.addHeader("Accept-Ranges", "bytes");
+        }
+        if (cacheControl != null) {
+            response.addHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+        return response;
+    }
+
+    /**
+     * @return the ranges asked for, or {@code null} to send the whole resource: without a valid Range header, or
+     * when If-Range shows the client's copy is not the current one
+     */
+    @Nullable
+    private List<ByteRange> getRanges(final HttpRequest request, final StaticResource resource) {
+        final var range = request.getHeader(HttpHeaders.RANGE);
+        if (range == null || !request.isGet()) {
+            return null;
+        }
+        final var ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !matchesIfRange(ifRange, resource)) {
+            return null;
+        }
+        return ByteRange.parse(range, resource.getContentLength());
+    }
+
+    /**
+     * If-Range needs a strong match: a weak ETag never matches and a date only if it is exactly Last-Modified.
+     */
+    private boolean matchesIfRange(final String ifRange, final StaticResource resource) {
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(resource.getEtag());
+        }
+        if (ifRange.startsWith("W/")) {
+            return false;
+        }
+        try {
+            final var date = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return resource.getLastModified() / 1000 == date.toEpochSecond();
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private HttpResponse toPartialResponse(final StaticResource resource, final List<ByteRange> ranges) {
+        final var length = resource.getContentLength();
+        final HttpResponse response;
+        if (ranges.size() == 1) {
+            final var range = ranges.get(0);
+            response = new HttpResponse(HttpStatus.PARTIAL_CONTENT, resource.getContentType(),
+                    resource.getResponseBody(range));
+            response.addHeader("Content-Range", range.toContentRange(length));
+        } else {
+            final var body = new MultipartByteRanges();
+            for (ByteRange range : ranges) {
+                body.addPart(resource.getContentType(), range.toContentRange(length), resource.getResponseBody(range));
+            }
+            response = new HttpResponse(HttpStatus.PARTIAL_CONTENT, body.getContentType(), body);
+        }
+        addVary(response, resource);
+        return response;
+    }
+
+    /**
+     * If-None-Match takes precedence over If-Modified-Since, which is only compared to whole seconds.
+     */
+    private boolean isNotModified(final HttpRequest request, final StaticResource resource, final String etag) {
+        if (!request.isGet()) {
+            return false;
+        }
+        final var ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return matchesAny(ifNoneMatch, etag);
+        }
+        final var ifModifiedSince = request.getHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        if (ifModifiedSince == null) {
+            return false;
+        }
+        try {
+            final var since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return resource.getLastModified() / 1000 <= since.toEpochSecond();
+        } catch (DateTimeParseException e) {
+            // an invalid date is ignored
+            return false;
+        }
+    }
+
+    private boolean matchesAny(final String ifNoneMatch, final String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            var tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            // If-None-Match uses the weak comparison
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the negotiated coding if the resource has a variant in it, otherwise identity
+     */
+    private ContentEncoding selectEncoding(final HttpRequest request, final StaticResource resource) {
+        if (!resource.isEncoded()) {
+            return ContentEncoding.IDENTITY;
+        }
+        final var encoding = ContentEncoding.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (resource.getResponseBody(encoding) == null) {
+            return ContentEncoding.IDENTITY;
+        }
+        return encoding;
+    }
+
+    private HttpResponse toResponse(final HttpStatus status, final StaticResource resource,
+                                    final ContentEncoding encoding) {
+        final var response = new HttpResponse(status, resource.getContentType(),
+                resource.getResponseBody(encoding));
+        if (encoding != ContentEncoding.IDENTITY) {
+            response.addHeader("Content-Encoding", encoding.getName());
+        }
+        addVary(response, resource);
+        return response;
+    }
+
+    private void addVary(final HttpResponse response, final StaticResource resource) {
+        if (resource.isEncoded()) {
+            response.addHeader("Vary", "Accept-Encoding");
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.apache.coyote.http11;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A body generated while it is written, for responses that are long or whose length is not known up front. The
+ * response is sent with {@code Transfer-Encoding: chunked}, or closes the connection for HTTP/1.0 clients, and the
+ * server never holds more than the output buffer of it.
+ */
+public class StreamingResponseBody implements ResponseBody {
+
+    private final BodyWriter writer;
+
+    public StreamingResponseBody(final BodyWriter writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * @return -1, the length is only known once the body has been written
+     */
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        writer.writeTo(outputStream);
+    }
+}
@@ -0,0 +1,154 @@
+package nextstep.org.apache.catalina;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.catalina.AccessLog;
+import org.apache.catalina.AccessLog.Format;
+import org.apache.catalina.AccessLog.OverflowPolicy;
+import org.apache.coyote.http11.HttpRequest;
+import org.apache.coyote.http11.HttpResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class AccessLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void combinedFormat() throws IOException {
+        //given
+        final var file = directory.resolve("access.log");
+        final var accessLog = new AccessLog(file);
+        final var request = new HttpRequest("GET", "/index.html",
+                Map.of("Referer", "http://localhost:8080/", "User-Agent", "curl/8.0"), "", Map.of());
+        final var response = new HttpResponse("200 OK", "Content-Type: text/html;charset=utf-8 ", "Hello world!");
+
+        //when
+        accessLog.start();
+        accessLog.log(InetAddress.getLoopbackAddress(), request, response, TimeUnit.MICROSECONDS.toNanos(412));
+        accessLog.stop();
+
+        //then
+        final var lines = Files.readAllLines(file);
+        assertAll(
+                () -> assertThat(lines).hasSize(1),
+                () -> assertThat(lines.get(0)).matches("127\\.0\\.0\\.1 - - \\[\\d{2}/\\w{3}/\\d{4}:\\d{2}:\\d{2}:\\d{2} "
+                        + "[+-]\\d{4}] \"GET /index\\.html HTTP/1\\.1\" 200 12 \"http://localhost:8080/\" \"curl/8\\.0\" 412")
+        );
+    }
+
+    @Test
+    void commonFormatWithoutLength() throws IOException {
+        //given
+        final var file = directory.resolve("access.log");
+        final var accessLog = new AccessLog(file, Format.COMMON, OverflowPolicy.DROP, 16);
+        final var request = new HttpRequest("POST", "/login", Map.of(), "", Map.of());
+        final var response = new HttpResponse("302 Found", Map.of("Location", "/index.html"));
+
+        //when
+        accessLog.start();
+        accessLog.log(null, request, response, TimeUnit.MILLISECONDS.toNanos(3));
+        accessLog.stop();
+
+        //then
+        assertThat(Files.readAllLines(file).get(0)).endsWith("\"POST /login HTTP/1.1\" 302 - 3000");
+    }
+
+    @Test
+    void escapeQuotesAndControlCharacters() throws IOException {
+        //given
+        final var file = directory.resolve("access.log");
+        final var accessLog = new AccessLog(file);
+        final var request = new HttpRequest("GET", "/", Map.of("User-Agent", "evil\"\n127.0.0.1"), "", Map.of());
+        final var response = new HttpResponse("200 OK", Map.of());
+
+        //when
+        accessLog.start();
+        accessLog.log(null, request, response, 0);
+        accessLog.stop();
+
+        //then
+        final var lines = Files.readAllLines(file);
+        assertAll(
+                () -> assertThat(lines).hasSize(1),
+                () -> assertThat(lines.get(0)).contains("\"evil\\\"\\x0a127.0.0.1\"")
+        );
+    }
+
+    @Test
+    void dropWhenFull() throws IOException {
+        //given
+        final var file = directory.resolve("access.log");
+        final var accessLog = new AccessLog(file, Format.COMMON, OverflowPolicy.DROP, 2);
+        final var request = new HttpRequest("GET", "/", Map.of(), "", Map.of());
+        final var response = new HttpResponse("200 OK", Map.of());
+
+        //when
+        for (int i = 0; i < 3; i++) {
+            accessLog.log(null, request, response, 0);
+        }
+        accessLog.start();
+        accessLog.stop();
+
+        //then
+        assertAll(
+                () -> assertThat(accessLog.getDroppedEntries()).isEqualTo(1L),
+                () -> assertThat(Files.readAllLines(file)).hasSize(2)
+        );
+    }
+
+    @Test
+    void blockUntilWritten() throws IOException, InterruptedException {
+        //given
+        final var file = directory.resolve("access.log");
+        final var accessLog = new AccessLog(file, Format.COMMON, OverflowPolicy.BLOCK, 4);
+        final var request = new HttpRequest("GET", "/", Map.of(), "", Map.of());
+        final var response = new HttpResponse("200 OK", Map.of());
+
+        //when
+        accessLog.start();
+        final var threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    accessLog.log(null, request, response, 0);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        accessLog.stop();
+
+        //then
+        assertAll(
+                () -> assertThat(accessLog.getDroppedEntries()).isEqualTo(0L),
+                () -> assertThat(Files.readAllLines(file)).hasSize(4000)
+        );
+    }
+
+    @Test
+    void blockDropsWithoutWriter() {
+        //given
+        final var accessLog = new AccessLog(directory.resolve("access.log"), Format.COMMON, OverflowPolicy.BLOCK, 2);
+        final var request = new HttpRequest("GET", "/", Map.of(), "", Map.of());
+        final var response = new HttpResponse("200 OK", Map.of());
+
+        //when
+        for (int i = 0; i < 3; i++) {
+            accessLog.log(null, request, response, 0);
+        }
+
+        //then
+        assertThat(accessLog.getDroppedEntries()).isEqualTo(1L);
+    }
+}
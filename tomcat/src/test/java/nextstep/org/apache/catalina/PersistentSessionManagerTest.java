@@ -0,0 +1,163 @@
+package nextstep.org.apache.catalina;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import nextstep.jwp.db.InMemoryUserRepository;
+import nextstep.jwp.model.User;
+import org.apache.catalina.PersistentSessionManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PersistentSessionManagerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoreAfterStop() {
+        //given
+        final var sessionManager = new PersistentSessionManager(directory, InMemoryUserRepository::findByAccount);
+        sessionManager.start();
+        final var session = sessionManager.createSession();
+        final var key = session.addUser(InMemoryUserRepository.findByAccount("gugu").get());
+        final var removed = sessionManager.createSession();
+        sessionManager.remove(removed);
+        sessionManager.stop();
+
+        //when
+        final var restarted = new PersistentSessionManager(directory, InMemoryUserRepository::findByAccount);
+        restarted.start();
+
+        //then
+        final var restored = restarted.findSession(session.getId());
+        assertAll(
+                () -> assertThat(restarted.getActiveSessions()).isEqualTo(1),
+                () -> assertThat(restored.getUser(key).getAccount()).isEqualTo("gugu"),
+                () -> assertThat(restored.getCreationTime()).isEqualTo(session.getCreationTime()),
+                () -> assertThat(restarted.findSession(removed.getId())).isNull()
+        );
+        restarted.stop();
+    }
+
+    @Test
+    void restoreFromLogAfterCrash() throws IOException {
+        //given
+        final var sessionManager = new PersistentSessionManager(directory, InMemoryUserRepository::findByAccount);
+        sessionManager.start();
+        final var session = sessionManager.createSession();
+        session.addUser(InMemoryUserRepository.findByAccount("gugu").get());
+
+        //when
+        sessionManager.flush();
+        final var restarted = new PersistentSessionManager(directory, InMemoryUserRepository::findByAccount);
+        restarted.load();
+
+        //then
+        assertThat(restarted.findSession(session.getId())).isNotNull();
+        sessionManager.stop();
+    }
+
+    @Test
+    void restoreAttributesAfterStop() {
+        //given
+        final var sessionManager = new PersistentSessionManager(directory, InMemoryUserRepository::findByAccount);
+        sessionManager.start();
+        final var session = sessionManager.createSession();
+        session.setAttribute("cart", new ArrayList<>(List.of("apple", "pear")));
+        session.setAttribute("removed", "value");
+        session.removeAttribute("removed");
+        session.setAttribute("thread", new Object());
+        final var changed = sessionManager.changeSessionId(session);
+        sessionManager.stop();
+
+        //when
+        final var restarted = new PersistentSessionManager(directory, InMemoryUserRepository::findByAccount);
+        restarted.start();
+
+        //then
+        final var restored = restarted.findSession(changed.getId());
+        assertAll(
+                () -> assertThat(restored.getAttribute("cart")).isEqualTo(List.of("apple", "pear")),
+                () -> assertThat(restored.getAttribute("removed")).isNull(),
+                () -> assertThat(restored.getAttribute("thread")).isNull()
+        );
+        restarted.stop();
+    }
+
+    @Test
+    void restoreAttributesFromLogAfterCrash() throws IOException {
+        //given
+        final var sessionManager = new PersistentSessionManager(directory, InMemoryUserRepository::findByAccount);
+        sessionManager.start();
+        final var session = sessionManager.createSession();
+        session.setAttribute("count", 1);
+        session.setAttribute("count", 2);
+        session.setAttribute("removed", "value");
+        session.setAttribute("removed", null);
+
+        //when
+        sessionManager.flush();
+        final var restarted = new PersistentSessionManager(directory, InMemoryUserRepository::findByAccount);
+        restarted.load();
+
+        //then
+        final var restored = restarted.findSession(session.getId());
+        assertAll(
+                () -> assertThat(restored.getAttribute("count")).isEqualTo(2),
+                () -> assertThat(restored.getAttribute("removed")).isNull()
+        );
+        sessionManager.stop();
+    }
+
+    @Test
+    void dropSessionOfUnknownUser() {
+        //given
+        final var sessionManager = new PersistentSessionManager(directory, InMemoryUserRepository::findByAccount);
+        sessionManager.start();
+        final var session = sessionManager.createSession();
+        session.addUser(new User("unknown", "password", "unknown@woowahan.com"));
+        sessionManager.stop();
+
+        //when
+        final var restarted = new PersistentSessionManager(directory, account -> Optional.empty());
+        restarted.start();
+
+        //then
+        assertThat(restarted.findSession(session.getId())).isNull();
+        restarted.stop();
+    }
+
+    @Test
+    void keepLogOfFailedSnapshots() throws IOException {
+        //given
+        final var sessionManager = new PersistentSessionManager(directory, InMemoryUserRepository::findByAccount);
+        sessionManager.start();
+        // a directory in place of the temporary snapshot makes every snapshot fail after the log was rotated
+        final var blocker = Files.createDirectory(directory.resolve("SESSIONS.snapshot.tmp"));
+        final var first = sessionManager.createSession();
+        assertThrows(IOException.class, sessionManager::snapshot);
+        final var second = sessionManager.createSession();
+        assertThrows(IOException.class, sessionManager::snapshot);
+
+        //when
+        sessionManager.flush();
+        final var restarted = new PersistentSessionManager(directory, InMemoryUserRepository::findByAccount);
+        restarted.load();
+
+        //then
+        assertAll(
+                () -> assertThat(restarted.findSession(first.getId())).isNotNull(),
+                () -> assertThat(restarted.findSession(second.getId())).isNotNull()
+        );
+        Files.delete(blocker);
+        sessionManager.stop();
+    }
+}
@@ -0,0 +1,190 @@
+package nextstep.org.apache.catalina;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import nextstep.jwp.model.User;
+import org.apache.catalina.Session;
+import org.apache.catalina.SessionManager;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class SessionManagerTest {
+
+    private final ManualClock clock = new ManualClock();
+
+    @Test
+    void findSession() {
+        //given
+        final var sessionManager = new SessionManager(60, 0, clock);
+        final var session = sessionManager.createSession();
+
+        //when
+        clock.advance(59_000);
+        final var found = sessionManager.findSession(session.getId());
+
+        //then
+        assertAll(
+                () -> assertThat(found).isSameAs(session),
+                () -> assertThat(found.getLastAccessedTime()).isEqualTo(clock.millis())
+        );
+    }
+
+    @Test
+    void expireAfterMaxInactiveInterval() {
+        //given
+        final var sessionManager = new SessionManager(60, 0, clock);
+        final var session = sessionManager.createSession();
+
+        //when
+        clock.advance(60_000);
+        final var found = sessionManager.findSession(session.getId());
+
+        //then
+        assertAll(
+                () -> assertThat(found).isNull(),
+                () -> assertThat(sessionManager.getActiveSessions()).isEqualTo(0),
+                () -> assertThat(sessionManager.getExpiredSessions()).isEqualTo(1L)
+        );
+    }
+
+    @Test
+    void accessPostponesExpiry() {
+        //given
+        final var sessionManager = new SessionManager(60, 0, clock);
+        final var session = sessionManager.createSession();
+        clock.advance(40_000);
+        sessionManager.findSession(session.getId());
+
+        //when
+        clock.advance(40_000);
+        sessionManager.backgroundProcess();
+
+        //then
+        assertThat(sessionManager.findSession(session.getId())).isSameAs(session);
+    }
+
+    @Test
+    void backgroundProcess() {
+        //given
+        final var sessionManager = new SessionManager(60, 0, clock);
+        sessionManager.createSession();
+        sessionManager.createSession();
+        clock.advance(30_000);
+        final var recent = sessionManager.createSession();
+
+        //when
+        clock.advance(30_000);
+        sessionManager.backgroundProcess();
+
+        //then
+        assertAll(
+                () -> assertThat(sessionManager.getActiveSessions()).isEqualTo(1),
+                () -> assertThat(sessionManager.getExpiredSessions()).isEqualTo(2L),
+                () -> assertThat(sessionManager.findSession(recent.getId())).isSameAs(recent)
+        );
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() {
+        //given
+        final var sessionManager = new SessionManager(0, 2, clock);
+        final var first = sessionManager.createSession();
+        clock.advance(1_000);
+        final var second = sessionManager.createSession();
+        clock.advance(1_000);
+        sessionManager.findSession(first.getId());
+
+        //when
+        final var third = sessionManager.createSession();
+
+        //then
+        assertAll(
+                () -> assertThat(sessionManager.getActiveSessions()).isEqualTo(2),
+                () -> assertThat(sessionManager.getEvictedSessions()).isEqualTo(1L),
+                () -> assertThat(sessionManager.findSession(second.getId())).isNull(),
+                () -> assertThat(sessionManager.findSession(first.getId())).isSameAs(first),
+                () -> assertThat(sessionManager.findSession(third.getId())).isSameAs(third)
+        );
+    }
+
+    @Test
+    void changeSessionId() {
+        //given
+        final var sessionManager = new SessionManager(60, 0, clock);
+        final var session = sessionManager.createSession();
+        session.setAttribute("count", 1);
+        final var key = session.addUser(new User("gugu", "password", "hkkang@woowahan.com"));
+
+        //when
+        final var changed = sessionManager.changeSessionId(session);
+
+        //then
+        assertAll(
+                () -> assertThat(changed.getId()).isNotEqualTo(session.getId()),
+                () -> assertThat(sessionManager.findSession(session.getId())).isNull(),
+                () -> assertThat(sessionManager.findSession(changed.getId())).isSameAs(changed),
+                () -> assertThat(changed.getAttribute("count")).isEqualTo(1),
+                () -> assertThat(changed.getUser(key).getAccount()).isEqualTo("gugu"),
+                () -> assertThat(changed.getCreationTime()).isEqualTo(session.getCreationTime()),
+                () -> assertThat(sessionManager.getActiveSessions()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void concurrentLogins() throws Exception {
+        //given
+        final var sessionManager = new SessionManager();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final List<Future<Session>> futures = new ArrayList<>();
+
+        //when
+        for (int i = 0; i < 10_000; i++) {
+            futures.add(executor.submit(sessionManager::createSession));
+        }
+        for (Future<Session> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(sessionManager.getActiveSessions()).isEqualTo(10_000);
+    }
+
+    private static class ManualClock extends Clock {
+
+        private long millis = Instant.parse("2023-09-04T00:00:00Z").toEpochMilli();
+
+        void advance(final long duration) {
+            millis += duration;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+    }
+}
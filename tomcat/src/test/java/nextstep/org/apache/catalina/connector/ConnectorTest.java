@@ -0,0 +1,151 @@
+package nextstep.org.apache.catalina.connector;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.connector.ExecutorType;
+import org.apache.coyote.http11.Http11Processor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import support.LoopbackClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static support.LoopbackClient.get;
+
+class ConnectorTest {
+
+    private static final long RELEASE_TIMEOUT_MILLIS = 5_000;
+
+    private Connector connector;
+
+    @AfterEach
+    void tearDown() {
+        if (connector != null) {
+            connector.stop();
+        }
+    }
+
+    @Test
+    void rejectBeyondMaxConnections() throws Exception {
+        //given
+        final var port = LoopbackClient.freePort();
+        connector = new Connector(port, 10, 2, 1, 0, 100);
+        connector.start();
+        final var first = new LoopbackClient(port);
+        final var served = first.send(get("/")).read();
+
+        //when
+        final LoopbackClient.Response rejected;
+        try (final var second = new LoopbackClient(port)) {
+            rejected = second.read();
+        }
+        final var rejectedWhileFirstIsOpen = connector.getMetricRegistry().scrape();
+        first.close();
+        final var afterRelease = awaitServed(port);
+
+        //then
+        assertAll(
+                () -> assertThat(served.getBodyAsString()).isEqualTo("Hello world!"),
+                () -> assertThat(rejected.getStatusLine()).isEqualTo("HTTP/1.1 503 Service Unavailable"),
+                () -> assertThat(afterRelease.getBodyAsString()).isEqualTo("Hello world!"),
+                () -> assertThat(rejectedWhileFirstIsOpen).contains("connections_rejected_total 1\n")
+        );
+    }
+
+    @Test
+    void rejectWhenExecutorIsFull() throws Exception {
+        //given
+        final var port = LoopbackClient.freePort();
+        connector = new Connector(port, 10, 1, 10, 0, 100);
+        // one worker and no queue: a second connection is rejected by the executor, not by maxConnections
+        connector.setExecutor(new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new SynchronousQueue<>()));
+        connector.start();
+        final var first = new LoopbackClient(port);
+        first.send(get("/")).read();
+
+        //when
+        final LoopbackClient.Response rejected;
+        try (final var second = new LoopbackClient(port)) {
+            rejected = second.read();
+        }
+        final var activeWhileFirstIsOpen = connector.getMetricRegistry().scrape();
+        first.close();
+        final var afterRelease = awaitServed(port);
+
+        //then
+        assertAll(
+                () -> assertThat(rejected.getStatusLine()).isEqualTo("HTTP/1.1 503 Service Unavailable"),
+                () -> assertThat(activeWhileFirstIsOpen).contains("connections_active 1\n"),
+                () -> assertThat(afterRelease.getBodyAsString()).isEqualTo("Hello world!")
+        );
+    }
+
+    @Test
+    void serveOnVirtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21");
+
+        //given
+        final var port = LoopbackClient.freePort();
+        connector = new Connector(port, 10, 1, 10, Http11Processor.DEFAULT_KEEP_ALIVE_TIMEOUT,
+                Http11Processor.DEFAULT_MAX_KEEP_ALIVE_REQUESTS, ExecutorType.VIRTUAL);
+        connector.start();
+
+        //when
+        // more open connections than maxThreads, which virtual threads ignore
+        try (final var first = new LoopbackClient(port); final var second = new LoopbackClient(port)) {
+            final var firstResponse = first.send(get("/")).read();
+            final var secondResponse = second.send(get("/")).read();
+
+            //then
+            assertAll(
+                    () -> assertThat(firstResponse.getBodyAsString()).isEqualTo("Hello world!"),
+                    () -> assertThat(secondResponse.getBodyAsString()).isEqualTo("Hello world!")
+            );
+        }
+    }
+
+    @Test
+    void virtualThreadsNeedJava21() throws Exception {
+        assumeTrue(Runtime.version().feature() < 21, "virtual threads are available");
+
+        //given
+        final var port = LoopbackClient.freePort();
+
+        //when, then
+        assertThatThrownBy(() -> new Connector(port, 10, 1, 10, Http11Processor.DEFAULT_KEEP_ALIVE_TIMEOUT,
+                Http11Processor.DEFAULT_MAX_KEEP_ALIVE_REQUESTS, ExecutorType.VIRTUAL))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("virtual threads need Java 21");
+        // the port was given back
+        try (final var serverSocket = new ServerSocket(port)) {
+            assertThat(serverSocket.getLocalPort()).isEqualTo(port);
+        }
+    }
+
+    /**
+     * The worker of a closed connection gives its permit back once it sees the end of the stream, so a new client
+     * may still be turned away for a moment, or reset when the 503 is closed before its request was read.
+     */
+    private static LoopbackClient.Response awaitServed(final int port) throws IOException, InterruptedException {
+        final var deadline = System.currentTimeMillis() + RELEASE_TIMEOUT_MILLIS;
+        while (true) {
+            try (final var client = new LoopbackClient(port)) {
+                final var response = client.send(get("/")).read();
+                if (!response.getStatusLine().startsWith("HTTP/1.1 503") || System.currentTimeMillis() > deadline) {
+                    return response;
+                }
+            } catch (IOException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+            }
+            Thread.sleep(50);
+        }
+    }
+}
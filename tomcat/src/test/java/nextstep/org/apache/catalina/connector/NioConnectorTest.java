@@ -0,0 +1,262 @@
+package nextstep.org.apache.catalina.connector;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.apache.catalina.SessionManager;
+import org.apache.catalina.connector.NioConnector;
+import org.apache.catalina.core.ServletContainer;
+import org.apache.catalina.mapper.RequestMapping;
+import org.apache.coyote.http11.HttpResponse;
+import org.apache.coyote.http11.HttpStatus;
+import org.apache.coyote.http11.StreamingResponseBody;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import support.LoopbackClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static support.LoopbackClient.get;
+
+class NioConnectorTest {
+
+    private static final int STREAMED_SIZE = 1024 * 1024;
+
+    private NioConnector connector;
+
+    @AfterEach
+    void tearDown() {
+        if (connector != null) {
+            connector.stop();
+        }
+    }
+
+    @Test
+    void requestSplitAcrossReads() throws Exception {
+        //given
+        final var port = start(4, 100, 0);
+
+        try (final var client = new LoopbackClient(port)) {
+            //when
+            client.send("GET / HTTP/1.1\r\nHo");
+            Thread.sleep(100);
+            client.send("st: localhost\r\n\r");
+            Thread.sleep(100);
+            client.send("\n");
+            final var first = client.read();
+            final var second = client.send(get("/")).read();
+
+            //then
+            assertAll(
+                    () -> assertThat(first.getStatusLine()).isEqualTo("HTTP/1.1 200 OK"),
+                    () -> assertThat(first.getBodyAsString()).isEqualTo("Hello world!"),
+                    () -> assertThat(second.getBodyAsString()).isEqualTo("Hello world!")
+            );
+        }
+    }
+
+    @Test
+    void closeIdleKeepAliveConnection() throws Exception {
+        //given
+        final var port = start(4, 100, 300);
+
+        try (final var client = new LoopbackClient(port)) {
+            final var response = client.send(get("/")).read();
+
+            //when
+            final var started = System.currentTimeMillis();
+            final var closed = client.isClosedByServer();
+            final var idle = System.currentTimeMillis() - started;
+
+            //then
+            assertAll(
+                    () -> assertThat(response.getBodyAsString()).isEqualTo("Hello world!"),
+                    () -> assertThat(closed).isTrue(),
+                    () -> assertThat(idle).isGreaterThanOrEqualTo(250L)
+            );
+        }
+    }
+
+    @Test
+    void pauseAcceptingAtMaxConnections() throws Exception {
+        //given
+        final var port = start(4, 1, 0);
+        final var first = new LoopbackClient(port);
+        assertThat(first.send(get("/")).read().getBodyAsString()).isEqualTo("Hello world!");
+
+        try (final var second = new LoopbackClient(port)) {
+            //when
+            second.setTimeout(500);
+            second.send(get("/"));
+            assertThrows(SocketTimeoutException.class, second::read);
+            first.close();
+            second.setTimeout(5_000);
+
+            //then
+            assertThat(second.read().getBodyAsString()).isEqualTo("Hello world!");
+        }
+    }
+
+    @Test
+    void streamedResponse() throws Exception {
+        //given
+        final var port = start(4, 100, 0);
+
+        try (final var client = new LoopbackClient(port)) {
+            //when
+            client.send(get("/stream") + get("/"));
+            // the worker fills the socket buffers and has to wait until the client reads
+            Thread.sleep(300);
+            final var streamed = client.read();
+            final var next = client.read();
+
+            //then
+            final var expected = new byte[STREAMED_SIZE];
+            Arrays.fill(expected, (byte) 'a');
+            assertAll(
+                    () -> assertThat(streamed.getHeader("Transfer-Encoding")).isEqualTo("chunked"),
+                    () -> assertThat(streamed.getBody()).isEqualTo(expected),
+                    () -> assertThat(next.getBodyAsString()).isEqualTo("Hello world!")
+            );
+        }
+    }
+
+    @Test
+    void multipleRangesAreStreamed() throws Exception {
+        //given
+        final var port = start(4, 100, 0);
+        final var file = readStatic("css/styles.css");
+
+        try (final var client = new LoopbackClient(port)) {
+            //when
+            client.send("GET /css/styles.css HTTP/1.1\r\nHost: localhost\r\nRange: bytes=0-99,100000-\r\n\r\n");
+            Thread.sleep(300);
+            final var response = client.read();
+
+            //then
+            final var body = new String(response.getBody(), StandardCharsets.ISO_8859_1);
+            final var tail = new String(file, 100_000, file.length - 100_000, StandardCharsets.ISO_8859_1);
+            assertAll(
+                    () -> assertThat(response.getStatusLine()).isEqualTo("HTTP/1.1 206 Partial Content"),
+                    () -> assertThat(response.getHeader("Content-Type")).startsWith("multipart/byteranges"),
+                    () -> assertThat(body).contains(new String(file, 0, 100, StandardCharsets.ISO_8859_1)),
+                    () -> assertThat(body).contains(tail)
+            );
+        }
+    }
+
+    @Test
+    void fileRegionResponse() throws Exception {
+        //given
+        final var port = start(4, 100, 0);
+        final var file = readStatic("css/styles.css");
+
+        try (final var client = new LoopbackClient(port)) {
+            //when
+            final var response = client.send(get("/css/styles.css")).read();
+            final var next = client.send(get("/")).read();
+
+            //then
+            assertAll(
+                    () -> assertThat(response.getHeader("Content-Length")).isEqualTo(String.valueOf(file.length)),
+                    () -> assertThat(response.getBody()).isEqualTo(file),
+                    () -> assertThat(next.getBodyAsString()).isEqualTo("Hello world!")
+            );
+        }
+    }
+
+    @Test
+    void pipelinedResponsesKeepTheirOrder() throws Exception {
+        //given
+        final var port = start(4, 100, 0);
+        final var file = readStatic("css/styles.css");
+        final var index = readStatic("index.html");
+
+        try (final var client = new LoopbackClient(port)) {
+            //when
+            // collected in memory, sent from the file, streamed by the worker, then in memory again
+            client.send(get("/") + get("/css/styles.css") + get("/stream") + get("/index.html") + get("/"));
+            final var hello = client.read();
+            final var fileRegion = client.read();
+            final var streamed = client.read();
+            final var indexPage = client.read();
+            final var last = client.read();
+
+            //then
+            assertAll(
+                    () -> assertThat(hello.getBodyAsString()).isEqualTo("Hello world!"),
+                    () -> assertThat(fileRegion.getBody()).isEqualTo(file),
+                    () -> assertThat(streamed.getHeader("Transfer-Encoding")).isEqualTo("chunked"),
+                    () -> assertThat(streamed.getBody()).hasSize(STREAMED_SIZE),
+                    () -> assertThat(indexPage.getBody()).isEqualTo(index),
+                    () -> assertThat(last.getBodyAsString()).isEqualTo("Hello world!")
+            );
+        }
+    }
+
+    @Test
+    void buffersAreReused() throws Exception {
+        //given
+        final var port = start(4, 100, 0);
+
+        //when
+        for (int i = 0; i < 20; i++) {
+            try (final var client = new LoopbackClient(port)) {
+                client.send(get("/")).read();
+            }
+        }
+
+        //then
+        final var scrape = connector.getMetricRegistry().scrape();
+        assertAll(
+                () -> assertThat(sample(scrape, "nio_buffers_allocated_total{pool=\"read\"}")).isLessThanOrEqualTo(2),
+                () -> assertThat(sample(scrape, "nio_buffers_allocated_total{pool=\"write\"}"))
+                        .isLessThanOrEqualTo(2)
+        );
+    }
+
+    private int start(final int maxThreads, final int maxConnections, final int keepAliveTimeout)
+            throws IOException {
+        final var port = LoopbackClient.freePort();
+        connector = new NioConnector(port, 10, maxThreads, maxConnections, keepAliveTimeout, 100);
+        connector.setServletContainer(new StreamingRoutes());
+        connector.start();
+        return port;
+    }
+
+    private static int sample(final String scrape, final String name) {
+        for (String line : scrape.split("\n")) {
+            if (line.startsWith(name + " ")) {
+                return Integer.parseInt(line.substring(name.length() + 1));
+            }
+        }
+        throw new IllegalArgumentException(name + " is not in the scrape");
+    }
+
+    private byte[] readStatic(final String path) throws IOException {
+        try (final var inputStream = getClass().getClassLoader().getResourceAsStream("static/" + path)) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    /**
+     * Adds a route whose body has no known length, so the worker streams it through the blocking output stream.
+     */
+    private static class StreamingRoutes extends ServletContainer {
+
+        @Override
+        public void register(final RequestMapping mapping, final SessionManager sessionManager) {
+            super.register(mapping, sessionManager);
+            mapping.get("/stream", request -> new HttpResponse(HttpStatus.OK, "Content-Type: text/plain ",
+                    new StreamingResponseBody(outputStream -> {
+                        final var piece = new byte[8192];
+                        Arrays.fill(piece, (byte) 'a');
+                        for (int written = 0; written < STREAMED_SIZE; written += piece.length) {
+                            outputStream.write(piece);
+                        }
+                    })));
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package nextstep.org.apache.catalina.core;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.apache.catalina.SessionManager;
+import org.apache.catalina.core.ServletContainer;
+import org.apache.catalina.mapper.Mapper;
+import org.apache.catalina.mapper.RequestMapping;
+import org.apache.catalina.metrics.MetricRegistry;
+import org.apache.coyote.http11.HttpHeaders;
+import org.apache.coyote.http11.HttpRequest;
+import org.apache.coyote.http11.HttpRequestParser;
+import org.apache.coyote.http11.HttpResponse;
+import org.apache.coyote.http11.PayloadTooLargeException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class ServletContainerTest {
+
+    private static final Pattern SESSION_ID = Pattern.compile("JSESSIONID=([^;]+);");
+
+    private final SessionManager sessionManager = new SessionManager();
+
+    @Test
+    void parametersAndWriter() throws IOException {
+        //given
+        final var container = new ServletContainer();
+        container.addServlet("hello", new HelloServlet(), "/hello");
+        final var mapper = compile(container);
+
+        //when
+        final var get = service(mapper, withQuery("/hello", "name=jwp"));
+        final var post = service(mapper, new HttpRequest("POST", "/hello",
+                Map.of("Content-Type", "application/x-www-form-urlencoded"), "name=gugu%20kim", Map.of()));
+
+        //then
+        assertAll(
+                () -> assertThat(get.getStatusCode()).isEqualTo(200),
+                () -> assertThat(get.buildResponse())
+                        .contains("Content-Type: text/plain;charset=UTF-8 ")
+                        .endsWith("hello jwp"),
+                () -> assertThat(post.buildResponse()).endsWith("hello gugu kim")
+        );
+    }
+
+    @Test
+    void filtersRunInOrderAroundTheServlet() throws IOException {
+        //given
+        final List<String> calls = new ArrayList<>();
+        final var container = new ServletContainer();
+        container.addServlet("hello", new HelloServlet(), "/hello");
+        container.addServlet("other", new HelloServlet(), "/other");
+        container.addFilter("first", new RecordingFilter("first", calls), "/*");
+        container.addFilter("second", new RecordingFilter("second", calls), "/hello");
+        final var mapper = compile(container);
+
+        //when
+        service(mapper, new HttpRequest("GET", "/hello", Map.of(), "", Map.of()));
+        service(mapper, new HttpRequest("GET", "/other", Map.of(), "", Map.of()));
+
+        //then
+        assertThat(calls).containsExactly("first", "second", "first");
+    }
+
+    @Test
+    void filterCanAnswerWithoutTheServlet() throws IOException {
+        //given
+        final var container = new ServletContainer();
+        container.addServlet("hello", new HelloServlet(), "/hello");
+        container.addFilter("deny", new DenyFilter(), "/*");
+        final var mapper = compile(container);
+
+        //when
+        final var response = service(mapper, new HttpRequest("GET", "/hello", Map.of(), "", Map.of()));
+
+        //then
+        assertAll(
+                () -> assertThat(response.getStatusCode()).isEqualTo(403),
+                () -> assertThat(response.buildResponse()).doesNotContain("hello")
+        );
+    }
+
+    @Test
+    void prefixPatternSplitsServletPathAndPathInfo() throws IOException {
+        //given
+        final var container = new ServletContainer();
+        container.addServlet("paths", new PathServlet(), "/api/*");
+        final var mapper = compile(container);
+
+        //when
+        final var nested = service(mapper, new HttpRequest("GET", "/api/users/1", Map.of(), "", Map.of()));
+        final var root = service(mapper, new HttpRequest("DELETE", "/api", Map.of(), "", Map.of()));
+
+        //then
+        assertAll(
+                () -> assertThat(nested.buildResponse()).endsWith("GET /api /users/1"),
+                () -> assertThat(root.buildResponse()).endsWith("DELETE /api null")
+        );
+    }
+
+    @Test
+    void sessionIsKeptByTheSessionManager() throws IOException {
+        //given
+        final var container = new ServletContainer();
+        container.addServlet("counter", new CountingServlet(), "/count");
+        final var mapper = compile(container);
+
+        //when
+        final var first = service(mapper, new HttpRequest("GET", "/count", Map.of(), "", Map.of()));
+        final var matcher = SESSION_ID.matcher(first.buildResponse());
+        assertThat(matcher.find()).isTrue();
+        final var sessionId = matcher.group(1);
+        final var second = service(mapper, new HttpRequest("GET", "/count", Map.of(), "",
+                Map.of("JSESSIONID", sessionId)));
+
+        //then
+        assertAll(
+                () -> assertThat(first.buildResponse()).endsWith("1"),
+                () -> assertThat(second.buildResponse()).endsWith("2").doesNotContain("Set-Cookie"),
+                () -> assertThat(sessionManager.findSession(sessionId).getAttribute("count")).isEqualTo(2)
+        );
+    }
+
+    @Test
+    void changeSessionIdKeepsAttributes() throws IOException {
+        //given
+        final var container = new ServletContainer();
+        container.addServlet("counter", new CountingServlet(), "/count");
+        container.addServlet("login", new ChangeSessionIdServlet(), "/login");
+        final var mapper = compile(container);
+        final var first = SESSION_ID.matcher(
+                service(mapper, new HttpRequest("GET", "/count", Map.of(), "", Map.of())).buildResponse());
+        assertThat(first.find()).isTrue();
+        final var sessionId = first.group(1);
+
+        //when
+        final var response = service(mapper, new HttpRequest("GET", "/login", Map.of(), "",
+                Map.of("JSESSIONID", sessionId))).buildResponse();
+        final var matcher = SESSION_ID.matcher(response);
+        assertThat(matcher.find()).isTrue();
+        final var changedId = matcher.group(1);
+
+        //then
+        assertAll(
+                () -> assertThat(changedId).isNotEqualTo(sessionId),
+                () -> assertThat(response).endsWith(changedId),
+                () -> assertThat(sessionManager.findSession(sessionId)).isNull(),
+                () -> assertThat(sessionManager.findSession(changedId).getAttribute("count")).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void sendRedirect() throws IOException {
+        //given
+        final var container = new ServletContainer();
+        container.addServlet("redirect", new RedirectServlet(), "/old");
+        final var mapper = compile(container);
+
+        //when
+        final var response = service(mapper, new HttpRequest("GET", "/old", Map.of(), "", Map.of()));
+
+        //then
+        assertAll(
+                () -> assertThat(response.getStatusCode()).isEqualTo(302),
+                () -> assertThat(response.buildResponse()).contains("Location: /new ").doesNotContain("ignored")
+        );
+    }
+
+    @Test
+    void headerValuesCannotAddLines() throws IOException {
+        //given
+        final var container = new ServletContainer();
+        container.addServlet("redirect", new ParameterRedirectServlet(), "/go");
+        final var mapper = compile(container);
+
+        //when
+        final var response = service(mapper, withQuery("/go", "next=/home%0D%0ASet-Cookie:%20admin=true"))
+                .buildResponse();
+
+        //then
+        assertAll(
+                () -> assertThat(response).contains("Location: /home  Set-Cookie: admin=true \r\n"),
+                () -> assertThat(response).contains("X-Next: /home  Set-Cookie: admin=true \r\n"),
+                () -> assertThat(response).doesNotContain("\nSet-Cookie")
+        );
+    }
+
+    @Test
+    void servletFailureIsInternalServerError() throws IOException {
+        //given
+        final var container = new ServletContainer();
+        container.addServlet("failing", new FailingServlet(), "/fail");
+        final var mapper = compile(container);
+
+        //when
+        final var response = service(mapper, new HttpRequest("GET", "/fail", Map.of(), "", Map.of()));
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(500);
+    }
+
+    @Test
+    void oversizedFormIsPayloadTooLarge() throws IOException {
+        //given
+        final var container = new ServletContainer();
+        container.addServlet("hello", new HelloServlet(), "/hello");
+        final var mapper = compile(container);
+        final var parser = new HttpRequestParser(HttpRequestParser.DEFAULT_MAX_HEADER_SIZE, 10);
+        final var request = parser.accept(new ByteArrayInputStream(("POST /hello HTTP/1.1\r\n"
+                + "Content-Type: application/x-www-form-urlencoded\r\nTransfer-Encoding: chunked\r\n\r\n"
+                + "5\r\nname=\r\n9\r\nsomebody!\r\n0\r\n\r\n").getBytes(StandardCharsets.UTF_8)));
+
+        //when, then
+        assertThatThrownBy(() -> service(mapper, request)).isInstanceOf(PayloadTooLargeException.class);
+    }
+
+    @Test
+    void facadesAreRecycled() throws IOException {
+        //given
+        final var container = new ServletContainer();
+        container.addServlet("hello", new HelloServlet(), "/hello");
+        final var registry = new MetricRegistry();
+        container.registerMetrics(registry);
+        final var mapper = compile(container);
+
+        //when
+        final var first = service(mapper, withQuery("/hello", "name=first"));
+        final var second = service(mapper, new HttpRequest("GET", "/hello", Map.of(), "", Map.of()));
+
+        //then
+        assertAll(
+                () -> assertThat(first.buildResponse()).endsWith("hello first"),
+                () -> assertThat(second.buildResponse()).endsWith("hello null"),
+                () -> assertThat(registry.scrape()).contains("servlet_exchanges_created_total 1\n")
+        );
+    }
+
+    @Test
+    void extensionMappingIsRejected() {
+        //given
+        final var container = new ServletContainer();
+
+        //when, then
+        assertThatThrownBy(() -> container.addServlet("jsp", new HelloServlet(), "*.jsp"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Mapper compile(final ServletContainer container) {
+        final var mapping = new RequestMapping();
+        container.register(mapping, sessionManager);
+        container.start();
+        return mapping.compile();
+    }
+
+    private static HttpRequest withQuery(final String uri, final String queryString) {
+        return new HttpRequest("GET", uri, queryString, "HTTP/1.1", HttpHeaders.of(Map.of()),
+                InputStream.nullInputStream());
+    }
+
+    private static HttpResponse service(final Mapper mapper, final HttpRequest request) throws IOException {
+        final var route = mapper.map(request.getMethod(), request.getUri());
+        request.setPathVariables(route.getPathVariables());
+        return route.getController().service(request);
+    }
+
+    private static class HelloServlet extends HttpServlet {
+
+        @Override
+        protected void doGet(final HttpServletRequest request, final HttpServletResponse response)
+                throws IOException {
+            response.getWriter().print("hello " + request.getParameter("name"));
+        }
+
+        @Override
+        protected void doPost(final HttpServletRequest request, final HttpServletResponse response)
+                throws IOException {
+            doGet(request, response);
+        }
+    }
+
+    private static class PathServlet extends HttpServlet {
+
+        @Override
+        protected void service(final HttpServletRequest request, final HttpServletResponse response)
+                throws IOException {
+            response.getWriter()
+                    .print(request.getMethod() + " " + request.getServletPath() + " " + request.getPathInfo());
+        }
+    }
+
+    private static class CountingServlet extends HttpServlet {
+
+        @Override
+        protected void doGet(final HttpServletRequest request, final HttpServletResponse response)
+                throws IOException {
+            final var session = request.getSession();
+            final var count = (Integer) session.getAttribute("count");
+            final var next = count == null ? 1 : count + 1;
+            session.setAttribute("count", next);
+            response.getWriter().print(next);
+        }
+    }
+
+    private static class ChangeSessionIdServlet extends HttpServlet {
+
+        @Override
+        protected void doGet(final HttpServletRequest request, final HttpServletResponse response)
+                throws IOException {
+            request.changeSessionId();
+            response.getWriter().print(request.getSession(false).getId());
+        }
+    }
+
+    private static class RedirectServlet extends HttpServlet {
+
+        @Override
+        protected void doGet(final HttpServletRequest request, final HttpServletResponse response)
+                throws IOException {
+            response.sendRedirect("/new");
+            response.getWriter().print("ignored");
+        }
+    }
+
+    private static class ParameterRedirectServlet extends HttpServlet {
+
+        @Override
+        protected void doGet(final HttpServletRequest request, final HttpServletResponse response)
+                throws IOException {
+            response.setHeader("X-Next", request.getParameter("next"));
+            response.sendRedirect(request.getParameter("next"));
+        }
+    }
+
+    private static class FailingServlet extends HttpServlet {
+
+        @Override
+        protected void doGet(final HttpServletRequest request, final HttpServletResponse response) {
+            throw new IllegalStateException("broken");
+        }
+    }
+
+    private static class RecordingFilter implements Filter {
+
+        private final String name;
+        private final List<String> calls;
+
+        private RecordingFilter(final String name, final List<String> calls) {
+            this.name = name;
+            this.calls = calls;
+        }
+
+        @Override
+        public void doFilter(final ServletRequest request, final ServletResponse response, final FilterChain chain)
+                throws IOException, ServletException {
+            calls.add(name);
+            chain.doFilter(request, response);
+        }
+    }
+
+    private static class DenyFilter implements Filter {
+
+        @Override
+        public void doFilter(final ServletRequest request, final ServletResponse response, final FilterChain chain)
+                throws IOException {
+            ((HttpServletResponse) response).sendError(HttpServletResponse.SC_FORBIDDEN);
+        }
+    }
+}
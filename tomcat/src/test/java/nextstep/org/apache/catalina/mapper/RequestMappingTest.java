@@ -0,0 +1,176 @@
+package nextstep.org.apache.catalina.mapper;
+
+import java.io.IOException;
+import java.util.Map;
+import org.apache.catalina.mapper.Controller;
+import org.apache.catalina.mapper.RequestMapping;
+import org.apache.catalina.mapper.Route;
+import org.apache.coyote.http11.HttpRequest;
+import org.apache.coyote.http11.HttpResponse;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class RequestMappingTest {
+
+    private static final Controller INDEX = request -> new HttpResponse("200 OK", "", "index");
+    private static final Controller USER = request -> new HttpResponse("200 OK", "", "user");
+    private static final Controller ME = request -> new HttpResponse("200 OK", "", "me");
+    private static final Controller FILES = request -> new HttpResponse("200 OK", "", "files");
+    private static final Controller CREATE = request -> new HttpResponse("201 Created", "", "created");
+
+    @Test
+    void literalPath() {
+        //given
+        final var mapper = new RequestMapping()
+                .get("/", INDEX)
+                .get("/users/me", ME)
+                .compile();
+
+        //when
+        final var index = mapper.map("GET", "/");
+        final var me = mapper.map("GET", "/users/me");
+
+        //then
+        assertAll(
+                () -> assertThat(index.getController()).isSameAs(INDEX),
+                () -> assertThat(me.getController()).isSameAs(ME),
+                () -> assertThat(me.getPathVariables()).isEmpty()
+        );
+    }
+
+    @Test
+    void pathVariables() {
+        //given
+        final var mapper = new RequestMapping()
+                .get("/users/{id}/posts/{post}", USER)
+                .compile();
+
+        //when
+        final var route = mapper.map("GET", "/users/42/posts/7");
+
+        //then
+        assertAll(
+                () -> assertThat(route.getController()).isSameAs(USER),
+                () -> assertThat(route.getPathVariables()).isEqualTo(Map.of("id", "42", "post", "7"))
+        );
+    }
+
+    @Test
+    void literalSegmentWinsOverVariable() {
+        //given
+        final var mapper = new RequestMapping()
+                .get("/users/{id}", USER)
+                .get("/users/me", ME)
+                .compile();
+
+        //when
+        final var me = mapper.map("GET", "/users/me");
+        final var other = mapper.map("GET", "/users/you");
+
+        //then
+        assertAll(
+                () -> assertThat(me.getController()).isSameAs(ME),
+                () -> assertThat(other.getController()).isSameAs(USER),
+                () -> assertThat(other.getPathVariables()).containsEntry("id", "you")
+        );
+    }
+
+    @Test
+    void backtracksWhenLiteralBranchDeadEnds() {
+        //given
+        final var mapper = new RequestMapping()
+                .get("/users/me/settings", ME)
+                .get("/users/{id}/posts", USER)
+                .compile();
+
+        //when
+        final var route = mapper.map("GET", "/users/me/posts");
+
+        //then
+        assertAll(
+                () -> assertThat(route.getController()).isSameAs(USER),
+                () -> assertThat(route.getPathVariables()).isEqualTo(Map.of("id", "me"))
+        );
+    }
+
+    @Test
+    void catchAllMatchesRestOfPath() {
+        //given
+        final var mapper = new RequestMapping()
+                .get("/files/**", FILES)
+                .compile();
+
+        //when
+        final var route = mapper.map("GET", "/files/css/styles.css");
+
+        //then
+        assertAll(
+                () -> assertThat(route.getController()).isSameAs(FILES),
+                () -> assertThat(route.getPathVariables()).containsEntry("**", "/css/styles.css"),
+                () -> assertThat(status(mapper.map("GET", "/files/"))).isEqualTo(404)
+        );
+    }
+
+    @Test
+    void otherMethodIsNotAllowed() throws IOException {
+        //given
+        final var mapper = new RequestMapping()
+                .get("/users", USER)
+                .post("/users", CREATE)
+                .compile();
+
+        //when
+        final var response = mapper.map("DELETE", "/users").getController()
+                .service(new HttpRequest("DELETE", "/users", Map.of(), "", Map.of()));
+
+        //then
+        assertAll(
+                () -> assertThat(response.getStatusCode()).isEqualTo(405),
+                () -> assertThat(response.buildResponse()).contains("Allow: GET, POST "),
+                () -> assertThat(mapper.map("POST", "/users").getController()).isSameAs(CREATE)
+        );
+    }
+
+    @Test
+    void unknownPathGoesToNotFound() {
+        //given
+        final Controller notFound = request -> new HttpResponse("404 Not Found", "", "");
+        final var mapper = new RequestMapping()
+                .get("/users/{id}", USER)
+                .setNotFound(notFound)
+                .compile();
+
+        //when
+        final var tooLong = mapper.map("GET", "/users/42/posts");
+        final var emptyVariable = mapper.map("GET", "/users/");
+
+        //then
+        assertAll(
+                () -> assertThat(tooLong.getController()).isSameAs(notFound),
+                () -> assertThat(emptyVariable.getController()).isSameAs(notFound)
+        );
+    }
+
+    @Test
+    void invalidRouteIsRejected() {
+        //given
+        final var mapping = new RequestMapping().get("/users", USER);
+
+        //when, then
+        assertAll(
+                () -> assertThatThrownBy(() -> mapping.get("/users", ME))
+                        .isInstanceOf(IllegalArgumentException.class),
+                () -> assertThatThrownBy(() -> mapping.get("/**/users", ME))
+                        .isInstanceOf(IllegalArgumentException.class),
+                () -> assertThatThrownBy(() -> mapping.get("users", ME))
+                        .isInstanceOf(IllegalArgumentException.class)
+        );
+    }
+
+    private static int status(final Route route) throws IOException {
+        return route.getController().service(new HttpRequest("GET", "/", Map.of(), "", Map.of())).getStatusCode();
+    }
+}
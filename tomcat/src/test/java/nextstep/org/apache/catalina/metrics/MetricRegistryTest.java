@@ -0,0 +1,97 @@
+package nextstep.org.apache.catalina.metrics;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.catalina.metrics.Histogram;
+import org.apache.catalina.metrics.MetricRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MetricRegistryTest {
+
+    @Test
+    void counter() {
+        //given
+        final var registry = new MetricRegistry();
+        registry.counter("http_responses_total", "Responses sent.", "status", "404").increment();
+        registry.counter("http_responses_total", "Responses sent.", "status", "200").add(2);
+
+        //when
+        final var scrape = registry.scrape();
+
+        //then
+        assertThat(scrape).isEqualTo(String.join("\n",
+                "# HELP http_responses_total Responses sent.",
+                "# TYPE http_responses_total counter",
+                "http_responses_total{status=\"200\"} 2",
+                "http_responses_total{status=\"404\"} 1",
+                ""));
+    }
+
+    @Test
+    void sameCounterForSameLabels() {
+        //given
+        final var registry = new MetricRegistry();
+
+        //when
+        final var first = registry.counter("requests_total", "Requests.");
+        final var second = registry.counter("requests_total", "Requests.");
+
+        //then
+        assertThat(first).isSameAs(second);
+    }
+
+    @Test
+    void gaugeIsReadWhenScraped() {
+        //given
+        final var registry = new MetricRegistry();
+        final var value = new double[]{1};
+        registry.gauge("sessions_active", "Sessions.", () -> value[0]);
+
+        //when
+        value[0] = 0.25;
+
+        //then
+        assertThat(registry.scrape()).endsWith("sessions_active 0.25\n");
+    }
+
+    @Test
+    void histogram() {
+        //given
+        final var registry = new MetricRegistry();
+        final var histogram = registry.histogram("duration_seconds", "Durations.");
+        histogram.observe(TimeUnit.MICROSECONDS.toNanos(300));
+        histogram.observe(TimeUnit.MILLISECONDS.toNanos(1));
+        histogram.observe(TimeUnit.SECONDS.toNanos(20));
+
+        //when
+        final var scrape = registry.scrape();
+
+        //then
+        assertThat(scrape)
+                .contains("duration_seconds_bucket{le=\"0.0005\"} 1\n")
+                .contains("duration_seconds_bucket{le=\"0.001\"} 2\n")
+                .contains("duration_seconds_bucket{le=\"10\"} 2\n")
+                .contains("duration_seconds_bucket{le=\"+Inf\"} 3\n")
+                .contains("duration_seconds_sum 20.0013\n")
+                .contains("duration_seconds_count 3\n");
+    }
+
+    @Test
+    void bucketsMustIncrease() {
+        assertThatThrownBy(() -> new Histogram(new double[]{0.1, 0.1}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void nameRegisteredWithAnotherType() {
+        //given
+        final var registry = new MetricRegistry();
+        registry.counter("requests", "Requests.");
+
+        //when, then
+        assertThatThrownBy(() -> registry.gauge("requests", "Requests.", () -> 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,53 @@
+package nextstep.org.apache.coyote.http11;
+
+import org.apache.coyote.http11.ByteRange;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class ByteRangeTest {
+
+    @Test
+    void parse() {
+        //when
+        final var ranges = ByteRange.parse("bytes=0-99, 200-, -50, 500-2000", 1000);
+
+        //then
+        assertAll(
+                () -> assertThat(ranges).hasSize(4),
+                () -> assertThat(ranges.get(0).toContentRange(1000)).isEqualTo("bytes 0-99/1000"),
+                () -> assertThat(ranges.get(1).toContentRange(1000)).isEqualTo("bytes 200-999/1000"),
+                () -> assertThat(ranges.get(2).toContentRange(1000)).isEqualTo("bytes 950-999/1000"),
+                () -> assertThat(ranges.get(3).toContentRange(1000)).isEqualTo("bytes 500-999/1000")
+        );
+    }
+
+    @Test
+    void clampedToLength() {
+        final var ranges = ByteRange.parse("bytes=900-1999", 1000);
+
+        assertAll(
+                () -> assertThat(ranges.get(0).getLast()).isEqualTo(999L),
+                () -> assertThat(ranges.get(0).getLength()).isEqualTo(100L)
+        );
+    }
+
+    @Test
+    void notSatisfiable() {
+        assertAll(
+                () -> assertThat(ByteRange.parse("bytes=1000-", 1000)).isEmpty(),
+                () -> assertThat(ByteRange.parse("bytes=-0", 1000)).isEmpty()
+        );
+    }
+
+    @Test
+    void ignored() {
+        assertAll(
+                () -> assertThat(ByteRange.parse("items=0-1", 1000)).isNull(),
+                () -> assertThat(ByteRange.parse("bytes=5-1", 1000)).isNull(),
+                () -> assertThat(ByteRange.parse("bytes=a-b", 1000)).isNull(),
+                () -> assertThat(ByteRange.parse("bytes=" + "0-1,".repeat(17), 1000)).isNull()
+        );
+    }
+}
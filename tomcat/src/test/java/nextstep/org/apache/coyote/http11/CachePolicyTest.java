@@ -0,0 +1,46 @@
+package nextstep.org.apache.coyote.http11;
+
+import org.apache.coyote.http11.CachePolicy;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class CachePolicyTest {
+
+    @Test
+    void pathBeforeType() {
+        //given
+        final var policy = new CachePolicy();
+        policy.addPath("/login", CachePolicy.NO_STORE);
+        policy.addPath("/assets/**", "max-age=600");
+        policy.addPath("*.css", "max-age=60");
+        policy.addType("text/html", CachePolicy.NO_CACHE);
+        policy.addType("image/*", "max-age=86400");
+        policy.setDefault("max-age=0");
+
+        //when, then
+        assertAll(
+                () -> assertThat(policy.getCacheControl("/login", "text/html")).isEqualTo(CachePolicy.NO_STORE),
+                () -> assertThat(policy.getCacheControl("/assets/img/logo.svg", "image/svg+xml"))
+                        .isEqualTo("max-age=600"),
+                () -> assertThat(policy.getCacheControl("/css/styles.css", "text/css")).isEqualTo("max-age=60"),
+                () -> assertThat(policy.getCacheControl("/index.html", "text/html")).isEqualTo(CachePolicy.NO_CACHE),
+                () -> assertThat(policy.getCacheControl("/logo.png", "image/png")).isEqualTo("max-age=86400"),
+                () -> assertThat(policy.getCacheControl("/data.json", "application/json")).isEqualTo("max-age=0"),
+                () -> assertThat(policy.getCacheControl("/", null)).isEqualTo("max-age=0")
+        );
+    }
+
+    @Test
+    void defaultPolicy() {
+        final var policy = CachePolicy.defaultPolicy();
+
+        assertAll(
+                () -> assertThat(policy.getCacheControl("/register", "text/html")).isEqualTo(CachePolicy.NO_STORE),
+                () -> assertThat(policy.getCacheControl("/js/scripts.js", "application/javascript"))
+                        .isEqualTo(CachePolicy.NO_CACHE),
+                () -> assertThat(policy.getCacheControl("/", "text/plain")).isNull()
+        );
+    }
+}
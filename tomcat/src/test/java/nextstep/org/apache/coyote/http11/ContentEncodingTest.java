@@ -0,0 +1,33 @@
+package nextstep.org.apache.coyote.http11;
+
+import org.apache.coyote.http11.ContentEncoding;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class ContentEncodingTest {
+
+    @Test
+    void negotiate() {
+        assertAll(
+                () -> assertThat(ContentEncoding.negotiate("gzip, deflate, br")).isEqualTo(ContentEncoding.GZIP),
+                () -> assertThat(ContentEncoding.negotiate("deflate")).isEqualTo(ContentEncoding.DEFLATE),
+                () -> assertThat(ContentEncoding.negotiate("gzip;q=0.5, deflate")).isEqualTo(ContentEncoding.DEFLATE),
+                () -> assertThat(ContentEncoding.negotiate("*")).isEqualTo(ContentEncoding.GZIP),
+                () -> assertThat(ContentEncoding.negotiate("gzip;q=0, *;q=0.1")).isEqualTo(ContentEncoding.DEFLATE),
+                () -> assertThat(ContentEncoding.negotiate("br")).isEqualTo(ContentEncoding.IDENTITY),
+                () -> assertThat(ContentEncoding.negotiate(null)).isEqualTo(ContentEncoding.IDENTITY)
+        );
+    }
+
+    @Test
+    void isCompressible() {
+        assertAll(
+                () -> assertThat(ContentEncoding.isCompressible("Content-Type: text/css;charset=utf-8 ")).isTrue(),
+                () -> assertThat(ContentEncoding.isCompressible("application/javascript")).isTrue(),
+                () -> assertThat(ContentEncoding.isCompressible("Content-Type: image/png ")).isFalse(),
+                () -> assertThat(ContentEncoding.isCompressible(null)).isFalse()
+        );
+    }
+}
@@ -2,11 +2,23 @@ package nextstep.org.apache.coyote.http11;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.UUID;
 import org.apache.catalina.SessionManager;
+import org.apache.catalina.mapper.Mapper;
+import org.apache.catalina.mapper.RequestMapping;
+import org.apache.catalina.metrics.MetricRegistry;
+import org.apache.coyote.http11.CachePolicy;
 import org.apache.coyote.http11.Http11Processor;
+import org.apache.coyote.http11.HttpMetrics;
+import org.apache.coyote.http11.HttpRequestParser;
+import org.apache.coyote.http11.HttpResponse;
+import org.apache.coyote.http11.HttpStatus;
+import org.apache.coyote.http11.StaticResourceCache;
 import org.apache.catalina.Session;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -17,11 +29,37 @@ import static org.junit.jupiter.api.Assertions.assertAll;
 
 class Http11ProcessorTest {
 
+    private static final StaticResourceCache RESOURCE_CACHE = new StaticResourceCache();
+    private static final CachePolicy CACHE_POLICY = CachePolicy.defaultPolicy();
+    private static final HttpMetrics METRICS = new HttpMetrics(new MetricRegistry());
+    private static final Mapper MAPPER = Http11Processor.createMapper(new SessionManager(), RESOURCE_CACHE,
+            CACHE_POLICY, METRICS);
+
+    private static Http11Processor processor(final Socket socket) {
+        return processor(socket, MAPPER, METRICS, Http11Processor.DEFAULT_KEEP_ALIVE_TIMEOUT,
+                Http11Processor.DEFAULT_MAX_KEEP_ALIVE_REQUESTS);
+    }
+
+    /**
+     * For tests that look at the sessions: the routes are built again around the given manager.
+     */
+    private static Http11Processor processor(final Socket socket, final SessionManager sessionManager) {
+        final var mapper = Http11Processor.createMapper(sessionManager, RESOURCE_CACHE, CACHE_POLICY, METRICS);
+        return processor(socket, mapper, METRICS, Http11Processor.DEFAULT_KEEP_ALIVE_TIMEOUT,
+                Http11Processor.DEFAULT_MAX_KEEP_ALIVE_REQUESTS);
+    }
+
+    private static Http11Processor processor(final Socket socket, final Mapper mapper, final HttpMetrics metrics,
+                                             final int keepAliveTimeout, final int maxKeepAliveRequests) {
+        return new Http11Processor(socket, mapper, CACHE_POLICY, metrics, null, keepAliveTimeout,
+                maxKeepAliveRequests, HttpRequestParser.DEFAULT_MAX_BODY_SIZE);
+    }
+
     @Test
     void process() {
         // given
         final var socket = new StubSocket();
-        final var processor = new Http11Processor(socket, new SessionManager());
+        final var processor = processor(socket);
 
         // when
         processor.process(socket);
@@ -48,7 +86,7 @@ class Http11ProcessorTest {
                 "");
 
         final var socket = new StubSocket(httpRequest);
-        final Http11Processor processor = new Http11Processor(socket, new SessionManager());
+        final Http11Processor processor = processor(socket);
 
         // when
         processor.process(socket);
@@ -56,6 +94,9 @@ class Http11ProcessorTest {
         // then
         final URL resource = getClass().getClassLoader().getResource("static/index.html");
         var expected = "HTTP/1.1 200 OK \r\n" +
+                "Vary: Accept-Encoding \r\n" +
+                resourceHeaders("/index.html") +
+                "Cache-Control: no-cache \r\n" +
                 "Content-Type: text/html;charset=utf-8 \r\n" +
                 "Content-Length: 5564 \r\n" +
                 "\r\n" +
@@ -64,6 +105,343 @@ class Http11ProcessorTest {
         assertThat(socket.output()).isEqualTo(expected);
     }
 
+    @Test
+    void largeFile() throws IOException {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET /css/styles.css HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Connection: close ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final URL resource = getClass().getClassLoader().getResource("static/css/styles.css");
+        final var body = Files.readAllBytes(new File(resource.getFile()).toPath());
+        var expected = "HTTP/1.1 200 OK \r\n" +
+                "Vary: Accept-Encoding \r\n" +
+                resourceHeaders("/css/styles.css") +
+                "Cache-Control: no-cache \r\n" +
+                "Connection: close \r\n" +
+                "Content-Type: text/css;charset=utf-8 \r\n" +
+                "Content-Length: " + body.length + " \r\n" +
+                "\r\n" +
+                new String(body);
+
+        assertThat(socket.output()).isEqualTo(expected);
+    }
+
+    @Test
+    void precompressed() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET /css/styles.css HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Accept-Encoding: gzip, deflate, br ",
+                "Connection: close ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final var output = socket.output();
+        final var head = output.substring(0, output.indexOf("\r\n\r\n"));
+        assertAll(
+                () -> assertThat(head).contains("Content-Encoding: gzip "),
+                () -> assertThat(head).contains("Vary: Accept-Encoding "),
+                () -> assertThat(head).doesNotContain("Content-Length: 211991 ")
+        );
+    }
+
+    @Nested
+    class ConditionalGet {
+
+        @Test
+        void ifNoneMatch() throws IOException {
+            //given
+            final var etag = new StaticResourceCache().get("/index.html").getEtag();
+            final String httpRequest = String.join("\r\n",
+                    "GET /index.html HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "If-None-Match: \"other\", " + etag,
+                    "",
+                    "");
+            final var socket = new StubSocket(httpRequest);
+            final Http11Processor processor = processor(socket);
+
+            //when
+            processor.process(socket);
+
+            //then
+            final var expected = "HTTP/1.1 304 Not Modified \r\n" +
+                    "ETag: " + etag + " \r\n" +
+                    "Vary: Accept-Encoding \r\n" +
+                    "Cache-Control: no-cache \r\n" +
+                    "\r\n";
+            assertThat(socket.output()).isEqualTo(expected);
+        }
+
+        @Test
+        void ifNoneMatchOtherEncoding() throws IOException {
+            //given
+            final var etag = new StaticResourceCache().get("/index.html").getEtag();
+            final String httpRequest = String.join("\r\n",
+                    "GET /index.html HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "Accept-Encoding: gzip ",
+                    "If-None-Match: " + etag,
+                    "",
+                    "");
+            final var socket = new StubSocket(httpRequest);
+            final Http11Processor processor = processor(socket);
+
+            //when
+            processor.process(socket);
+
+            //then
+            assertAll(
+                    () -> assertThat(socket.output()).startsWith("HTTP/1.1 200 OK"),
+                    () -> assertThat(socket.output()).contains("Content-Encoding: gzip")
+            );
+        }
+
+        @Test
+        void ifModifiedSince() throws IOException {
+            //given
+            final var lastModified = new StaticResourceCache().get("/index.html").getLastModifiedHeader();
+            final String httpRequest = String.join("\r\n",
+                    "GET /index.html HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "If-Modified-Since: " + lastModified,
+                    "",
+                    "");
+            final var socket = new StubSocket(httpRequest);
+            final Http11Processor processor = processor(socket);
+
+            //when
+            processor.process(socket);
+
+            //then
+            assertThat(socket.output()).startsWith("HTTP/1.1 304 Not Modified");
+        }
+
+        @Test
+        void modifiedSince() {
+            //given
+            final String httpRequest = String.join("\r\n",
+                    "GET /index.html HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "If-Modified-Since: Thu, 01 Jan 1970 00:00:00 GMT",
+                    "",
+                    "");
+            final var socket = new StubSocket(httpRequest);
+            final Http11Processor processor = processor(socket);
+
+            //when
+            processor.process(socket);
+
+            //then
+            assertThat(socket.output()).startsWith("HTTP/1.1 200 OK");
+        }
+    }
+
+    @Nested
+    class Range {
+
+        @Test
+        void singleRange() throws IOException {
+            //given
+            final String httpRequest = String.join("\r\n",
+                    "GET /css/styles.css HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "Accept-Encoding: gzip ",
+                    "Range: bytes=100-199",
+                    "",
+                    "");
+            final var socket = new StubSocket(httpRequest);
+            final Http11Processor processor = processor(socket);
+
+            //when
+            processor.process(socket);
+
+            //then
+            final URL resource = getClass().getClassLoader().getResource("static/css/styles.css");
+            final var file = Files.readAllBytes(new File(resource.getFile()).toPath());
+            final var output = socket.output();
+            assertAll(
+                    () -> assertThat(output).startsWith("HTTP/1.1 206 Partial Content"),
+                    () -> assertThat(output).contains("Content-Range: bytes 100-199/" + file.length + " \r\n"),
+                    () -> assertThat(output).contains("Content-Length: 100 \r\n"),
+                    () -> assertThat(output).doesNotContain("Content-Encoding"),
+                    () -> assertThat(output).endsWith(new String(file, 100, 100))
+            );
+        }
+
+        @Test
+        void multipleRanges() throws IOException {
+            //given
+            final String httpRequest = String.join("\r\n",
+                    "GET /index.html HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "Range: bytes=0-9, -5",
+                    "",
+                    "");
+            final var socket = new StubSocket(httpRequest);
+            final Http11Processor processor = processor(socket);
+
+            //when
+            processor.process(socket);
+
+            //then
+            final URL resource = getClass().getClassLoader().getResource("static/index.html");
+            final var file = Files.readAllBytes(new File(resource.getFile()).toPath());
+            final var output = socket.output();
+            final var boundary = output.replaceFirst("(?s).*boundary=(\\w+).*", "$1");
+            final var expectedBody = "--" + boundary + "\r\n" +
+                    "Content-Type: text/html;charset=utf-8\r\n" +
+                    "Content-Range: bytes 0-9/5564\r\n" +
+                    "\r\n" +
+                    new String(file, 0, 10, StandardCharsets.UTF_8) + "\r\n" +
+                    "--" + boundary + "\r\n" +
+                    "Content-Type: text/html;charset=utf-8\r\n" +
+                    "Content-Range: bytes 5559-5563/5564\r\n" +
+                    "\r\n" +
+                    new String(file, 5559, 5, StandardCharsets.UTF_8) + "\r\n" +
+                    "--" + boundary + "--\r\n";
+            assertAll(
+                    () -> assertThat(output).startsWith("HTTP/1.1 206 Partial Content"),
+                    () -> assertThat(output).contains(
+                            "Content-Length: " + expectedBody.getBytes(StandardCharsets.UTF_8).length + " \r\n"),
+                    () -> assertThat(output).endsWith("\r\n\r\n" + expectedBody)
+            );
+        }
+
+        @Test
+        void notSatisfiable() {
+            //given
+            final String httpRequest = String.join("\r\n",
+                    "GET /index.html HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "Range: bytes=6000-",
+                    "",
+                    "");
+            final var socket = new StubSocket(httpRequest);
+            final Http11Processor processor = processor(socket);
+
+            //when
+            processor.process(socket);
+
+            //then
+            assertAll(
+                    () -> assertThat(socket.output()).startsWith("HTTP/1.1 416 Range Not Satisfiable"),
+                    () -> assertThat(socket.output()).contains("Content-Range: bytes */5564 \r\n")
+            );
+        }
+
+        @Test
+        void ifRangeChanged() {
+            //given
+            final String httpRequest = String.join("\r\n",
+                    "GET /index.html HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "Range: bytes=0-9",
+                    "If-Range: \"0outdated\"",
+                    "",
+                    "");
+            final var socket = new StubSocket(httpRequest);
+            final Http11Processor processor = processor(socket);
+
+            //when
+            processor.process(socket);
+
+            //then
+            assertAll(
+                    () -> assertThat(socket.output()).startsWith("HTTP/1.1 200 OK"),
+                    () -> assertThat(socket.output()).contains("Content-Length: 5564 \r\n")
+            );
+        }
+
+        @Test
+        void ifRangeMatches() throws IOException {
+            //given
+            final var etag = new StaticResourceCache().get("/index.html").getEtag();
+            final String httpRequest = String.join("\r\n",
+                    "GET /index.html HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "Range: bytes=0-9",
+                    "If-Range: " + etag,
+                    "",
+                    "");
+            final var socket = new StubSocket(httpRequest);
+            final Http11Processor processor = processor(socket);
+
+            //when
+            processor.process(socket);
+
+            //then
+            assertThat(socket.output()).startsWith("HTTP/1.1 206 Partial Content");
+        }
+    }
+
+    @Nested
+    class VersionedResource {
+
+        @Test
+        void immutable() throws IOException {
+            //given
+            final var path = new StaticResourceCache().getVersionedPath("/js/scripts.js");
+            final String httpRequest = String.join("\r\n",
+                    "GET " + path + " HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "",
+                    "");
+            final var socket = new StubSocket(httpRequest);
+            final Http11Processor processor = processor(socket);
+
+            //when
+            processor.process(socket);
+
+            //then
+            final URL resource = getClass().getClassLoader().getResource("static/js/scripts.js");
+            final var body = new String(Files.readAllBytes(new File(resource.getFile()).toPath()));
+            assertAll(
+                    () -> assertThat(path).startsWith("/resources/"),
+                    () -> assertThat(socket.output()).startsWith("HTTP/1.1 200 OK"),
+                    () -> assertThat(socket.output()).contains("Cache-Control: max-age=31536000, immutable \r\n"),
+                    () -> assertThat(socket.output()).endsWith(body)
+            );
+        }
+
+        @Test
+        void otherVersion() {
+            //given
+            final String httpRequest = String.join("\r\n",
+                    "GET /resources/0123456789abcdef/js/scripts.js HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "",
+                    "");
+            final var socket = new StubSocket(httpRequest);
+            final Http11Processor processor = processor(socket);
+
+            //when
+            processor.process(socket);
+
+            //then
+            assertThat(socket.output()).startsWith("HTTP/1.1 404 Not Found");
+        }
+    }
+
     @Nested
     class Login {
 
@@ -77,10 +455,13 @@ class Http11ProcessorTest {
                     "",
                     "");
             final var socket = new StubSocket(httpRequest);
-            final Http11Processor processor = new Http11Processor(socket, new SessionManager());
+            final Http11Processor processor = processor(socket);
 
             final URL resource = getClass().getClassLoader().getResource("static/login.html");
             var expected = "HTTP/1.1 200 OK \r\n" +
+                    "Vary: Accept-Encoding \r\n" +
+                    resourceHeaders("/login.html") +
+                    "Cache-Control: no-store \r\n" +
                     "Content-Type: text/html;charset=utf-8 \r\n" +
                     "Content-Length: 3797 \r\n" +
                     "\r\n" +
@@ -106,7 +487,7 @@ class Http11ProcessorTest {
                     "account=gugu&password=password");
 
             final var socket = new StubSocket(httpRequest);
-            final Http11Processor processor = new Http11Processor(socket, new SessionManager());
+            final Http11Processor processor = processor(socket);
 
             //when
             processor.process(socket);
@@ -118,7 +499,8 @@ class Http11ProcessorTest {
             assertAll(
                     () -> assertThat(response).startsWith("HTTP/1.1 302 Found"),
                     () -> assertThat(response).contains(location),
-                    () -> assertThat(response).containsPattern(cookie)
+                    () -> assertThat(response).containsPattern(cookie),
+                    () -> assertThat(response).contains("Cache-Control: no-store \r\n")
             );
         }
 
@@ -135,7 +517,7 @@ class Http11ProcessorTest {
                     "account=gugu&password=wrongPassword");
 
             final var socket = new StubSocket(httpRequest);
-            final Http11Processor processor = new Http11Processor(socket, new SessionManager());
+            final Http11Processor processor = processor(socket);
 
             //when
             processor.process(socket);
@@ -143,6 +525,8 @@ class Http11ProcessorTest {
             //then
             final var URI = getClass().getClassLoader().getResource("static/401.html");
             final var expected = "HTTP/1.1 401 Unauthorized \r\n" +
+                    "Vary: Accept-Encoding \r\n" +
+                    "Cache-Control: no-store \r\n" +
                     "Content-Type: text/html;charset=utf-8 \r\n" +
                     "Content-Length: 2426 \r\n" +
                     "\r\n" +
@@ -164,7 +548,7 @@ class Http11ProcessorTest {
                     "account=gugu&password=password");
 
             final var socket = new StubSocket(httpRequest);
-            final Http11Processor processor = new Http11Processor(socket, new SessionManager());
+            final Http11Processor processor = processor(socket);
 
             //when
             processor.process(socket);
@@ -196,7 +580,7 @@ class Http11ProcessorTest {
                     "");
 
             final var socket = new StubSocket(httpRequest);
-            final Http11Processor processor = new Http11Processor(socket, sessionManager);
+            final Http11Processor processor = processor(socket, sessionManager);
 
 
             //when
@@ -204,7 +588,10 @@ class Http11ProcessorTest {
 
             //then
             final var expected = "HTTP/1.1 302 Found \r\n" +
-                    "Location: /index.html \r\n";
+                    "Location: /index.html \r\n" +
+                    "Cache-Control: no-store \r\n" +
+                    "Content-Length: 0 \r\n" +
+                    "\r\n";
             assertThat(socket.output()).isEqualTo(expected);
         }
 
@@ -219,9 +606,9 @@ class Http11ProcessorTest {
                     "account=gugu&password=password");
 
             final var socket = new StubSocket(httpRequest);
-            final Http11Processor processor = new Http11Processor(socket, sessionManager);
+            final Http11Processor processor = processor(socket, sessionManager);
             processor.process(socket);
-            return socket.output().split("JSESSIONID=")[1];
+            return socket.output().split("JSESSIONID=")[1].split(" ")[0];
         }
 
     }
@@ -239,10 +626,13 @@ class Http11ProcessorTest {
                     "",
                     "");
             final var socket = new StubSocket(httpRequest);
-            final Http11Processor processor = new Http11Processor(socket, new SessionManager());
+            final Http11Processor processor = processor(socket);
 
             final URL resource = getClass().getClassLoader().getResource("static/register.html");
             var expected = "HTTP/1.1 200 OK \r\n" +
+                    "Vary: Accept-Encoding \r\n" +
+                    resourceHeaders("/register.html") +
+                    "Cache-Control: no-store \r\n" +
                     "Content-Type: text/html;charset=utf-8 \r\n" +
                     "Content-Length: 4319 \r\n" +
                     "\r\n" +
@@ -261,23 +651,302 @@ class Http11ProcessorTest {
                     "POST /register HTTP/1.1 ",
                     "Host: localhost:8080 ",
                     "Connection: keep-alive ",
-                    "Content-Length: 30",
+                    "Content-Length: 53",
                     "Content-Type: application/x-www-form-urlencoded ",
                     "",
                     "account=rosie&email=rosie@zipgo.pet&password=password");
             final var socket = new StubSocket(httpRequest);
-            final Http11Processor processor = new Http11Processor(socket, new SessionManager());
+            final Http11Processor processor = processor(socket);
 
             //when
             processor.process(socket);
 
             //then
             final var expected = "HTTP/1.1 302 Found \r\n" +
-                    "Location: /index.html \r\n";
+                    "Location: /index.html \r\n" +
+                    "Cache-Control: no-store \r\n" +
+                    "Content-Length: 0 \r\n" +
+                    "\r\n";
+            assertThat(socket.output()).isEqualTo(expected);
+        }
+
+    }
+
+    @Nested
+    class KeepAlive {
+
+        @Test
+        void multipleRequestsOnOneConnection() {
+            //given
+            final String request = String.join("\r\n",
+                    "GET / HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "Connection: keep-alive ",
+                    "",
+                    "");
+            final var socket = new StubSocket(request + request);
+            final Http11Processor processor = processor(socket);
+
+            //when
+            processor.process(socket);
+
+            //then
+            final var response = String.join("\r\n",
+                    "HTTP/1.1 200 OK ",
+                    "Content-Type: text/plain;charset=utf-8 ",
+                    "Content-Length: 12 ",
+                    "",
+                    "Hello world!");
+            assertThat(socket.output()).isEqualTo(response + response);
+        }
+
+        @Test
+        void pipelinedRequestsAnsweredInOrder() {
+            //given
+            final String httpRequest = String.join("\r\n",
+                    "POST /login HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "Content-Length: 30",
+                    "Content-Type: application/x-www-form-urlencoded ",
+                    "",
+                    "account=gugu&password=passwordGET / HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "",
+                    "GET /nothing HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "",
+                    "");
+            final var socket = new StubSocket(httpRequest);
+            final Http11Processor processor = processor(socket);
+
+            //when
+            processor.process(socket);
+
+            //then
+            final var output = socket.output();
+            final var found = output.indexOf("HTTP/1.1 302 Found");
+            final var ok = output.indexOf("HTTP/1.1 200 OK");
+            final var notFound = output.indexOf("HTTP/1.1 404 Not Found");
+            assertAll(
+                    () -> assertThat(found).isEqualTo(0),
+                    () -> assertThat(ok).isGreaterThan(found),
+                    () -> assertThat(notFound).isGreaterThan(ok)
+            );
+        }
+
+        @Test
+        void connectionClose() {
+            //given
+            final String httpRequest = String.join("\r\n",
+                    "GET / HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "Connection: close ",
+                    "",
+                    "");
+            final var socket = new StubSocket(httpRequest + httpRequest);
+            final Http11Processor processor = processor(socket);
+
+            //when
+            processor.process(socket);
+
+            //then
+            final var expected = String.join("\r\n",
+                    "HTTP/1.1 200 OK ",
+                    "Connection: close ",
+                    "Content-Type: text/plain;charset=utf-8 ",
+                    "Content-Length: 12 ",
+                    "",
+                    "Hello world!");
             assertThat(socket.output()).isEqualTo(expected);
         }
 
+        @Test
+        void maxKeepAliveRequests() {
+            //given
+            final String httpRequest = String.join("\r\n",
+                    "GET / HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "",
+                    "");
+            final var socket = new StubSocket(httpRequest + httpRequest + httpRequest);
+            final Http11Processor processor = processor(socket, MAPPER, METRICS, 1_000, 2);
+
+            //when
+            processor.process(socket);
+
+            //then
+            final String response = socket.output();
+            assertAll(
+                    () -> assertThat(response.split("HTTP/1.1 200 OK")).hasSize(3),
+                    () -> assertThat(response).endsWith("Connection: close \r\n" +
+                            "Content-Type: text/plain;charset=utf-8 \r\n" +
+                            "Content-Length: 12 \r\n" +
+                            "\r\n" +
+                            "Hello world!")
+            );
+        }
+    }
+
+
+    private static String resourceHeaders(final String path) throws IOException {
+        final var resource = new StaticResourceCache().get(path);
+        return "ETag: " + resource.getEtag() + " \r\n" +
+                "Last-Modified: " + resource.getLastModifiedHeader() + " \r\n" +
+                "Accept-Ranges: bytes \r\n";
+    }
+
+    @Nested
+    class Metrics {
+
+        @Test
+        void metricsForLocalClients() {
+            //given
+            final String httpRequest = String.join("\r\n",
+                    "GET /index.html HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "",
+                    "GET /nothing.html HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "",
+                    "GET /admin/metrics HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "Connection: close ",
+                    "",
+                    "");
+            final var socket = new StubSocket(httpRequest);
+            final var metrics = new HttpMetrics(new MetricRegistry());
+            final var mapper = Http11Processor.createMapper(new SessionManager(), RESOURCE_CACHE, CACHE_POLICY,
+                    metrics);
+            final var processor = processor(socket, mapper, metrics, 0, 0);
+
+            //when
+            processor.process(socket);
+
+            //then
+            final var output = socket.output();
+            final var scrape = output.substring(output.lastIndexOf("HTTP/1.1 200 OK"));
+            assertAll(
+                    () -> assertThat(scrape).contains("Content-Type: text/plain;version=0.0.4;charset=utf-8 "),
+                    () -> assertThat(scrape).contains("http_responses_total{status=\"200\"} 1\n"),
+                    () -> assertThat(scrape).contains("http_responses_total{status=\"404\"} 1\n"),
+                    () -> assertThat(scrape).contains("http_request_duration_seconds_count 2\n")
+            );
+        }
+
+        @Test
+        void notFoundForRemoteClients() throws IOException {
+            //given
+            final String httpRequest = String.join("\r\n",
+                    "GET /admin/metrics HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "",
+                    "");
+            final var socket = new StubSocket(httpRequest, InetAddress.getByAddress(new byte[]{10, 0, 0, 1}));
+            final var processor = processor(socket);
+
+            //when
+            processor.process(socket);
+
+            //then
+            assertThat(socket.output()).startsWith("HTTP/1.1 404 Not Found ");
+        }
     }
 
+    @Nested
+    class Routing {
+
+        @Test
+        void unknownPathIsNotFound() {
+            //given
+            final String httpRequest = String.join("\r\n",
+                    "GET /nothing.html HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "",
+                    "");
+            final var socket = new StubSocket(httpRequest);
+            final var processor = processor(socket);
+
+            //when
+            processor.process(socket);
+
+            //then
+            assertThat(socket.output()).startsWith("HTTP/1.1 404 Not Found ");
+        }
+
+        @Test
+        void otherMethodIsNotAllowed() {
+            //given
+            final String httpRequest = String.join("\r\n",
+                    "DELETE /login HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "",
+                    "");
+            final var socket = new StubSocket(httpRequest);
+            final var processor = processor(socket);
+
+            //when
+            processor.process(socket);
+
+            //then
+            final var output = socket.output();
+            assertAll(
+                    () -> assertThat(output).startsWith("HTTP/1.1 405 Method Not Allowed "),
+                    () -> assertThat(output).contains("Allow: GET, POST ")
+            );
+        }
+
+        @Test
+        void sharedMapper() {
+            //given
+            final String httpRequest = String.join("\r\n",
+                    "GET / HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "",
+                    "");
+            final var socket = new StubSocket(httpRequest);
+            final var metrics = new HttpMetrics(new MetricRegistry());
+            final var mapper = Http11Processor.createMapper(new SessionManager(), RESOURCE_CACHE, CACHE_POLICY,
+                    metrics);
+            final var processor = processor(socket, mapper, metrics, 0, 0);
 
+            //when
+            processor.process(socket);
+
+            //then
+            assertThat(socket.output()).endsWith("Hello world!");
+        }
+
+        @Test
+        void failingHandlerIsInternalServerError() {
+            //given
+            final String httpRequest = String.join("\r\n",
+                    "GET /fail HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "",
+                    "GET /hello HTTP/1.1 ",
+                    "Host: localhost:8080 ",
+                    "",
+                    "");
+            final var socket = new StubSocket(httpRequest);
+            final var mapper = new RequestMapping()
+                    .get("/fail", request -> {
+                        throw new IllegalArgumentException("not a request error");
+                    })
+                    .get("/hello", request -> new HttpResponse(HttpStatus.OK, "Content-Type: text/plain;charset=utf-8 ",
+                            "Hello world!"))
+                    .compile();
+            final var processor = processor(socket, mapper, METRICS, 0, 0);
+
+            //when
+            processor.process(socket);
+
+            //then
+            final var output = socket.output();
+            assertAll(
+                    () -> assertThat(output).startsWith("HTTP/1.1 500 Internal Server Error "),
+                    () -> assertThat(output).doesNotContain("Connection: close"),
+                    () -> assertThat(output).endsWith("Hello world!")
+            );
+        }
+    }
 }
@@ -0,0 +1,277 @@
+package nextstep.org.apache.coyote.http11;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.apache.coyote.http11.HttpRequestParser;
+import org.apache.coyote.http11.PayloadTooLargeException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HttpRequestParserTest {
+
+    @Test
+    void accept() throws IOException {
+        //given
+        final String httpRequest = String.join("\r\n",
+                "GET /login?account=gugu HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "cookie: yummy_cookie=choco; JSESSIONID=656cef62-e3c4-40bc-a8df-94732920ed46",
+                "",
+                "");
+        final var parser = new HttpRequestParser();
+
+        //when
+        final var request = parser.accept(toInputStream(httpRequest));
+
+        //then
+        assertAll(
+                () -> assertThat(request.getMethod()).isEqualTo("GET"),
+                () -> assertThat(request.getUri()).isEqualTo("/login"),
+                () -> assertThat(request.getQueryString()).isEqualTo("account=gugu"),
+                () -> assertThat(request.getProtocol()).isEqualTo("HTTP/1.1"),
+                () -> assertThat(request.getHeader("host")).isEqualTo("localhost:8080"),
+                () -> assertThat(request.getCookie("JSESSIONID")).isEqualTo("656cef62-e3c4-40bc-a8df-94732920ed46")
+        );
+    }
+
+    @Test
+    void acceptMessageBody() throws IOException {
+        //given
+        final var body = "account=gugu&password=password&email=hkkang%40woowahan.com";
+        final String httpRequest = String.join("\r\n",
+                "POST /register HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Content-Length: " + body.getBytes(StandardCharsets.UTF_8).length,
+                "",
+                body);
+        final var parser = new HttpRequestParser();
+
+        //when
+        final var request = parser.accept(toInputStream(httpRequest));
+
+        //then
+        assertThat(request.getMessageBody()).isEqualTo(body);
+    }
+
+    @Test
+    void acceptPipelinedRequests() throws IOException {
+        //given
+        final String httpRequest = String.join("\r\n",
+                "POST /login HTTP/1.1 ",
+                "Content-Length: 4",
+                "",
+                "a=bcGET /index.html HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "",
+                "");
+        final var parser = new HttpRequestParser();
+        final var inputStream = toInputStream(httpRequest);
+
+        //when
+        final var first = parser.accept(inputStream);
+        final var firstBody = first.getMessageBody();
+        final var second = parser.accept(inputStream);
+        final var end = parser.accept(inputStream);
+
+        //then
+        assertAll(
+                () -> assertThat(firstBody).isEqualTo("a=bc"),
+                () -> assertThat(second.getUri()).isEqualTo("/index.html"),
+                () -> assertThat(end).isNull()
+        );
+    }
+
+    @Test
+    void requestIsRecycled() throws IOException {
+        //given
+        final String httpRequest = String.join("\r\n",
+                "POST /login?account=gugu HTTP/1.1 ",
+                "Cookie: JSESSIONID=656cef62-e3c4-40bc-a8df-94732920ed46",
+                "Content-Length: 4",
+                "X-Request-Id: first",
+                "",
+                "a=bcGET /index.html HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "",
+                "");
+        final var parser = new HttpRequestParser();
+        final var inputStream = toInputStream(httpRequest);
+
+        //when
+        final var first = parser.accept(inputStream);
+        first.getCookie("JSESSIONID");
+        first.getMessageBody();
+        first.setPathVariables(Map.of("id", "1"));
+        final var second = parser.accept(inputStream);
+
+        //then
+        assertAll(
+                () -> assertThat(second).isSameAs(first),
+                () -> assertThat(second.getUri()).isEqualTo("/index.html"),
+                () -> assertThat(second.getQueryString()).isNull(),
+                () -> assertThat(second.getHeader("Host")).isEqualTo("localhost:8080"),
+                () -> assertThat(second.getHeader("X-Request-Id")).isNull(),
+                () -> assertThat(second.getCookie("JSESSIONID")).isNull(),
+                () -> assertThat(second.getPathVariable("id")).isNull(),
+                () -> assertThat(second.getMessageBody()).isEmpty()
+        );
+    }
+
+    @Test
+    void hasPipelinedRequest() throws IOException {
+        //given
+        final String httpRequest = String.join("\r\n",
+                "POST /login HTTP/1.1 ",
+                "Content-Length: 4",
+                "",
+                "a=bcGET /index.html HTTP/1.1 ",
+                "",
+                "");
+        final var parser = new HttpRequestParser();
+        final var inputStream = toInputStream(httpRequest);
+
+        //when
+        parser.accept(inputStream);
+        final var pipelined = parser.hasPipelinedRequest();
+        final var second = parser.accept(inputStream);
+        final var pipelinedAfterLast = parser.hasPipelinedRequest();
+
+        //then
+        assertAll(
+                () -> assertThat(pipelined).isTrue(),
+                () -> assertThat(second.getUri()).isEqualTo("/index.html"),
+                () -> assertThat(pipelinedAfterLast).isFalse()
+        );
+    }
+
+    @Test
+    void skipUnreadBody() throws IOException {
+        //given
+        final String httpRequest = String.join("\r\n",
+                "POST /index.html HTTP/1.1 ",
+                "Content-Length: 4",
+                "",
+                "a=bcGET /login HTTP/1.1 ",
+                "",
+                "");
+        final var parser = new HttpRequestParser();
+        final var inputStream = toInputStream(httpRequest);
+
+        //when
+        parser.accept(inputStream);
+        final var second = parser.accept(inputStream);
+
+        //then
+        assertThat(second.getUri()).isEqualTo("/login");
+    }
+
+    @Test
+    void acceptMultiByteBody() throws IOException {
+        //given
+        final var body = "account=구구&password=비밀번호";
+        final String httpRequest = String.join("\r\n",
+                "POST /login HTTP/1.1 ",
+                "Content-Type: application/x-www-form-urlencoded;charset=utf-8",
+                "Content-Length: " + body.getBytes(StandardCharsets.UTF_8).length,
+                "",
+                body + "GET / HTTP/1.1\r\n\r\n");
+        final var parser = new HttpRequestParser();
+        final var inputStream = toInputStream(httpRequest);
+
+        //when
+        final var request = parser.accept(inputStream);
+        final var messageBody = request.getMessageBody();
+        final var next = parser.accept(inputStream);
+
+        //then
+        assertAll(
+                () -> assertThat(messageBody).isEqualTo(body),
+                () -> assertThat(next.getUri()).isEqualTo("/")
+        );
+    }
+
+    @Test
+    void acceptChunkedBody() throws IOException {
+        //given
+        final String httpRequest = String.join("\r\n",
+                "POST /register HTTP/1.1 ",
+                "Transfer-Encoding: chunked",
+                "",
+                "d",
+                "account=gugu&",
+                "11;name=value",
+                "password=password",
+                "0",
+                "Expires: never",
+                "",
+                "GET / HTTP/1.1",
+                "",
+                "");
+        final var parser = new HttpRequestParser();
+        final var inputStream = toInputStream(httpRequest);
+
+        //when
+        final var request = parser.accept(inputStream);
+        final var messageBody = request.getMessageBody();
+        final var next = parser.accept(inputStream);
+
+        //then
+        assertAll(
+                () -> assertThat(messageBody).isEqualTo("account=gugu&password=password"),
+                () -> assertThat(next.getUri()).isEqualTo("/")
+        );
+    }
+
+    @Test
+    void contentLengthTooLarge() {
+        final var parser = new HttpRequestParser(HttpRequestParser.DEFAULT_MAX_HEADER_SIZE, 10);
+        final var httpRequest = "POST /login HTTP/1.1\r\nContent-Length: 11\r\n\r\naccount=abc";
+
+        assertThrows(PayloadTooLargeException.class, () -> parser.accept(toInputStream(httpRequest)));
+    }
+
+    @Test
+    void chunkedBodyTooLarge() throws IOException {
+        final var parser = new HttpRequestParser(HttpRequestParser.DEFAULT_MAX_HEADER_SIZE, 10);
+        final var httpRequest = "POST /login HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n"
+                + "7\r\naccount\r\n6\r\n=abcde\r\n0\r\n\r\n";
+        final var request = parser.accept(toInputStream(httpRequest));
+
+        assertThrows(PayloadTooLargeException.class, request::getMessageBody);
+    }
+
+    @Test
+    void chunkSizesOverflowingTheTotal() throws IOException {
+        final var parser = new HttpRequestParser();
+        final var httpRequest = "POST /login HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n"
+                + "1\r\na\r\n7fffffffffffffff\r\nbcdef\r\n0\r\n\r\n";
+        final var request = parser.accept(toInputStream(httpRequest));
+
+        assertThrows(PayloadTooLargeException.class, request::getMessageBody);
+    }
+
+    @Test
+    void invalidRequestLine() {
+        final var parser = new HttpRequestParser();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> parser.accept(toInputStream("GET\r\nHost: localhost\r\n\r\n")));
+    }
+
+    @Test
+    void headerTooLarge() {
+        final var parser = new HttpRequestParser(64);
+        final var httpRequest = "GET / HTTP/1.1\r\nCookie: " + "a".repeat(100) + "\r\n\r\n";
+
+        assertThrows(IllegalArgumentException.class, () -> parser.accept(toInputStream(httpRequest)));
+    }
+
+    private ByteArrayInputStream toInputStream(final String httpRequest) {
+        return new ByteArrayInputStream(httpRequest.getBytes(StandardCharsets.UTF_8));
+    }
+}
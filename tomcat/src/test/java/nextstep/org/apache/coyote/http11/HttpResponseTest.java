@@ -0,0 +1,288 @@
+package nextstep.org.apache.coyote.http11;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import org.apache.coyote.http11.ContentEncoding;
+import org.apache.coyote.http11.HttpResponse;
+import org.apache.coyote.http11.HttpStatus;
+import org.apache.coyote.http11.StreamingResponseBody;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HttpResponseTest {
+
+    @Test
+    void chunked() throws IOException {
+        //given
+        final var response = new HttpResponse("200 OK", "Content-Type: text/plain;charset=utf-8 ",
+                new StreamingResponseBody(outputStream -> {
+                    outputStream.write("Hello".getBytes(StandardCharsets.UTF_8));
+                    outputStream.flush();
+                    outputStream.write(" world!".getBytes(StandardCharsets.UTF_8));
+                }));
+        response.setBufferSize(4);
+        final var output = new ByteArrayOutputStream();
+
+        //when
+        response.writeTo(output);
+
+        //then
+        final var expected = String.join("\r\n",
+                "HTTP/1.1 200 OK ",
+                "Content-Type: text/plain;charset=utf-8 ",
+                "Transfer-Encoding: chunked ",
+                "",
+                "5",
+                "Hello",
+                "7",
+                " world!",
+                "0",
+                "",
+                "");
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(expected);
+    }
+
+    @Test
+    void bufferedUntilFull() throws IOException {
+        //given
+        final var response = new HttpResponse("200 OK", "Content-Type: text/plain;charset=utf-8 ",
+                new StreamingResponseBody(outputStream -> {
+                    for (byte b : "Hello world!".getBytes(StandardCharsets.UTF_8)) {
+                        outputStream.write(b);
+                    }
+                }));
+        response.setBufferSize(8);
+        final var output = new ByteArrayOutputStream();
+
+        //when
+        response.writeTo(output);
+
+        //then
+        assertThat(output.toString(StandardCharsets.UTF_8)).endsWith("8\r\nHello wo\r\n4\r\nrld!\r\n0\r\n\r\n");
+    }
+
+    @Test
+    void failedBodyIsNotTerminated() {
+        //given
+        final var response = new HttpResponse("200 OK", "Content-Type: text/plain;charset=utf-8 ",
+                new StreamingResponseBody(outputStream -> {
+                    try (outputStream) {
+                        outputStream.write("Hello".getBytes(StandardCharsets.UTF_8));
+                        throw new IOException("source failed");
+                    }
+                }));
+        final var output = new ByteArrayOutputStream();
+
+        //when
+        assertThrows(IOException.class, () -> response.writeTo(output));
+
+        //then
+        assertThat(output.toString(StandardCharsets.UTF_8)).endsWith("5\r\nHello\r\n");
+    }
+
+    @Test
+    void streamedBodyIsNotFlushed() throws IOException {
+        //given
+        final var response = new HttpResponse("200 OK", "Content-Type: text/plain;charset=utf-8 ",
+                new StreamingResponseBody(outputStream ->
+                        outputStream.write("Hello".getBytes(StandardCharsets.UTF_8))));
+        final var flushes = new AtomicInteger();
+        final var output = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+
+        //when
+        response.writeTo(output);
+
+        //then
+        assertAll(
+                () -> assertThat(output.toString(StandardCharsets.UTF_8)).endsWith("5\r\nHello\r\n0\r\n\r\n"),
+                () -> assertThat(flushes.get()).isEqualTo(0)
+        );
+    }
+
+    @Test
+    void notChunked() throws IOException {
+        //given
+        final var response = new HttpResponse("200 OK", "Content-Type: text/plain;charset=utf-8 ",
+                new StreamingResponseBody(outputStream ->
+                        outputStream.write("Hello world!".getBytes(StandardCharsets.UTF_8))));
+        response.setChunked(false);
+        final var output = new ByteArrayOutputStream();
+
+        //when
+        response.writeTo(output);
+
+        //then
+        final var expected = String.join("\r\n",
+                "HTTP/1.1 200 OK ",
+                "Content-Type: text/plain;charset=utf-8 ",
+                "",
+                "Hello world!");
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(expected);
+    }
+
+    @Test
+    void compress() throws IOException {
+        //given
+        final var body = "Hello world!".repeat(100);
+        final var response = new HttpResponse("200 OK", "Content-Type: text/plain;charset=utf-8 ", body);
+        final var output = new ByteArrayOutputStream();
+
+        //when
+        response.compress(ContentEncoding.GZIP);
+        response.writeTo(output);
+
+        //then
+        final var bytes = output.toByteArray();
+        final var head = output.toString(StandardCharsets.ISO_8859_1);
+        final var bodyStart = head.indexOf("\r\n\r\n") + 4;
+        final var decoded = new GZIPInputStream(new ByteArrayInputStream(bytes, bodyStart, bytes.length - bodyStart))
+                .readAllBytes();
+        assertAll(
+                () -> assertThat(head).contains("Vary: Accept-Encoding \r\n"),
+                () -> assertThat(head).contains("Content-Encoding: gzip \r\n"),
+                () -> assertThat(head).contains("Content-Length: " + (bytes.length - bodyStart) + " \r\n"),
+                () -> assertThat(new String(decoded, StandardCharsets.UTF_8)).isEqualTo(body)
+        );
+    }
+
+    @Test
+    void compressStreamingBody() throws IOException {
+        //given
+        final var response = new HttpResponse("200 OK", "Content-Type: text/plain;charset=utf-8 ",
+                new StreamingResponseBody(outputStream -> {
+                    outputStream.write("Hello".getBytes(StandardCharsets.UTF_8));
+                    outputStream.flush();
+                    outputStream.write(" world!".getBytes(StandardCharsets.UTF_8));
+                }));
+        response.setChunked(false);
+        final var output = new ByteArrayOutputStream();
+
+        //when
+        response.compress(ContentEncoding.DEFLATE);
+        response.writeTo(output);
+
+        //then
+        final var bytes = output.toByteArray();
+        final var head = output.toString(StandardCharsets.ISO_8859_1);
+        final var bodyStart = head.indexOf("\r\n\r\n") + 4;
+        final var decoded = new InflaterInputStream(new ByteArrayInputStream(bytes, bodyStart,
+                bytes.length - bodyStart)).readAllBytes();
+        assertAll(
+                () -> assertThat(head).contains("Content-Encoding: deflate \r\n"),
+                () -> assertThat(new String(decoded, StandardCharsets.UTF_8)).isEqualTo("Hello world!")
+        );
+    }
+
+    @Test
+    void notCompressedBelowMinSize() throws IOException {
+        final var response = new HttpResponse("200 OK", "Content-Type: text/plain;charset=utf-8 ", "Hello world!");
+
+        response.compress(ContentEncoding.GZIP);
+
+        assertThat(response.buildResponse()).doesNotContain("Content-Encoding");
+    }
+
+    @Test
+    void binaryBody() throws IOException {
+        //given
+        final var body = new byte[256];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) i;
+        }
+        final var response = new HttpResponse(HttpStatus.OK, HttpResponse.contentType("image/png"), body);
+        final var output = new ByteArrayOutputStream();
+
+        //when
+        response.writeTo(output);
+
+        //then
+        final var bytes = output.toByteArray();
+        final var head = output.toString(StandardCharsets.ISO_8859_1);
+        final var bodyStart = head.indexOf("\r\n\r\n") + 4;
+        assertAll(
+                () -> assertThat(head).startsWith("HTTP/1.1 200 OK \r\nContent-Type: image/png \r\n"),
+                () -> assertThat(head).contains("Content-Length: 256 \r\n"),
+                () -> assertThat(ByteBuffer.wrap(bytes, bodyStart, bytes.length - bodyStart))
+                        .isEqualTo(ByteBuffer.wrap(body))
+        );
+    }
+
+    @Test
+    void directByteBufferBody() throws IOException {
+        //given
+        final var body = ByteBuffer.allocateDirect(12).put("Hello world!".getBytes(StandardCharsets.UTF_8)).flip();
+        final var response = new HttpResponse(HttpStatus.NOT_FOUND, HttpResponse.contentType("text/plain"), body);
+
+        //when
+        final var first = response.buildResponse();
+        final var second = response.buildResponse();
+
+        //then
+        assertAll(
+                () -> assertThat(first).startsWith("HTTP/1.1 404 Not Found \r\n"),
+                () -> assertThat(first).contains("Content-Length: 12 \r\n"),
+                () -> assertThat(first).endsWith("\r\n\r\nHello world!"),
+                () -> assertThat(second).isEqualTo(first)
+        );
+    }
+
+    @Test
+    void charsetOnlyForText() {
+        assertAll(
+                () -> assertThat(HttpResponse.contentType("text/css"))
+                        .isEqualTo("Content-Type: text/css;charset=utf-8 "),
+                () -> assertThat(HttpResponse.contentType("application/json"))
+                        .isEqualTo("Content-Type: application/json;charset=utf-8 "),
+                () -> assertThat(HttpResponse.contentType("image/svg+xml"))
+                        .isEqualTo("Content-Type: image/svg+xml;charset=utf-8 "),
+                () -> assertThat(HttpResponse.contentType("image/png")).isEqualTo("Content-Type: image/png "),
+                () -> assertThat(HttpResponse.contentType("application/octet-stream"))
+                        .isEqualTo("Content-Type: application/octet-stream ")
+        );
+    }
+
+    @Test
+    void statusWithoutConstant() {
+        final var response = new HttpResponse("418 I'm a teapot", "Content-Type: text/plain;charset=utf-8 ", "tea");
+
+        assertAll(
+                () -> assertThat(response.getStatusCode()).isEqualTo(418),
+                () -> assertThat(response.buildResponse()).startsWith("HTTP/1.1 418 I'm a teapot \r\n")
+        );
+    }
+
+    @Test
+    void controlCharactersInHeadersAreSpaces() throws IOException {
+        //given
+        final var response = new HttpResponse(HttpStatus.OK, "Content-Type: text/plain\r\nX-Type: injected ", "");
+        response.addHeader("Location", "/next\r\nSet-Cookie: admin=true");
+        response.appendHeader("Location", "/other\nX-Other: injected");
+        response.addHeader("X-Tab", "a\tb");
+
+        //when
+        final var head = response.buildResponse();
+
+        //then
+        assertAll(
+                () -> assertThat(head).contains("Location: /next  Set-Cookie: admin=true \r\n"),
+                () -> assertThat(head).contains("Location: /other X-Other: injected \r\n"),
+                () -> assertThat(head).contains("Content-Type: text/plain  X-Type: injected \r\n"),
+                () -> assertThat(head).contains("X-Tab: a\tb \r\n"),
+                () -> assertThat(head).doesNotContain("\nSet-Cookie", "\nX-Other", "\nX-Type")
+        );
+    }
+}
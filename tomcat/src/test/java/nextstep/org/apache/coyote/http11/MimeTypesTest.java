@@ -0,0 +1,55 @@
+package nextstep.org.apache.coyote.http11;
+
+import org.apache.coyote.http11.MimeTypes;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class MimeTypesTest {
+
+    @Test
+    void defaultTypes() {
+        final var mimeTypes = MimeTypes.defaultTypes();
+
+        assertAll(
+                () -> assertThat(mimeTypes.getContentType("index.html"))
+                        .isEqualTo("Content-Type: text/html;charset=utf-8 "),
+                () -> assertThat(mimeTypes.getContentType("scripts.js"))
+                        .isEqualTo("Content-Type: text/javascript;charset=utf-8 "),
+                () -> assertThat(mimeTypes.getContentType("logo.svg"))
+                        .isEqualTo("Content-Type: image/svg+xml;charset=utf-8 "),
+                () -> assertThat(mimeTypes.getContentType("PHOTO.JPG")).isEqualTo("Content-Type: image/jpeg "),
+                () -> assertThat(mimeTypes.getContentType("font.woff2")).isEqualTo("Content-Type: font/woff2 ")
+        );
+    }
+
+    @Test
+    void unknownExtension() {
+        final var mimeTypes = MimeTypes.defaultTypes();
+
+        assertAll(
+                () -> assertThat(mimeTypes.getContentType("archive.unknown"))
+                        .isEqualTo("Content-Type: application/octet-stream "),
+                () -> assertThat(mimeTypes.getContentType("assets.v2/README"))
+                        .isEqualTo("Content-Type: application/octet-stream ")
+        );
+    }
+
+    @Test
+    void addType() {
+        //given
+        final var mimeTypes = MimeTypes.defaultTypes();
+
+        //when
+        mimeTypes.addType("YAML", "application/yaml");
+        mimeTypes.addType("ico", "image/vnd.microsoft.icon");
+
+        //then
+        assertAll(
+                () -> assertThat(mimeTypes.getContentType("config.yaml")).isEqualTo("Content-Type: application/yaml "),
+                () -> assertThat(mimeTypes.getContentType("favicon.ico"))
+                        .isEqualTo("Content-Type: image/vnd.microsoft.icon ")
+        );
+    }
+}
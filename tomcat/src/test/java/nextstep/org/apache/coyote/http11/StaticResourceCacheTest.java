@@ -0,0 +1,143 @@
+package nextstep.org.apache.coyote.http11;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+import org.apache.coyote.http11.ByteArrayResponseBody;
+import org.apache.coyote.http11.ContentEncoding;
+import org.apache.coyote.http11.FileRegion;
+import org.apache.coyote.http11.MimeTypes;
+import org.apache.coyote.http11.StaticResourceCache;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class StaticResourceCacheTest {
+
+    @Test
+    void get() throws IOException {
+        //given
+        final var cache = new StaticResourceCache();
+        final URL url = getClass().getClassLoader().getResource("static/index.html");
+        final var expected = Files.readAllBytes(new File(url.getFile()).toPath());
+
+        //when
+        final var resource = cache.get("/index.html");
+
+        //then
+        assertAll(
+                () -> assertThat(resource.getBody()).isEqualTo(expected),
+                () -> assertThat(resource.getContentLength()).isEqualTo((long) expected.length),
+                () -> assertThat(resource.getContentType()).isEqualTo("Content-Type: text/html;charset=utf-8 "),
+                () -> assertThat(resource.getEtag()).startsWith("\"0")
+        );
+    }
+
+    @Test
+    void fileRegion() throws IOException {
+        //given
+        final var cache = new StaticResourceCache();
+        final URL url = getClass().getClassLoader().getResource("static/css/styles.css");
+        final var file = new File(url.getFile());
+
+        //when
+        final var resource = cache.get("/css/styles.css");
+
+        //then
+        assertAll(
+                () -> assertThat(resource.getBody()).isNull(),
+                () -> assertThat(resource.getResponseBody()).isInstanceOf(FileRegion.class),
+                () -> assertThat(resource.getContentLength()).isEqualTo(file.length()),
+                () -> assertThat(resource.getContentType()).isEqualTo("Content-Type: text/css;charset=utf-8 "),
+                () -> assertThat(resource.getEtag()).startsWith("\"0")
+        );
+    }
+
+    @Test
+    void precompressed() throws IOException {
+        //given
+        final var cache = new StaticResourceCache();
+        final URL url = getClass().getClassLoader().getResource("static/css/styles.css");
+        final var expected = Files.readAllBytes(new File(url.getFile()).toPath());
+
+        //when
+        final var resource = cache.get("/css/styles.css");
+
+        //then
+        final var gzip = (ByteArrayResponseBody) resource.getResponseBody(ContentEncoding.GZIP);
+        final var decoded = new GZIPInputStream(new ByteArrayInputStream(gzip.getBytes())).readAllBytes();
+        assertAll(
+                () -> assertThat(resource.isEncoded()).isTrue(),
+                () -> assertThat(decoded).isEqualTo(expected),
+                () -> assertThat(gzip.getContentLength()).isLessThan((long) expected.length),
+                () -> assertThat(resource.getResponseBody(ContentEncoding.DEFLATE)).isNotNull()
+        );
+    }
+
+    @Test
+    void contentTypeFromMimeTypes() throws IOException {
+        //given
+        final var mimeTypes = MimeTypes.defaultTypes();
+        mimeTypes.addType("js", "application/javascript");
+        final var cache = new StaticResourceCache(StaticResourceCache.DEFAULT_MAX_SIZE, false,
+                StaticResourceCache.DEFAULT_FILE_REGION_SIZE, mimeTypes);
+
+        //when
+        final var script = cache.get("/js/scripts.js");
+        final var image = cache.get("/assets/img/error-404-monochrome.svg");
+
+        //then
+        assertAll(
+                () -> assertThat(script.getContentType())
+                        .isEqualTo("Content-Type: application/javascript;charset=utf-8 "),
+                () -> assertThat(image.getContentType()).isEqualTo("Content-Type: image/svg+xml;charset=utf-8 ")
+        );
+    }
+
+    @Test
+    void versionedPath() throws IOException {
+        //given
+        final var cache = new StaticResourceCache();
+        final var resource = cache.get("/index.html");
+
+        //when
+        final var versionedPath = cache.getVersionedPath("/index.html");
+
+        //then
+        assertAll(
+                () -> assertThat(versionedPath).isEqualTo("/resources/" + resource.getVersion() + "/index.html"),
+                () -> assertThat(resource.getEtag()).contains(resource.getVersion()),
+                () -> assertThat(cache.getVersioned(versionedPath)).isSameAs(resource),
+                () -> assertThat(cache.getVersioned("/resources/0/index.html")).isNull(),
+                () -> assertThat(cache.getVersionedPath("/nothing.html")).isEqualTo("/nothing.html")
+        );
+    }
+
+    @Test
+    void cached() throws IOException {
+        //given
+        final var cache = new StaticResourceCache();
+        final var loaded = cache.get("/index.html");
+
+        //when
+        final var cached = cache.get("/index.html");
+
+        //then
+        assertThat(cached).isSameAs(loaded);
+    }
+
+    @Test
+    void notFound() throws IOException {
+        final var cache = new StaticResourceCache();
+
+        assertAll(
+                () -> assertThat(cache.get("/nothing.html")).isNull(),
+                () -> assertThat(cache.get("/css")).isNull(),
+                () -> assertThat(cache.get("/../logback.xml")).isNull()
+        );
+    }
+}
@@ -0,0 +1,144 @@
+package support;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A client on a real loopback socket that writes requests as they are given and reads responses byte by byte, for
+ * tests of the connectors.
+ */
+public class LoopbackClient implements AutoCloseable {
+
+    private static final int TIMEOUT_MILLIS = 5_000;
+
+    private final Socket socket;
+    private final InputStream inputStream;
+    private final OutputStream outputStream;
+
+    public LoopbackClient(final int port) throws IOException {
+        socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        socket.setSoTimeout(TIMEOUT_MILLIS);
+        inputStream = new BufferedInputStream(socket.getInputStream());
+        outputStream = socket.getOutputStream();
+    }
+
+    /**
+     * @return a port nobody listens on right now
+     */
+    public static int freePort() throws IOException {
+        try (final var serverSocket = new ServerSocket(0)) {
+            return serverSocket.getLocalPort();
+        }
+    }
+
+    public static String get(final String uri) {
+        return "GET " + uri + " HTTP/1.1\r\nHost: localhost\r\n\r\n";
+    }
+
+    public LoopbackClient send(final String request) throws IOException {
+        outputStream.write(request.getBytes(StandardCharsets.ISO_8859_1));
+        outputStream.flush();
+        return this;
+    }
+
+    public void setTimeout(final int millis) throws IOException {
+        socket.setSoTimeout(millis);
+    }
+
+    /**
+     * Read one response, its body delimited by {@code Content-Length} or chunked.
+     */
+    public Response read() throws IOException {
+        final var statusLine = readLine();
+        final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (var line = readLine(); !line.isEmpty(); line = readLine()) {
+            final var colon = line.indexOf(':');
+            headers.put(line.substring(0, colon), line.substring(colon + 1).trim());
+        }
+        final var contentLength = headers.get("Content-Length");
+        if (contentLength != null) {
+            return new Response(statusLine, headers, inputStream.readNBytes(Integer.parseInt(contentLength)));
+        }
+        final var transferEncoding = headers.get("Transfer-Encoding");
+        if (transferEncoding != null && transferEncoding.toLowerCase(Locale.ROOT).contains("chunked")) {
+            return new Response(statusLine, headers, readChunks());
+        }
+        return new Response(statusLine, headers, new byte[0]);
+    }
+
+    private byte[] readChunks() throws IOException {
+        final var body = new ByteArrayOutputStream();
+        while (true) {
+            final var size = Integer.parseInt(readLine().split(";")[0].trim(), 16);
+            if (size == 0) {
+                readLine();
+                return body.toByteArray();
+            }
+            body.write(inputStream.readNBytes(size));
+            readLine();
+        }
+    }
+
+    private String readLine() throws IOException {
+        final var line = new ByteArrayOutputStream();
+        int b;
+        while ((b = inputStream.read()) != '\n') {
+            if (b < 0) {
+                throw new IOException("connection closed");
+            }
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.ISO_8859_1).trim();
+    }
+
+    /**
+     * @return {@code true} if the server closed the connection before sending anything more
+     */
+    public boolean isClosedByServer() throws IOException {
+        return inputStream.read() < 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    public static class Response {
+
+        private final String statusLine;
+        private final Map<String, String> headers;
+        private final byte[] body;
+
+        private Response(final String statusLine, final Map<String, String> headers, final byte[] body) {
+            this.statusLine = statusLine;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        public String getStatusLine() {
+            return statusLine;
+        }
+
+        public String getHeader(final String name) {
+            return headers.get(name);
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getBodyAsString() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -6,16 +6,21 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.Socket;
-import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
 
 public class StubSocket extends Socket {
 
     private final String request;
+    private final InetAddress inetAddress;
     private final ByteArrayOutputStream outputStream;
 
     public StubSocket(final String request) {
+        this(request, InetAddress.getLoopbackAddress());
+    }
+
+    public StubSocket(final String request, final InetAddress inetAddress) {
         this.request = request;
+        this.inetAddress = inetAddress;
         this.outputStream = new ByteArrayOutputStream();
     }
 
@@ -24,11 +29,7 @@ public class StubSocket extends Socket {
     }
 
     public InetAddress getInetAddress() {
-        try {
-            return InetAddress.getLocalHost();
-        } catch (UnknownHostException ignored) {
-            return null;
-        }
+        return inetAddress;
     }
 
     public int getPort() {